@@ -0,0 +1,93 @@
+/**
+ * Keeps ML Kit barcode scanners for reuse by the add and edit item dialogs. Creating a scanner
+ * client and loading its model on the first scan are slow, so rather than every dialog creating a
+ * client of its own, a scanner is created and warmed up with a blank image while the app is idle,
+ * and dialogs borrow scanners from the pool and return them when they are destroyed. This class
+ * follows the Singleton pattern and is used on the main thread.
+ */
+
+package com.example.cmput301project;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import com.google.mlkit.vision.barcode.BarcodeScanner;
+import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
+import com.google.mlkit.vision.barcode.BarcodeScanning;
+import com.google.mlkit.vision.barcode.common.Barcode;
+import com.google.mlkit.vision.common.InputImage;
+
+import java.util.ArrayDeque;
+
+public class BarcodeScannerPool {
+
+    /**
+     * Number of returned scanners kept; more are closed.
+     */
+    private static final int MAX_IDLE_SCANNERS = 2;
+
+    private static final String TAG = "BarcodeScannerPool";
+
+    // Membership variable declaration
+    private static BarcodeScannerPool instance = null;
+    private final BarcodeScannerOptions options;
+    private final ArrayDeque<BarcodeScanner> idle;
+
+    private BarcodeScannerPool() {
+        options = new BarcodeScannerOptions.Builder().setBarcodeFormats(Barcode.FORMAT_ALL_FORMATS).build();
+        idle = new ArrayDeque<>();
+    }
+
+    /**
+     * Singleton for the scanner pool.
+     *
+     * @return the instance of the scanner pool class
+     */
+    public static BarcodeScannerPool getInstance() {
+        if (instance == null) {
+            instance = new BarcodeScannerPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a scanner for the pool if it has none, and has it scan a blank image so its model
+     * is loaded before the first real scan.
+     */
+    public void warmUp() {
+        if (!idle.isEmpty()) {
+            return;
+        }
+        BarcodeScanner scanner = BarcodeScanning.getClient(options);
+        Bitmap blank = Bitmap.createBitmap(32, 32, Bitmap.Config.ARGB_8888);
+        scanner.process(InputImage.fromBitmap(blank, 0))
+                .addOnFailureListener(e -> Log.w(TAG, "Warming up the barcode scanner failed", e));
+        idle.push(scanner);
+    }
+
+    /**
+     * Takes a scanner from the pool, or creates one if the pool is empty.
+     *
+     * @return A scanner for all barcode formats, to be returned with release.
+     */
+    public BarcodeScanner acquire() {
+        BarcodeScanner scanner = idle.poll();
+        return scanner == null ? BarcodeScanning.getClient(options) : scanner;
+    }
+
+    /**
+     * Returns a scanner to the pool, or closes it if the pool is full.
+     *
+     * @param scanner A scanner from acquire, or null.
+     */
+    public void release(BarcodeScanner scanner) {
+        if (scanner == null) {
+            return;
+        }
+        if (idle.size() < MAX_IDLE_SCANNERS) {
+            idle.push(scanner);
+        } else {
+            scanner.close();
+        }
+    }
+}
@@ -12,17 +12,22 @@ package com.example.cmput301project;
 
 import android.net.Uri;
 import android.util.Log;
-import android.widget.ArrayAdapter;
 
 import androidx.annotation.Nullable;
 
 import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Money;
 import com.example.cmput301project.itemClasses.Photograph;
+import com.example.cmput301project.search.QueryClause;
+import com.example.cmput301project.search.QueryPlan;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.EventListener;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.storage.FirebaseStorage;
@@ -30,6 +35,7 @@ import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 
 public class Database {
@@ -54,6 +60,10 @@ public class Database {
         void onEditComplete();
     }
 
+    public interface OnQueryCompleteListener {
+        void onQueryComplete(ArrayList<Item> items);
+    }
+
     /**
      * Singleton for the firestore database. Holds the database instance and provides all methods
      * for interacting with the database
@@ -131,13 +141,15 @@ public class Database {
     }
 
     /**
-     * Adds array and corresponding arrayAdapter as listeners to the changes in a firebase collection
+     * Feeds the item store from the changes in the item collection. Only the documents that changed
+     * since the previous snapshot are passed on, so listeners of the store can update incrementally.
      *
-     * @param array        array to update as listener
-     * @param arrayAdapter arrayAdapter to change when change to data occurs
+     * @param store store to clear and then keep in sync with the collection
+     * @return the registration to remove when the store no longer needs updates
      */
-    public void addArrayAsListener(ArrayList<Item> array, ArrayAdapter<Item> arrayAdapter) {
-        itemsRef.addSnapshotListener(new EventListener<QuerySnapshot>() {
+    public ListenerRegistration addStoreAsListener(ItemStore store) {
+        store.clear();
+        return itemsRef.addSnapshotListener(new EventListener<QuerySnapshot>() {
             @Override
             public void onEvent(@Nullable QuerySnapshot querySnapshots, @Nullable FirebaseFirestoreException error) {
                 if (error != null) {
@@ -145,19 +157,88 @@ public class Database {
                     return;
                 }
                 if (querySnapshots != null) {
-                    array.clear();
-                    for (QueryDocumentSnapshot doc : querySnapshots) {
-                        String name = doc.getId();
-                        Item item = doc.toObject(Item.class);
-                        Log.d("Firestore", String.format("Item(%s) fetched", name));
-                        array.add(item);
+                    for (DocumentChange change : querySnapshots.getDocumentChanges()) {
+                        String name = change.getDocument().getId();
+                        if (change.getType() == DocumentChange.Type.REMOVED) {
+                            store.removeItem(name);
+                        } else {
+                            store.putItem(name, change.getDocument().toObject(Item.class));
+                        }
+                        Log.d("Firestore", String.format("Item(%s) %s", name, change.getType()));
                     }
+                    store.changesApplied();
                 }
-                arrayAdapter.notifyDataSetChanged();
             }
         });
     }
 
+    /**
+     * Runs a query against the item collection itself. A price or purchase date range of the plan is
+     * pushed down to Firestore and the remaining clauses are evaluated on the returned items.
+     *
+     * @param plan     plan of the query to run
+     * @param listener listener to receive the matching items
+     */
+    public void queryItems(QueryPlan plan, OnQueryCompleteListener listener) {
+        Query query = itemsRef;
+        QueryClause pushdown = plan.getPushdownClause();
+        if (pushdown != null && pushdown.getField() == QueryClause.Field.PRICE) {
+            // Every document has the price in dollars, including those written before prices were
+            // stored in cents; both hold the double closest to the amount, so bounds compare exactly
+            if (pushdown.getLowCents() != Long.MIN_VALUE) {
+                double low = Money.toDollars(pushdown.getLowCents());
+                query = pushdown.isLowInclusive()
+                        ? query.whereGreaterThanOrEqualTo("value", low)
+                        : query.whereGreaterThan("value", low);
+            }
+            if (pushdown.getHighCents() != Long.MAX_VALUE) {
+                double high = Money.toDollars(pushdown.getHighCents());
+                query = pushdown.isHighInclusive()
+                        ? query.whereLessThanOrEqualTo("value", high)
+                        : query.whereLessThan("value", high);
+            }
+        } else if (pushdown != null && pushdown.getField() == QueryClause.Field.BOUGHT) {
+            if (pushdown.getFrom() != Long.MIN_VALUE) {
+                query = query.whereGreaterThanOrEqualTo("purchaseDate", new Date(pushdown.getFrom()));
+            }
+            if (pushdown.getTo() != Long.MAX_VALUE) {
+                query = query.whereLessThanOrEqualTo("purchaseDate", new Date(pushdown.getTo()));
+            }
+        }
+        query.get()
+                .addOnSuccessListener(querySnapshots -> {
+                    ArrayList<Item> matches = new ArrayList<>();
+                    for (QueryDocumentSnapshot doc : querySnapshots) {
+                        Item item = doc.toObject(Item.class);
+                        if (plan.matches(item)) {
+                            matches.add(item);
+                        }
+                    }
+                    listener.onQueryComplete(matches);
+                })
+                .addOnFailureListener(e -> Log.e("Firestore", "Error querying items", e));
+    }
+
+    /**
+     * Fetches the items with the highest values of a field. Firestore sorts and limits the items
+     * itself, so only the requested items are transferred. Items without the field are left out.
+     *
+     * @param field    name of the field to order by, such as "value" or "purchaseDate"
+     * @param limit    number of items to fetch
+     * @param listener listener to receive the items, highest first
+     */
+    public void queryTopItems(String field, int limit, OnQueryCompleteListener listener) {
+        itemsRef.orderBy(field, Query.Direction.DESCENDING).limit(limit).get()
+                .addOnSuccessListener(querySnapshots -> {
+                    ArrayList<Item> top = new ArrayList<>();
+                    for (QueryDocumentSnapshot doc : querySnapshots) {
+                        top.add(doc.toObject(Item.class));
+                    }
+                    listener.onQueryComplete(top);
+                })
+                .addOnFailureListener(e -> Log.e("Firestore", "Error querying top items", e));
+    }
+
     /**
      * Adds an image to the storage with the specified name and URI.
      *
@@ -190,32 +271,6 @@ public class Database {
     }
 
 
-    /**
-     * Adds a listener to monitor changes in the total value of items in the Firestore database.
-     *
-     * @param totalListener The TotalListener to be notified of total value changes.
-     */
-    public void addTotalListener(TotalListener totalListener) {
-        itemsRef.addSnapshotListener(new EventListener<QuerySnapshot>() {
-            @Override
-            public void onEvent(@Nullable QuerySnapshot querySnapshots, @Nullable FirebaseFirestoreException error) {
-                if (error != null) {
-                    Log.e("Firestore", error.toString());
-                    return;
-                }
-                if (querySnapshots != null) {
-                    totalListener.setTotal(0.0);
-                    for (QueryDocumentSnapshot doc : querySnapshots) {
-                        Item item = doc.toObject(Item.class);
-                        totalListener.addTotal(item.getValue());
-                    }
-                    totalListener.update();
-                    Log.d("Firestore", "total updated");
-                }
-            }
-        });
-    }
-
     /**
      * Sets the Firestore collection references for items and user data.
      */
@@ -0,0 +1,321 @@
+/**
+ * Records how long the frames of an activity take and which list code paths were running when
+ * they were drawn, so frames that are dropped can be traced back to binding rows, applying a
+ * snapshot, filtering or sorting. Frame durations come from the platform's FrameMetrics and are
+ * counted on a background thread in a histogram per state, from which percentiles are computed.
+ * A frame is counted for every state that was active at any point during it, or as IDLE if none
+ * was, and it is janky if it took more than twice the display's frame interval; janky frames are
+ * logged as they happen. The statistics are written to logcat and to a file in the app's files
+ * directory whenever the activity stops being visible.
+ */
+
+package com.example.cmput301project;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+public class FrameMonitor {
+
+    /**
+     * What the app was doing while a frame was drawn.
+     */
+    public enum State {
+        IDLE,
+        SCROLL,
+        BINDING,
+        SNAPSHOT,
+        FILTER,
+        SORT
+    }
+
+    private static final String TAG = "FrameMonitor";
+    private static final String STATS_FILE = "frame_stats.txt";
+
+    /**
+     * Frame durations are counted in buckets of one millisecond up to this many; longer frames
+     * share the last bucket.
+     */
+    private static final int HISTOGRAM_MILLIS = 500;
+
+    /**
+     * Number of recent spans kept per state, enough to cover the frames still being reported.
+     */
+    private static final int SPANS_PER_STATE = 32;
+
+    /**
+     * Spans of the same state this close together are recorded as one, in nanoseconds.
+     */
+    private static final long MERGE_GAP_NANOS = 2_000_000L;
+
+    private final Window window;
+    private final File statsFile;
+    private final long jankNanos;
+    private final HandlerThread metricsThread;
+    private final Handler metricsHandler;
+    private final Window.OnFrameMetricsAvailableListener frameListener;
+    // Spans are written on the main thread and read on the metrics thread
+    private final Object lock = new Object();
+    private final long[][] spanStarts;
+    private final long[][] spanEnds;
+    private final int[] spanCounts;
+    private final long[] openSince;
+    // Used on the metrics thread only
+    private final int[][] histograms;
+    private final long[] jankCounts;
+    private boolean started;
+
+    /**
+     * Constructs a FrameMonitor. Frames are recorded between start and stop.
+     *
+     * @param activity The activity whose frames are recorded.
+     */
+    public FrameMonitor(Activity activity) {
+        this.window = activity.getWindow();
+        this.statsFile = new File(activity.getFilesDir(), STATS_FILE);
+        float refreshRate = activity.getWindowManager().getDefaultDisplay().getRefreshRate();
+        this.jankNanos = (long) (2 * 1e9 / (refreshRate > 0 ? refreshRate : 60));
+        int states = State.values().length;
+        this.spanStarts = new long[states][SPANS_PER_STATE];
+        this.spanEnds = new long[states][SPANS_PER_STATE];
+        this.spanCounts = new int[states];
+        this.openSince = new long[states];
+        this.histograms = new int[states][HISTOGRAM_MILLIS + 1];
+        this.jankCounts = new long[states];
+        this.metricsThread = new HandlerThread("frame-metrics", Process.THREAD_PRIORITY_BACKGROUND);
+        this.metricsThread.start();
+        this.metricsHandler = new Handler(metricsThread.getLooper());
+        this.frameListener = (w, frameMetrics, dropCount) -> onFrame(frameMetrics);
+    }
+
+    /**
+     * Starts recording frames. Called when the activity becomes visible.
+     */
+    public void start() {
+        if (!started) {
+            started = true;
+            window.addOnFrameMetricsAvailableListener(frameListener, metricsHandler);
+        }
+    }
+
+    /**
+     * Stops recording frames and reports the statistics so far. Called when the activity stops
+     * being visible.
+     */
+    public void stop() {
+        if (started) {
+            started = false;
+            window.removeOnFrameMetricsAvailableListener(frameListener);
+            metricsHandler.post(this::report);
+        }
+    }
+
+    /**
+     * Stops the metrics thread. Called when the activity is destroyed.
+     */
+    public void shutdown() {
+        stop();
+        metricsThread.quitSafely();
+    }
+
+    /**
+     * Records that a state was active from a given time until now, such as a call that bound a
+     * row, which started at System.nanoTime() = startNanos.
+     *
+     * @param state      The state.
+     * @param startNanos When the state started, from System.nanoTime().
+     */
+    public void record(State state, long startNanos) {
+        long now = System.nanoTime();
+        synchronized (lock) {
+            addSpan(state.ordinal(), startNanos, now);
+        }
+    }
+
+    /**
+     * Marks a state as active from now until end is called for it. Beginning a state that is
+     * already active keeps its original start.
+     *
+     * @param state The state.
+     */
+    public void begin(State state) {
+        long now = System.nanoTime();
+        synchronized (lock) {
+            if (openSince[state.ordinal()] == 0) {
+                openSince[state.ordinal()] = now;
+            }
+        }
+    }
+
+    /**
+     * Marks a state as no longer active. Does nothing if the state is not active.
+     *
+     * @param state The state.
+     */
+    public void end(State state) {
+        long now = System.nanoTime();
+        synchronized (lock) {
+            int s = state.ordinal();
+            if (openSince[s] != 0) {
+                addSpan(s, openSince[s], now);
+                openSince[s] = 0;
+            }
+        }
+    }
+
+    /**
+     * Ends states once the next frame of a view has been drawn, so that the frame showing the
+     * effect of the work they tag, such as a list update, is still counted for them.
+     *
+     * @param view   The view whose next frame shows the result.
+     * @param states The states to end.
+     */
+    public void endAfterNextDraw(final View view, final State... states) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Runs after the frame being prepared has been drawn
+                view.post(() -> {
+                    for (State state : states) {
+                        end(state);
+                    }
+                });
+                return true;
+            }
+        });
+        view.invalidate();
+    }
+
+    // Called with the lock held
+    private void addSpan(int state, long start, long end) {
+        long[] starts = spanStarts[state];
+        long[] ends = spanEnds[state];
+        int count = spanCounts[state];
+        if (count > 0) {
+            int last = (count - 1) % SPANS_PER_STATE;
+            if (start <= ends[last] + MERGE_GAP_NANOS) {
+                ends[last] = Math.max(ends[last], end);
+                return;
+            }
+        }
+        int slot = count % SPANS_PER_STATE;
+        starts[slot] = start;
+        ends[slot] = end;
+        spanCounts[state] = count + 1;
+    }
+
+    private void onFrame(FrameMetrics metrics) {
+        if (metrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) {
+            // The first frame of a window includes its whole setup
+            return;
+        }
+        long duration = metrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        long frameStart;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            frameStart = metrics.getMetric(FrameMetrics.INTENDED_VSYNC_TIMESTAMP);
+        } else {
+            // Without timestamps, assume the frame just finished
+            frameStart = System.nanoTime() - duration;
+        }
+        long frameEnd = frameStart + duration;
+
+        List<State> states = statesDuring(frameStart, frameEnd);
+        int bucket = (int) Math.min(duration / 1_000_000L, HISTOGRAM_MILLIS);
+        boolean janky = duration > jankNanos;
+        for (State state : states) {
+            histograms[state.ordinal()][bucket]++;
+            if (janky) {
+                jankCounts[state.ordinal()]++;
+            }
+        }
+        if (janky) {
+            Log.d(TAG, String.format(Locale.US, "Janky frame of %.1f ms during %s", duration / 1e6, states));
+        }
+    }
+
+    /**
+     * @return The states active at any time between two times, or IDLE if there were none.
+     */
+    private List<State> statesDuring(long from, long to) {
+        ArrayList<State> states = new ArrayList<>();
+        synchronized (lock) {
+            for (State state : State.values()) {
+                int s = state.ordinal();
+                boolean active = openSince[s] != 0 && openSince[s] <= to;
+                int count = Math.min(spanCounts[s], SPANS_PER_STATE);
+                for (int i = 0; i < count && !active; i++) {
+                    active = spanStarts[s][i] <= to && spanEnds[s][i] >= from;
+                }
+                if (active) {
+                    states.add(state);
+                }
+            }
+        }
+        if (states.isEmpty()) {
+            states.add(State.IDLE);
+        }
+        return states;
+    }
+
+    /**
+     * Writes the percentiles of the frame durations per state to logcat and to the stats file.
+     */
+    private void report() {
+        StringBuilder stats = new StringBuilder();
+        stats.append(String.format(Locale.US, "Frame durations in ms as of %s, janky above %.1f ms\n",
+                new Date(), jankNanos / 1e6));
+        for (State state : State.values()) {
+            int[] histogram = histograms[state.ordinal()];
+            long frames = 0;
+            for (int count : histogram) {
+                frames += count;
+            }
+            if (frames == 0) {
+                continue;
+            }
+            stats.append(String.format(Locale.US, "%-8s frames %d, janky %d (%.1f%%), p50 %d, p90 %d, p95 %d, p99 %d, max %d%s\n",
+                    state, frames, jankCounts[state.ordinal()], 100.0 * jankCounts[state.ordinal()] / frames,
+                    percentile(histogram, frames, 0.50), percentile(histogram, frames, 0.90),
+                    percentile(histogram, frames, 0.95), percentile(histogram, frames, 0.99),
+                    percentile(histogram, frames, 1.0), histogram[HISTOGRAM_MILLIS] > 0 ? "+" : ""));
+        }
+        Log.i(TAG, stats.toString());
+        try (Writer writer = new FileWriter(statsFile)) {
+            writer.write(stats.toString());
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + statsFile, e);
+        }
+    }
+
+    /**
+     * @return The smallest duration in ms that at least the given fraction of frames took at most.
+     */
+    private static int percentile(int[] histogram, long frames, double fraction) {
+        long rank = Math.max(1, (long) Math.ceil(fraction * frames));
+        long seen = 0;
+        for (int millis = 0; millis < histogram.length; millis++) {
+            seen += histogram[millis];
+            if (seen >= rank) {
+                return millis;
+            }
+        }
+        return HISTOGRAM_MILLIS;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Listener interface for item-level changes published by the ItemStore.
+ * <p>
+ * Instead of rebuilding everything from a full snapshot, implementations receive one callback per
+ * added, changed or removed item, followed by a single onChangesApplied() once the whole batch of
+ * changes from a Firestore snapshot has been delivered. This lets indexes and aggregates update in
+ * proportion to what actually changed.
+ */
+
+package com.example.cmput301project;
+
+import com.example.cmput301project.itemClasses.Item;
+
+public interface ItemChangeListener {
+    /**
+     * Called when an item appears in the store for the first time.
+     *
+     * @param item The item that was added.
+     */
+    void onItemAdded(Item item);
+
+    /**
+     * Called when an item already in the store is replaced by a newer version of itself.
+     *
+     * @param oldItem The previous version of the item.
+     * @param newItem The new version of the item.
+     */
+    void onItemChanged(Item oldItem, Item newItem);
+
+    /**
+     * Called when an item is removed from the store.
+     *
+     * @param item The item that was removed.
+     */
+    void onItemRemoved(Item item);
+
+    /**
+     * Called once after a batch of changes has been delivered.
+     */
+    default void onChangesApplied() {
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Holds the current set of items of the logged in user and publishes item-level changes to
+ * registered ItemChangeListeners. The Database feeds the store from the document changes of each
+ * Firestore snapshot, so listeners such as indexes only ever see what changed since the last
+ * snapshot. This class follows the Singleton pattern, so every screen sees the same items.
+ */
+
+package com.example.cmput301project;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+public class ItemStore {
+
+    // Membership variable declaration
+    private static ItemStore instance = null;
+    private final LinkedHashMap<String, Item> items;
+    private final ArrayList<ItemChangeListener> listeners;
+    private boolean loaded;
+
+    private ItemStore() {
+        items = new LinkedHashMap<>();
+        listeners = new ArrayList<>();
+        loaded = false;
+    }
+
+    /**
+     * Singleton for the item store. Holds the items of the logged in user
+     *
+     * @return the instance of the item store class
+     */
+    public static ItemStore getInstance() {
+        if (instance == null) {
+            instance = new ItemStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a listener. Items already in the store are replayed to the listener as additions so
+     * that it starts out in the same state as the store.
+     *
+     * @param listener The listener to register.
+     */
+    public void addListener(ItemChangeListener listener) {
+        listeners.add(listener);
+        if (!items.isEmpty()) {
+            for (Item item : items.values()) {
+                listener.onItemAdded(item);
+            }
+            listener.onChangesApplied();
+        }
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(ItemChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds an item, or replaces the item stored under the same document id. The item is handed to
+     * listeners on other threads, such as the search thread, so it must not be modified afterwards;
+     * edits are made to a copy and arrive as a new item.
+     *
+     * @param docId The Firestore document id of the item.
+     * @param item  The item to store.
+     */
+    public void putItem(String docId, Item item) {
+        Item oldItem = items.put(docId, item);
+        for (ItemChangeListener listener : listeners) {
+            if (oldItem == null) {
+                listener.onItemAdded(item);
+            } else {
+                listener.onItemChanged(oldItem, item);
+            }
+        }
+    }
+
+    /**
+     * Removes the item stored under a document id, if any.
+     *
+     * @param docId The Firestore document id of the item.
+     */
+    public void removeItem(String docId) {
+        Item oldItem = items.remove(docId);
+        if (oldItem == null) {
+            return;
+        }
+        for (ItemChangeListener listener : listeners) {
+            listener.onItemRemoved(oldItem);
+        }
+    }
+
+    /**
+     * Marks the end of a batch of changes and notifies the listeners.
+     */
+    public void changesApplied() {
+        loaded = true;
+        for (ItemChangeListener listener : listeners) {
+            listener.onChangesApplied();
+        }
+    }
+
+    /**
+     * Removes every item, for example when a different user logs in.
+     */
+    public void clear() {
+        for (Item item : items.values()) {
+            for (ItemChangeListener listener : listeners) {
+                listener.onItemRemoved(item);
+            }
+        }
+        items.clear();
+        loaded = false;
+        for (ItemChangeListener listener : listeners) {
+            listener.onChangesApplied();
+        }
+    }
+
+    /**
+     * @return a read-only view of the stored items, in the order they were first added
+     */
+    public Collection<Item> getItems() {
+        return Collections.unmodifiableCollection(items.values());
+    }
+
+    /**
+     * @return the number of stored items
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @return true once the first snapshot has been applied
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+}
@@ -1,62 +1,109 @@
 /**
- * The TotalListener class is designed to handle and update a total value, providing a convenient
- * way to observe changes and update a corresponding TextView in an Android application.
+ * The TotalListener class keeps the total valuation of the user's items and shows it in a
+ * TextView. It listens to the item-level changes of the ItemStore and adjusts the total by the
+ * difference each added, changed or removed item makes, so an update takes constant time however
+ * many items there are, rather than re-adding every item on each snapshot.
  * <p>
- * This class is typically used in conjunction with Firestore listeners to monitor and calculate
- * the total valuation of items dynamically.
+ * Prices are whole cents, so the total is kept in a long and stays exact across any number of
+ * edits instead of drifting as a sum of doubles would. The value each item was counted with is
+ * remembered by its UniqueId, since items edited in place already carry their new value when
+ * their change arrives. The number of items, their mean value and the highest value are kept up
+ * to date as well; the highest value comes from a sorted count of the values, which takes
+ * O(log n) per change.
  * <p>
  * Usage:
- * - Create an instance of TotalListener, providing an initial total value and a TextView for updates.
- * - Use the provided methods to get, set, add to, and update the total value.
- * - The update method automatically formats and updates the associated TextView with the new total value.
- * <p>
- * Note: Ensure that the provided TextView is initialized before using the TotalListener.
+ * - Create an instance of TotalListener with the TextView showing the total.
+ * - Register it with the ItemStore; the TextView is updated after each batch of changes.
  */
 
 package com.example.cmput301project;
 
 import android.widget.TextView;
 
-public class TotalListener {
-    private Double total;
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Money;
+import com.example.cmput301project.itemClasses.UniqueId;
+
+import java.util.HashMap;
+import java.util.TreeMap;
+
+public class TotalListener implements ItemChangeListener {
+    private long totalCents;
+    private int count;
+    private final HashMap<UniqueId, Long> countedCents;
+    // Number of items with each value, to find the highest one after removals
+    private final TreeMap<Long, Integer> valueCounts;
     private TextView listenerField;
 
     /**
-     * Constructs a TotalListener with an initial total value and a TextView for updates.
+     * Constructs a TotalListener with a total of zero and a TextView for updates.
      *
-     * @param total         The initial total value.
      * @param listenerField The TextView to be updated with the total value.
      */
-    public TotalListener(Double total, TextView listenerField) {
-        this.total = total;
+    public TotalListener(TextView listenerField) {
+        this.countedCents = new HashMap<>();
+        this.valueCounts = new TreeMap<>();
         this.listenerField = listenerField;
     }
 
+    @Override
+    public void onItemAdded(Item item) {
+        long cents = item.getPriceCents();
+        if (item.getUniqueId() != null) {
+            countedCents.put(item.getUniqueId(), cents);
+        }
+        add(cents);
+    }
+
+    @Override
+    public void onItemChanged(Item oldItem, Item newItem) {
+        Long counted = oldItem.getUniqueId() == null ? null : countedCents.remove(oldItem.getUniqueId());
+        remove(counted != null ? counted : oldItem.getPriceCents());
+        onItemAdded(newItem);
+    }
+
+    @Override
+    public void onItemRemoved(Item item) {
+        Long counted = item.getUniqueId() == null ? null : countedCents.remove(item.getUniqueId());
+        remove(counted != null ? counted : item.getPriceCents());
+    }
+
+    /**
+     * Shows the new total once a batch of changes has been applied.
+     */
+    @Override
+    public void onChangesApplied() {
+        update();
+    }
+
     /**
      * Retrieves the current total value.
      *
-     * @return The current total value.
+     * @return The total value of all items in cents.
      */
-    public Double getTotal() {
-        return total;
+    public long getTotalCents() {
+        return totalCents;
     }
 
     /**
-     * Sets the total value to a specified value.
-     *
-     * @param total The new total value.
+     * @return The number of items counted in the total.
      */
-    public void setTotal(Double total) {
-        this.total = total;
+    public int getCount() {
+        return count;
     }
 
     /**
-     * Adds a specified value to the current total.
-     *
-     * @param add The value to be added to the total.
+     * @return The mean value of the items in cents, rounded, or 0 if there are none.
      */
-    public void addTotal(Double add) {
-        this.total += add;
+    public long getMeanCents() {
+        return count == 0 ? 0 : Math.round((double) totalCents / count);
+    }
+
+    /**
+     * @return The highest value of any item in cents, or 0 if there are none.
+     */
+    public long getMaxCents() {
+        return valueCounts.isEmpty() ? 0 : valueCounts.lastKey();
     }
 
     /**
@@ -64,6 +111,24 @@ public class TotalListener {
      * The total value is displayed as "Total Valuation $X.XX".
      */
     public void update() {
-        this.listenerField.setText("Total Valuation $" + String.format("%.2f", total));
+        this.listenerField.setText("Total Valuation $" + Money.format(totalCents));
+    }
+
+    private void add(long cents) {
+        totalCents += cents;
+        count++;
+        Integer n = valueCounts.get(cents);
+        valueCounts.put(cents, n == null ? 1 : n + 1);
+    }
+
+    private void remove(long cents) {
+        totalCents -= cents;
+        count--;
+        Integer n = valueCounts.get(cents);
+        if (n == null || n == 1) {
+            valueCounts.remove(cents);
+        } else {
+            valueCounts.put(cents, n - 1);
+        }
     }
 }
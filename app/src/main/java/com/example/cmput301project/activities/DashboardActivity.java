@@ -0,0 +1,319 @@
+/**
+ * DashboardActivity.java
+ * <p>
+ * This activity shows where the value of the inventory lies: the median and high percentiles of the
+ * item values and a histogram of them, the number, total value and median value of the items of the
+ * top makes and tags, the number and total value per purchase year or month, the growth of the
+ * total value over time, and the declared value of the items month by month as their prices
+ * changed. Everything shown is read from the InventoryRollups and the InventoryHistory, which are
+ * kept current as items change, so the screen renders immediately however many items there are and
+ * follows changes while it is open. At most a fixed number of groups is shown per section.
+ * <p>
+ * The activity layout is defined in the 'activity_dashboard.xml' resource file.
+ */
+
+package com.example.cmput301project.activities;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.CheckBox;
+import android.widget.ImageButton;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.cmput301project.R;
+import com.example.cmput301project.analytics.InventoryHistory;
+import com.example.cmput301project.analytics.InventoryRollups;
+import com.example.cmput301project.analytics.Rollup;
+import com.example.cmput301project.itemClasses.Money;
+import com.example.cmput301project.itemClasses.PriceHistory;
+import com.example.cmput301project.search.ValueSketch;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+public class DashboardActivity extends AppCompatActivity {
+
+    /**
+     * Number of makes and tags shown.
+     */
+    private static final int TOP_GROUPS = 10;
+
+    /**
+     * Number of most recent months shown per month, and of months of declared value.
+     */
+    private static final int RECENT_MONTHS = 24;
+
+    /**
+     * Largest number of bars in the value histogram.
+     */
+    private static final int HISTOGRAM_BARS = 12;
+
+    private static final int BAR_MAX = 1000;
+
+    private InventoryRollups rollups;
+    private InventoryHistory history;
+    private TextView totalView;
+    private LinearLayout distributionSection;
+    private LinearLayout makesSection;
+    private LinearLayout tagsSection;
+    private LinearLayout periodsSection;
+    private LinearLayout growthSection;
+    private LinearLayout declaredSection;
+    private TextView periodTitle;
+    private CheckBox byMonthCheckBox;
+    private ImageButton backButton;
+    private final InventoryRollups.OnRollupsChangedListener rollupsListener = r -> render();
+
+    /**
+     * Initializes the activity and sets the content view.
+     *
+     * @param savedInstanceState Bundle containing the activity's previously saved state.
+     */
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_dashboard);
+        rollups = InventoryRollups.getInstance();
+        history = InventoryHistory.getInstance();
+        grabUIElements();
+        backButton.setOnClickListener(v -> finish());
+        byMonthCheckBox.setOnCheckedChangeListener((buttonView, isChecked) -> render());
+    }
+
+    /**
+     * Shows the current rollups and follows their changes while the dashboard is visible. The
+     * history changes with the same items, so it is rendered along with the rollups.
+     */
+    @Override
+    protected void onStart() {
+        super.onStart();
+        rollups.setOnRollupsChangedListener(rollupsListener);
+        render();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        rollups.setOnRollupsChangedListener(null);
+    }
+
+    /**
+     * Initializes UI elements by finding and assigning them from the layout.
+     */
+    private void grabUIElements() {
+        totalView = findViewById(R.id.dashboard_total);
+        distributionSection = findViewById(R.id.dashboard_distribution);
+        makesSection = findViewById(R.id.dashboard_makes);
+        tagsSection = findViewById(R.id.dashboard_tags);
+        periodsSection = findViewById(R.id.dashboard_periods);
+        growthSection = findViewById(R.id.dashboard_growth);
+        declaredSection = findViewById(R.id.dashboard_declared);
+        periodTitle = findViewById(R.id.dashboard_period_title);
+        byMonthCheckBox = findViewById(R.id.dashboard_by_month_checkbox);
+        backButton = findViewById(R.id.back_button);
+    }
+
+    /**
+     * Fills every section from the rollups.
+     */
+    private void render() {
+        totalView.setText(String.format(Locale.US, "Total: $%s, %d items",
+                Money.format(rollups.getTotalCents()), rollups.getItemCount()));
+        renderDistribution(rollups.getValues());
+        renderTop(makesSection, rollups.getMakes());
+        renderTop(tagsSection, rollups.getTags());
+
+        boolean byMonth = byMonthCheckBox.isChecked();
+        periodTitle.setText(byMonth ? R.string.dashboard_by_month : R.string.dashboard_by_year);
+        List<Rollup.Row> periods = byMonth ? recent(rollups.getMonths().getRows()) : rollups.getYears().getRows();
+        periodsSection.removeAllViews();
+        long maxCents = 0;
+        for (Rollup.Row row : periods) {
+            maxCents = Math.max(maxCents, row.getCents());
+        }
+        for (Rollup.Row row : periods) {
+            addRow(periodsSection, row.getLabel(), detail(row.getCount(), row.getCents()), row.getCents(), maxCents);
+        }
+        if (rollups.getUndatedCount() > 0) {
+            addRow(periodsSection, "No purchase date", detail(rollups.getUndatedCount(), rollups.getUndatedCents()),
+                    rollups.getUndatedCents(), Math.max(maxCents, rollups.getUndatedCents()));
+        }
+
+        renderGrowth(byMonth);
+        renderDeclared();
+    }
+
+    /**
+     * Shows the median and high percentiles of the item values, and how many items there are in
+     * each range of values, with ranges that grow in steps of 1, 2 and 5.
+     */
+    private void renderDistribution(ValueSketch values) {
+        distributionSection.removeAllViews();
+        if (values.isEmpty()) {
+            return;
+        }
+        long median = values.getQuantile(0.5);
+        long p90 = values.getQuantile(0.9);
+        long p99 = values.getQuantile(0.99);
+        addRow(distributionSection, "Median", "$" + Money.format(median), median, p99);
+        addRow(distributionSection, "90th percentile", "$" + Money.format(p90), p90, p99);
+        addRow(distributionSection, "99th percentile", "$" + Money.format(p99), p99, p99);
+
+        long[] bounds = histogramBounds(values.getQuantile(0), values.getQuantile(1));
+        if (bounds.length == 0) {
+            return;
+        }
+        int[] histogram = values.getHistogram(bounds);
+        int maxCount = 0;
+        for (int count : histogram) {
+            maxCount = Math.max(maxCount, count);
+        }
+        for (int i = 0; i < histogram.length; i++) {
+            String label;
+            if (i == 0) {
+                label = "Under $" + bounds[0] / 100;
+            } else if (i == bounds.length) {
+                label = "$" + bounds[i - 1] / 100 + " and up";
+            } else {
+                label = "$" + bounds[i - 1] / 100 + " - $" + bounds[i] / 100;
+            }
+            addRow(distributionSection, label, String.format(Locale.US, "%d items", histogram[i]), histogram[i], maxCount);
+        }
+    }
+
+    /**
+     * Chooses the bounds between the histogram ranges: whole dollar amounts of 1, 2 and 5 times a
+     * power of ten between the smallest and largest value, or only the powers of ten if that
+     * gives too many bars.
+     */
+    private static long[] histogramBounds(long minCents, long maxCents) {
+        ArrayList<Long> bounds = new ArrayList<>();
+        ArrayList<Long> powers = new ArrayList<>();
+        for (long power = 100; power <= maxCents && power > 0; power *= 10) {
+            for (long step : new long[]{1, 2, 5}) {
+                long bound = power * step;
+                if (bound > minCents && bound <= maxCents) {
+                    bounds.add(bound);
+                    if (step == 1) {
+                        powers.add(bound);
+                    }
+                }
+            }
+        }
+        List<Long> chosen = bounds.size() + 1 > HISTOGRAM_BARS ? powers : bounds;
+        long[] result = new long[chosen.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = chosen.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Shows the groups of a rollup with the highest total value, with bars relative to the first,
+     * and the median value of each from its own distribution.
+     */
+    private void renderTop(LinearLayout section, Rollup rollup) {
+        section.removeAllViews();
+        List<Rollup.Row> top = rollup.top(TOP_GROUPS);
+        long maxCents = top.isEmpty() ? 0 : top.get(0).getCents();
+        for (Rollup.Row row : top) {
+            String median = Money.format(rollup.getValues(row.getLabel()).getQuantile(0.5));
+            addRow(section, row.getLabel(), detail(row.getCount(), row.getCents()) + ", median $" + median,
+                    row.getCents(), maxCents);
+        }
+        if (rollup.size() > top.size()) {
+            addRow(section, String.format(Locale.US, "and %d more", rollup.size() - top.size()), "", 0, 0);
+        }
+    }
+
+    /**
+     * Shows the running total at the end of each year, or of each recent month.
+     */
+    private void renderGrowth(boolean byMonth) {
+        growthSection.removeAllViews();
+        List<InventoryRollups.GrowthPoint> growth = rollups.getGrowth();
+        ArrayList<InventoryRollups.GrowthPoint> points = new ArrayList<>();
+        for (int i = 0; i < growth.size(); i++) {
+            InventoryRollups.GrowthPoint point = growth.get(i);
+            boolean lastOfYear = i + 1 == growth.size()
+                    || !growth.get(i + 1).getMonth().startsWith(point.getMonth().substring(0, 4));
+            if (byMonth ? i >= growth.size() - RECENT_MONTHS : lastOfYear) {
+                points.add(point);
+            }
+        }
+        long maxCents = 0;
+        for (InventoryRollups.GrowthPoint point : points) {
+            maxCents = Math.max(maxCents, point.getCents());
+        }
+        for (InventoryRollups.GrowthPoint point : points) {
+            String label = byMonth ? point.getMonth() : point.getMonth().substring(0, 4);
+            addRow(growthSection, label, detail(point.getCount(), point.getCents()), point.getCents(), maxCents);
+        }
+    }
+
+    /**
+     * Shows the declared value at the end of each recent month, the current one up to now.
+     */
+    private void renderDeclared() {
+        declaredSection.removeAllViews();
+        Calendar calendar = Calendar.getInstance();
+        long now = calendar.getTimeInMillis();
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.add(Calendar.MONTH, 1 - RECENT_MONTHS);
+        PriceHistory.Points totals = history.between(calendar.getTimeInMillis(), now);
+
+        String[] labels = new String[RECENT_MONTHS];
+        long[] values = new long[RECENT_MONTHS];
+        long maxCents = 0;
+        int next = 0;
+        long total = 0;
+        for (int month = 0; month < RECENT_MONTHS; month++) {
+            labels[month] = String.format(Locale.US, "%04d-%02d", calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+            calendar.add(Calendar.MONTH, 1);
+            while (next < totals.size() && totals.getTime(next) < calendar.getTimeInMillis()) {
+                total = totals.getCents(next++);
+            }
+            values[month] = total;
+            maxCents = Math.max(maxCents, total);
+        }
+        for (int month = 0; month < RECENT_MONTHS; month++) {
+            addRow(declaredSection, labels[month], "$" + Money.format(values[month]), values[month], maxCents);
+        }
+    }
+
+    private static List<Rollup.Row> recent(List<Rollup.Row> months) {
+        return months.size() > RECENT_MONTHS ? months.subList(months.size() - RECENT_MONTHS, months.size()) : months;
+    }
+
+    private static String detail(int count, long cents) {
+        return String.format(Locale.US, "%d items, $%s", count, Money.format(cents));
+    }
+
+    /**
+     * Adds a row with a label, a detail and a bar filled in proportion to a value.
+     */
+    private void addRow(LinearLayout section, String label, String detail, long cents, long maxCents) {
+        View row = LayoutInflater.from(this).inflate(R.layout.dashboard_row, section, false);
+        ((TextView) row.findViewById(R.id.dashboard_row_label)).setText(label);
+        ((TextView) row.findViewById(R.id.dashboard_row_detail)).setText(detail);
+        ProgressBar bar = row.findViewById(R.id.dashboard_row_bar);
+        if (maxCents > 0) {
+            bar.setProgress((int) Math.max(0, BAR_MAX * cents / maxCents));
+        } else {
+            bar.setVisibility(View.GONE);
+        }
+        section.addView(row);
+    }
+}
@@ -3,8 +3,13 @@
  * Users can perform actions such as adding and deleting items directly from this activity.
  * The UI design is expected to be updated to match the Figma design. The class integrates with the Database
  * to handle item data and updates dynamically. It includes functionality for adding, editing, viewing, and
- * deleting items, as well as applying filters to the displayed item list. The total valuation of items is
- * calculated and displayed. The main UI components include a ListView, buttons for adding, deleting, and
+ * deleting items, as well as searching and applying filters to the displayed item list. Searches are parsed
+ * into queries and executed against in-memory indexes of the items, and recent combinations of query
+ * and sort order are answered from a cache of sorted results. The search box filters as the user types;
+ * queries run on a background thread and only the newest result is shown. Live changes from the
+ * database are applied to the shown result in place, so it keeps its sort order. A highlights header
+ * shows the most valuable and most recently purchased items. The total valuation of items is
+ * calculated and displayed. The main UI components include a RecyclerView, buttons for adding, deleting, and
  * filtering items, and a FloatingActionButton for adding new items. Changes in item data trigger updates
  * in the displayed list, and the class supports fragment interactions for adding, editing, and viewing items.
  */
@@ -14,65 +19,188 @@ package com.example.cmput301project.activities;
 
 // Import statements
 
+import android.app.AlertDialog;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
 import android.view.View;
-import android.widget.ArrayAdapter;
+import android.view.inputmethod.EditorInfo;
 import android.widget.Button;
-import android.widget.ListView;
+import android.widget.CheckBox;
+import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.RequestOptions;
+import com.example.cmput301project.BarcodeScannerPool;
 import com.example.cmput301project.Database;
+import com.example.cmput301project.FrameMonitor;
+import com.example.cmput301project.ItemChangeListener;
+import com.example.cmput301project.ItemStore;
 import com.example.cmput301project.R;
 import com.example.cmput301project.TotalListener;
 import com.example.cmput301project.UserManager;
+import com.example.cmput301project.analytics.InventoryHistory;
+import com.example.cmput301project.analytics.InventoryRollups;
 import com.example.cmput301project.fragments.AddItemFragment;
 import com.example.cmput301project.fragments.AddTagsSelectedItemsFragment;
 import com.example.cmput301project.fragments.EditItemFragment;
 import com.example.cmput301project.fragments.ItemFiltersFragment;
+import com.example.cmput301project.fragments.LayoutPreinflater;
 import com.example.cmput301project.fragments.SortItemsFragment;
 import com.example.cmput301project.fragments.ViewItemFragment;
 import com.example.cmput301project.itemClasses.Item;
 import com.example.cmput301project.itemClasses.ItemAdapter;
 import com.example.cmput301project.itemClasses.ItemFilter;
-import com.example.cmput301project.itemClasses.ItemList;
-import com.example.cmput301project.itemClasses.Tag;
+import com.example.cmput301project.itemClasses.ItemSelection;
+import com.example.cmput301project.itemClasses.Money;
+import com.example.cmput301project.search.ItemIndex;
+import com.example.cmput301project.search.ItemQuery;
+import com.example.cmput301project.search.BackgroundSearcher;
+import com.example.cmput301project.search.FacetCounts;
+import com.example.cmput301project.search.QueryParser;
+import com.example.cmput301project.search.QueryPlan;
+import com.example.cmput301project.search.QueryPlanner;
+import com.example.cmput301project.search.SortOrder;
+import com.example.cmput301project.search.SortedItemList;
+import com.example.cmput301project.search.ValueSketch;
+import com.example.cmput301project.search.ViewChange;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.io.Serializable;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 
 import de.hdodenhof.circleimageview.CircleImageView;
 
-public class MainActivity extends AppCompatActivity implements AddItemFragment.OnFragmentInteractionListener, EditItemFragment.OnFragmentInteractionListener, ViewItemFragment.OnFragmentInteractionListener, ItemFiltersFragment.OnFragmentInteractionListener, AddTagsSelectedItemsFragment.OnFragmentInteractionListener, SortItemsFragment.OnFragmentInteractionListener {
+public class MainActivity extends AppCompatActivity implements AddItemFragment.OnFragmentInteractionListener, EditItemFragment.OnFragmentInteractionListener, ViewItemFragment.OnFragmentInteractionListener, ItemFiltersFragment.OnFragmentInteractionListener, AddTagsSelectedItemsFragment.OnFragmentInteractionListener, SortItemsFragment.OnFragmentInteractionListener, LayoutPreinflater.Provider {
+
+    /**
+     * Number of items shown per line of the highlights header.
+     */
+    private static final int HIGHLIGHT_COUNT = 3;
+    private static final SortOrder MOST_VALUABLE = new SortOrder(SortOrder.Key.PRICE, false, null);
+    private static final SortOrder MOST_RECENT = new SortOrder(SortOrder.Key.DATE, false, null);
 
     // Member variable declaration
     private Database db;
-    private ArrayList<Item> items;
-    private ItemList itemList;
-    private ItemFilter itemFilter;
-    private ListView itemsView;
+    private SortedItemList items;
+    private ItemStore itemStore;
+    private BackgroundSearcher backgroundSearcher;
+    private ItemQuery itemQuery;
+    private SortOrder sortOrder;
+    private FacetCounts inventoryFacets;
+    private FacetCounts viewFacets;
+    private ListenerRegistration storeRegistration;
+    private EditText searchEditText;
+    // True while the search box is filled from a query that is already being searched
+    private boolean settingSearchText;
+    private RecyclerView itemsView;
     private TextView totalCostView;
+    private TextView highlightsView;
+    private TextView subtotalsView;
+    private List<Item> mostValuable;
+    private List<Item> mostRecent;
     private Button filtersButton;
     private Button sortButton;
     private Object sortRadioTag;
     private String sortTagString;
     private TotalListener totalListener;
-    private ArrayAdapter<Item> itemAdapter;
+    private ItemAdapter itemAdapter;
     private Button deleteButton;
     private Button addTagsSelectedButton;
+    private CheckBox selectAllCheckBox;
+    private QueryPlan shownPlan;
+    private ItemSelection.Scope selectionScope;
+    private QueryPlan selectionPlan;
+    private LayoutPreinflater layoutPreinflater;
+    private FrameMonitor frameMonitor;
     private CircleImageView profilePicture;
     private UserManager userManager;
 
+    /**
+     * Applies each batch of item changes to the shown result, or re-runs the current search if the
+     * result cannot follow the changes in place.
+     */
+    private final BackgroundSearcher.OnViewChangedListener viewUpdater = new BackgroundSearcher.OnViewChangedListener() {
+        @Override
+        public void onViewChanged(List<ViewChange> changes, FacetCounts inventory, FacetCounts view) {
+            inventoryFacets = inventory;
+            viewFacets = view;
+            refreshSubtotals();
+            if (!changes.isEmpty()) {
+                frameMonitor.begin(FrameMonitor.State.SNAPSHOT);
+                // The adapter notifies the rows of each change as the list reports its positions
+                for (ViewChange change : changes) {
+                    items.apply(change);
+                }
+                if (itemAdapter.isFollowing(items)) {
+                    frameMonitor.endAfterNextDraw(itemsView, FrameMonitor.State.SNAPSHOT);
+                } else {
+                    // The last result is still being diffed, so it is diffed again with the changes
+                    submitItems();
+                }
+            }
+            refreshHighlights();
+        }
+
+        @Override
+        public void onViewStale() {
+            runSearch(FrameMonitor.State.SNAPSHOT, null);
+            refreshHighlights();
+        }
+    };
+
+    /**
+     * Keeps the totals of a "select all" scope current. Registered after the TotalListener, so
+     * the inventory total is up to date when a batch ends.
+     */
+    private final ItemChangeListener subtotalUpdater = new ItemChangeListener() {
+        @Override
+        public void onItemAdded(Item item) {
+        }
+
+        @Override
+        public void onItemChanged(Item oldItem, Item newItem) {
+        }
+
+        @Override
+        public void onItemRemoved(Item item) {
+        }
+
+        @Override
+        public void onChangesApplied() {
+            ItemSelection selection = itemAdapter.getSelection();
+            if (selection.getScope() == ItemSelection.ALL) {
+                selection.setScopeTotals(totalListener.getCount(), totalListener.getTotalCents());
+            }
+            refreshSubtotals();
+        }
+    };
+
+    /**
+     * Takes the counts of a "select all matching" scope from the search thread, unless the
+     * selection has changed since they were requested.
+     */
+    private final BackgroundSearcher.OnScopeCountedListener scopeUpdater = (plan, counts) -> {
+        if (plan == selectionPlan && itemAdapter.getSelection().getScope() == selectionScope) {
+            itemAdapter.getSelection().setScopeTotals(counts.getItemCount(), counts.getTotalCents());
+            refreshSubtotals();
+        }
+    };
+
     /**
      * onResume method is overridden to refresh the user profile picture
      * when the MainActivity is resumed.
@@ -80,6 +208,7 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
     @Override
     protected void onResume() {
         super.onResume();
+        frameMonitor.start();
         Glide.with(getApplicationContext()).load(userManager.getUserProfilePicture()).apply(new RequestOptions().placeholder(R.drawable.defaultuser).error(R.drawable.defaultuser)).into(profilePicture);
     }
 
@@ -99,12 +228,39 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
 
         userManager = UserManager.getInstance();
 
-        items = new ArrayList<Item>();
-        itemList = new ItemList(items);
-        itemFilter = new ItemFilter();
+        items = new SortedItemList();
+        itemQuery = new ItemQuery();
+        sortOrder = SortOrder.NONE;
 
         itemsView = findViewById(R.id.item_list);
+        searchEditText = findViewById(R.id.search_edit_text);
+        searchEditText.setOnEditorActionListener((v, actionId, event) -> {
+            if (actionId == EditorInfo.IME_ACTION_SEARCH) {
+                applySearchText(searchEditText.getText().toString());
+                return true;
+            }
+            return false;
+        });
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (!settingSearchText) {
+                    searchAsYouType(s.toString());
+                }
+            }
+        });
         totalCostView = findViewById(R.id.total_cost);
+        totalCostView.setOnClickListener(v -> navigateToDashboard());
+        highlightsView = findViewById(R.id.highlights_text);
+        subtotalsView = findViewById(R.id.subtotals_text);
         filtersButton = findViewById(R.id.filter_items_button);
         sortButton = findViewById(R.id.sort_items_button);
 
@@ -117,13 +273,14 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
 
         deleteButton = findViewById(R.id.delete_items_button);
         deleteButton.setOnClickListener(v -> {
-            ((ItemAdapter) itemsView.getAdapter()).deleteSelectedItems();
+            itemAdapter.deleteSelectedItems();
+            selectAllCheckBox.setChecked(false);
         });
 
         addTagsSelectedButton = findViewById(R.id.add_tags_selected_button);
         addTagsSelectedButton.setOnClickListener(v -> {
-            if (!((ItemAdapter) itemsView.getAdapter()).getSelectedItems().isEmpty()) {
-                AddTagsSelectedItemsFragment tagsSelectedFragment = new AddTagsSelectedItemsFragment((ItemAdapter) itemAdapter);
+            if (!itemAdapter.isSelectionEmpty()) {
+                AddTagsSelectedItemsFragment tagsSelectedFragment = new AddTagsSelectedItemsFragment(itemAdapter);
                 Bundle args = new Bundle();
                 tagsSelectedFragment.setArguments(args);
                 tagsSelectedFragment.show(getSupportFragmentManager(), "ADD_TAGS_SELECTED");
@@ -132,16 +289,42 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
             }
         });
 
-        totalListener = new TotalListener(0.0, totalCostView);
-        itemAdapter = new ItemAdapter(this, items);
+        totalListener = new TotalListener(totalCostView);
+        itemAdapter = new ItemAdapter(this);
+        items.setCallback(itemAdapter);
+        itemsView.setLayoutManager(new LinearLayoutManager(this));
+        itemsView.setHasFixedSize(true);
         itemsView.setAdapter(itemAdapter);
+        itemAdapter.loadThumbnailsFor(itemsView);
+        frameMonitor = new FrameMonitor(this);
+        itemAdapter.setFrameMonitor(frameMonitor);
+        itemsView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView view, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    frameMonitor.end(FrameMonitor.State.SCROLL);
+                } else {
+                    frameMonitor.begin(FrameMonitor.State.SCROLL);
+                }
+            }
+        });
         final FloatingActionButton addButton = findViewById(R.id.add_item_button);
         addButton.setOnClickListener(v -> {
             new AddItemFragment().show(getSupportFragmentManager(), "ADD_ITEM");
         });
         deleteButton = findViewById(R.id.delete_items_button);
         deleteButton.setOnClickListener(v -> {
-            ((ItemAdapter) itemsView.getAdapter()).deleteSelectedItems();
+            itemAdapter.deleteSelectedItems();
+            selectAllCheckBox.setChecked(false);
+        });
+
+        selectAllCheckBox = findViewById(R.id.select_all_checkbox);
+        selectAllCheckBox.setOnClickListener(v -> {
+            if (selectAllCheckBox.isChecked()) {
+                selectShownItems();
+            } else {
+                itemAdapter.clearSelectedItems();
+            }
         });
 
         filtersButton.setOnClickListener(new View.OnClickListener() {
@@ -149,10 +332,7 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
             public void onClick(View v) {
                 ItemFiltersFragment itemFiltersFragment = new ItemFiltersFragment();
                 Bundle args = new Bundle();
-                if (!itemFilter.isFilterActive()) {
-                    itemList.setUnfilteredItems(new ArrayList<Item>(items));
-                    itemList.setFilteredItems(new ArrayList<Item>(items));
-                }
+                ItemFilter itemFilter = itemQuery.toFilter();
                 if (itemFilter.isFilterDate()) {
                     DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
                     args.putString("from", df.format(itemFilter.getFrom()));
@@ -168,6 +348,11 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
                 if (itemFilter.isFilterTag()) {
                     args.putString("tag", itemFilter.getTag());
                 }
+                if (inventoryFacets != null) {
+                    ItemFiltersFragment.putFacets(args, "make", viewFacets.getMakes(), inventoryFacets.getMakes());
+                    ItemFiltersFragment.putFacets(args, "tag", viewFacets.getTags(), inventoryFacets.getTags());
+                    ItemFiltersFragment.putFacets(args, "year", viewFacets.getYears(), inventoryFacets.getYears());
+                }
                 itemFiltersFragment.setArguments(args);
                 itemFiltersFragment.show(getSupportFragmentManager(), "ITEM_FILTERS");
             }
@@ -192,8 +377,307 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
         });
 
         db = Database.getInstance();
-        db.addArrayAsListener(items, itemAdapter);
-        db.addTotalListener(totalListener);
+        itemStore = ItemStore.getInstance();
+        storeRegistration = db.addStoreAsListener(itemStore);
+        backgroundSearcher = new BackgroundSearcher(new ItemIndex());
+        backgroundSearcher.setOnViewChangedListener(viewUpdater);
+        backgroundSearcher.setOnScopeCountedListener(scopeUpdater);
+        itemStore.addListener(backgroundSearcher);
+        itemStore.addListener(totalListener);
+        itemStore.addListener(itemAdapter.getSelection());
+        itemStore.addListener(subtotalUpdater);
+        // Keep the dashboard's rollups from the first snapshot on, so that it opens without counting
+        InventoryRollups.getInstance();
+        InventoryHistory.getInstance();
+        refreshHighlights();
+
+        // Prepare the add and edit item dialogs once the list is up and the main thread is idle
+        layoutPreinflater = new LayoutPreinflater(this, R.layout.add_item_layout);
+        layoutPreinflater.preinflateWhenIdle();
+        Looper.myQueue().addIdleHandler(() -> {
+            BarcodeScannerPool.getInstance().warmUp();
+            return false;
+        });
+    }
+
+    /**
+     * Stops listening to item changes when the activity is destroyed.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        storeRegistration.remove();
+        itemStore.removeListener(backgroundSearcher);
+        itemStore.removeListener(totalListener);
+        itemStore.removeListener(itemAdapter.getSelection());
+        itemStore.removeListener(subtotalUpdater);
+        backgroundSearcher.shutdown();
+        layoutPreinflater.shutdown();
+        frameMonitor.shutdown();
+    }
+
+    /**
+     * Stops recording frame times while the activity is not visible, and reports them.
+     */
+    @Override
+    protected void onPause() {
+        super.onPause();
+        frameMonitor.stop();
+    }
+
+    /**
+     * @return The preinflater of the layouts of this activity's dialogs.
+     */
+    @Override
+    public LayoutPreinflater getLayoutPreinflater() {
+        return layoutPreinflater;
+    }
+
+    /**
+     * Searches for the text of the search box while it is being typed. Text that does not parse yet,
+     * such as a half typed price, keeps the current results; the error is shown once the search is
+     * submitted.
+     *
+     * @param text The query text.
+     */
+    private void searchAsYouType(String text) {
+        ItemQuery query;
+        try {
+            query = QueryParser.parse(text);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        searchEditText.setError(null);
+        if (!query.equals(itemQuery)) {
+            itemQuery = query;
+            runSearch(FrameMonitor.State.FILTER, null);
+        }
+    }
+
+    /**
+     * Parses the submitted text of the search box and shows the matching items. A query starting
+     * with "explain" also reports which index served each clause and how long it took.
+     *
+     * @param text The query text.
+     */
+    private void applySearchText(String text) {
+        try {
+            itemQuery = QueryParser.parse(text);
+        } catch (IllegalArgumentException e) {
+            searchEditText.setError(e.getMessage());
+            return;
+        }
+        if (!itemQuery.isExplain()) {
+            runSearch(FrameMonitor.State.FILTER, null);
+            return;
+        }
+        runSearch(FrameMonitor.State.FILTER, (result, inventory, view) -> {
+            Log.d("Search", result.getExplanation());
+            new AlertDialog.Builder(this)
+                    .setTitle("Query plan")
+                    .setMessage(result.getExplanation())
+                    .setPositiveButton("OK", null)
+                    .show();
+        });
+    }
+
+    /**
+     * Runs the current query against the in-memory indexes on the search thread and shows the
+     * sorted result, replacing any search still in progress. The facet counts shown in the filters
+     * dialog are updated with every result. Until the first snapshot has arrived
+     * the indexes are empty, so the query is sent to Firestore instead.
+     *
+     * @param cause    What the search is run for, which tags the frames showing its result.
+     * @param onResult Also receives the result of a local search, or null.
+     */
+    private void runSearch(FrameMonitor.State cause, BackgroundSearcher.OnResultListener onResult) {
+        final SortOrder order = sortOrder;
+        if (itemStore.isLoaded()) {
+            backgroundSearcher.search(itemQuery, order, (result, inventory, view) -> {
+                inventoryFacets = inventory;
+                viewFacets = view;
+                shownPlan = result.getPlan();
+                refreshSubtotals();
+                showItems(result.getItems(), result.getDocIds(), order, cause);
+                if (onResult != null) {
+                    onResult.onResult(result, inventory, view);
+                }
+            });
+            return;
+        }
+        backgroundSearcher.cancel();
+        if (!itemQuery.isEmpty()) {
+            // The local index belongs to the search thread; Firestore only needs the pushdown clause
+            final ItemQuery query = itemQuery;
+            QueryPlan plan = QueryPlanner.planWithoutIndex(query);
+            db.queryItems(plan, results -> {
+                if (query == itemQuery) {
+                    shownPlan = null;
+                    order.sort(results);
+                    showItems(results, null, order, cause);
+                }
+            });
+        }
+    }
+
+    /**
+     * Selects every item matching the current search, or every item if there is none. Only the
+     * scope of the selection is recorded, so this takes constant time however many items match.
+     * The totals of the scope are those of the inventory or of the shown items, which are already
+     * known; a search scope keeps being counted on the search thread after the view moves on.
+     */
+    private void selectShownItems() {
+        ItemSelection selection = itemAdapter.getSelection();
+        if (itemQuery.isEmpty()) {
+            selectionScope = ItemSelection.ALL;
+            selectionPlan = null;
+            itemAdapter.selectMatching(selectionScope);
+            selection.setScopeTotals(totalListener.getCount(), totalListener.getTotalCents());
+        } else if (shownPlan != null) {
+            // The plan includes fuzzy fallbacks, so it matches exactly the shown items
+            selectionScope = shownPlan::matches;
+            selectionPlan = shownPlan;
+            itemAdapter.selectMatching(selectionScope);
+            if (viewFacets != null) {
+                selection.setScopeTotals(viewFacets.getItemCount(), viewFacets.getTotalCents());
+            }
+        } else {
+            selectionScope = itemQuery::matches;
+            selectionPlan = null;
+            itemAdapter.selectMatching(selectionScope);
+            // Before the first snapshot the shown items are all there is to count
+            long cents = 0;
+            for (Item item : items) {
+                cents += item.getPriceCents();
+            }
+            selection.setScopeTotals(items.size(), cents);
+        }
+        backgroundSearcher.setSelectionScope(selectionPlan);
+        refreshSubtotals();
+    }
+
+    /**
+     * Updates the selection totals after the selection changed. Stops counting a search scope
+     * once it is no longer selected.
+     */
+    public void onSelectionChanged() {
+        if (selectionScope != null && itemAdapter.getSelection().getScope() != selectionScope) {
+            selectionScope = null;
+            if (selectionPlan != null) {
+                selectionPlan = null;
+                backgroundSearcher.setSelectionScope(null);
+            }
+        }
+        refreshSubtotals();
+    }
+
+    /**
+     * Shows the number, total value and median and high percentile values of the items matching
+     * the search, when there is one, and the number and total value of the selected items, when
+     * there are any. All are kept up to date as items change, so this only formats them.
+     */
+    private void refreshSubtotals() {
+        StringBuilder text = new StringBuilder();
+        if (!itemQuery.isEmpty() && viewFacets != null) {
+            text.append(String.format(Locale.US, "Shown: %d items, $%s",
+                    viewFacets.getItemCount(), Money.format(viewFacets.getTotalCents())));
+            ValueSketch values = viewFacets.getValues();
+            if (!values.isEmpty()) {
+                text.append(String.format(Locale.US, " (median $%s, p90 $%s, p99 $%s)",
+                        Money.format(values.getQuantile(0.5)), Money.format(values.getQuantile(0.9)),
+                        Money.format(values.getQuantile(0.99))));
+            }
+        }
+        ItemSelection selection = itemAdapter.getSelection();
+        if (!selection.isEmpty()) {
+            if (text.length() > 0) {
+                text.append("   ");
+            }
+            text.append(String.format(Locale.US, "Selected: %d items, $%s",
+                    selection.getSelectedCount(), Money.format(selection.getSelectedCents())));
+        }
+        subtotalsView.setText(text);
+        subtotalsView.setVisibility(text.length() > 0 ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * Looks up the most valuable and most recently purchased items for the highlights header. Only
+     * the few items shown are ever sorted: the search thread walks its price and date indexes, and
+     * before the first snapshot has arrived Firestore orders and limits the items itself.
+     */
+    private void refreshHighlights() {
+        if (itemStore.isLoaded()) {
+            backgroundSearcher.searchTop(new ItemQuery(), MOST_VALUABLE, HIGHLIGHT_COUNT, result -> {
+                mostValuable = result.getItems();
+                showHighlights();
+            });
+            backgroundSearcher.searchTop(new ItemQuery(), MOST_RECENT, HIGHLIGHT_COUNT, result -> {
+                mostRecent = result.getItems();
+                showHighlights();
+            });
+        } else {
+            db.queryTopItems("value", HIGHLIGHT_COUNT, top -> {
+                mostValuable = top;
+                showHighlights();
+            });
+            db.queryTopItems("purchaseDate", HIGHLIGHT_COUNT, top -> {
+                mostRecent = top;
+                showHighlights();
+            });
+        }
+    }
+
+    /**
+     * Displays the highlights that have been looked up so far.
+     */
+    private void showHighlights() {
+        StringBuilder text = new StringBuilder();
+        if (mostValuable != null && !mostValuable.isEmpty()) {
+            text.append("Most valuable:");
+            for (int i = 0; i < mostValuable.size(); i++) {
+                Item item = mostValuable.get(i);
+                text.append(i == 0 ? " " : ", ").append(item.getName())
+                        .append(" $").append(Money.format(item.getPriceCents()));
+            }
+        }
+        if (mostRecent != null && !mostRecent.isEmpty()) {
+            DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
+            text.append(text.length() > 0 ? "\n" : "").append("Latest:");
+            for (int i = 0; i < mostRecent.size(); i++) {
+                Item item = mostRecent.get(i);
+                text.append(i == 0 ? " " : ", ").append(item.getName())
+                        .append(" ").append(df.format(item.getPurchaseDate()));
+            }
+        }
+        highlightsView.setText(text);
+        highlightsView.setVisibility(text.length() > 0 ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * Replaces the displayed items. The adapter works out on a background thread which rows
+     * actually changed, so rows shown before and after are not rebound. Later changes to the items
+     * are shown row by row.
+     *
+     * @param results The items to display, sorted.
+     * @param docIds  The document ids of the items in the index, or null for database results.
+     * @param order   The order the items are sorted in, which later changes keep.
+     * @param cause   What the new items are shown for, which tags the frames showing them.
+     */
+    private void showItems(List<Item> results, int[] docIds, SortOrder order, FrameMonitor.State cause) {
+        frameMonitor.begin(cause);
+        itemAdapter.freezeRows();
+        items.replaceAll(results, docIds, order);
+        submitItems();
+    }
+
+    /**
+     * Hands the current items to the adapter. The list update states begun for them end once the
+     * frame showing the result has been drawn, or that of a later update if this one is replaced
+     * before it is committed.
+     */
+    private void submitItems() {
+        itemAdapter.showResult(items, () -> frameMonitor.endAfterNextDraw(itemsView,
+                FrameMonitor.State.SNAPSHOT, FrameMonitor.State.FILTER, FrameMonitor.State.SORT));
     }
 
     /**
@@ -204,6 +688,14 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
         startActivity(i);
     }
 
+    /**
+     * Navigates to the dashboard activity when the total is clicked.
+     */
+    private void navigateToDashboard() {
+        Intent i = new Intent(MainActivity.this, DashboardActivity.class);
+        startActivity(i);
+    }
+
     /**
      * Handles the user's response to adding a new item.
      *
@@ -219,8 +711,7 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
      */
     @Override
     public void updateTotalCost() { //add up all costs of expenses within list, update display
-        totalCostView.setText("Total Valuation $" + String.format("%.2f", totalListener.getTotal()));
-        itemAdapter.notifyDataSetChanged();
+        totalListener.update();
     }
 
     /**
@@ -259,11 +750,9 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
      */
     @Override
     public void onFiltersSaved(ItemFilter i) {
-        itemFilter = i;
-        itemList.filterItems(itemFilter);
-        items.clear();
-        items.addAll(itemList.getFilteredItems());
-        itemAdapter.notifyDataSetChanged();
+        itemQuery = ItemQuery.fromFilter(i);
+        setSearchText(itemQuery.toString());
+        runSearch(FrameMonitor.State.FILTER, null);
     }
 
     /**
@@ -275,38 +764,11 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
     @Override
     public void onRadioButtonSaved(Object tag, String tagString) {
         sortRadioTag = tag;
-        switch (tag.toString()) {
-            case "DATE_OLDEST":
-                sortByDate(true);
-                break;
-            case "DATE_NEWEST":
-                sortByDate(false);
-                break;
-            case "PRICE_LOWEST":
-                sortByPrice(true);
-                break;
-            case "PRICE_HIGHEST":
-                sortByPrice(false);
-                break;
-            case "MAKE_AtoZ":
-                sortByMake(true);
-                break;
-            case "MAKE_ZtoA":
-                sortByMake(false);
-                break;
-            case "DESCRIPTION_AtoZ":
-                sortByDescription(true);
-                break;
-            case "DESCRIPTION_ZtoA":
-                sortByDescription(false);
-                break;
-            case "TAG":
-                sortTagString = tagString;
-                sortByTag(tagString);
-                break;
-            default:
-                break;
+        if (tag.toString().equals("TAG")) {
+            sortTagString = tagString;
         }
+        sortOrder = SortOrder.fromRadioTag(tag.toString(), tagString, sortOrder);
+        runSearch(FrameMonitor.State.SORT, null);
     }
 
     /**
@@ -314,13 +776,24 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
      */
     @Override
     public void onFiltersCleared() {
-        itemFilter = new ItemFilter();
-        items.clear();
-        items.addAll(itemList.getUnfilteredItems());
-        itemAdapter.notifyDataSetChanged();
+        itemQuery = new ItemQuery();
+        setSearchText("");
+        runSearch(FrameMonitor.State.FILTER, null);
         updateTotalCost();
     }
 
+    /**
+     * Shows the text of the current query in the search box without searching it again as typed.
+     *
+     * @param text The query text.
+     */
+    private void setSearchText(String text) {
+        settingSearchText = true;
+        searchEditText.setText(text);
+        settingSearchText = false;
+        searchEditText.setError(null);
+    }
+
     /**
      * Handles the user's response to editing a specific item.
      *
@@ -330,11 +803,9 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
     public void onItemEdited(Item item) {
         // Interfaces can't have same named methods
         //TODO: change way of passing state to the main activity
+        // The edit is applied to the shown items once the snapshot listener has indexed it. The
+        // item is an edited copy, so the shown one keeps its values until then.
         db.editItem(item, () -> {
-            // This code will run after the item is successfully edited
-            if (itemFilter.isFilterActive()) {
-                onFiltersSaved(itemFilter);
-            }
         });
     }
 
@@ -347,114 +818,4 @@ public class MainActivity extends AppCompatActivity implements AddItemFragment.O
         //TODO: change way of passing state to the main activity
         updateTotalCost();
     }
-
-    /**
-     * Bulk delete function, deletes all selected items
-     */
-    private void deleteSelectedItems() {
-        ArrayList<Item> selected = new ArrayList<>();
-        for (Item item : items) {
-            if (item.isSelected()) {
-                selected.add(item);
-            }
-        }
-        items.removeAll(selected);
-        itemAdapter.notifyDataSetChanged();
-    }
-
-    /**
-     * Sorts the items by date in either ascending or descending order.
-     *
-     * @param ascending True for ascending order, false for descending order.
-     */
-    public void sortByDate(boolean ascending) {
-        Collections.sort(items, new Comparator<Item>() {
-            @Override
-            public int compare(Item item1, Item item2) {
-                return ascending ? item1.getPurchaseDate().compareTo(item2.getPurchaseDate()) : item2.getPurchaseDate().compareTo(item1.getPurchaseDate());
-            }
-        });
-        itemAdapter.notifyDataSetChanged();
-    }
-
-    /**
-     * Sorts the items by price in either ascending or descending order.
-     *
-     * @param ascending True for ascending order, false for descending order.
-     */
-    public void sortByPrice(boolean ascending) {
-        Collections.sort(items, new Comparator<Item>() {
-            @Override
-            public int compare(Item item1, Item item2) {
-                return ascending ? item1.getValue().compareTo(item2.getValue()) : item2.getValue().compareTo(item1.getValue());
-            }
-        });
-        itemAdapter.notifyDataSetChanged();
-    }
-
-    /**
-     * Sorts the items by make in either ascending or descending order.
-     *
-     * @param ascending True for ascending order, false for descending order.
-     */
-    public void sortByMake(boolean ascending) {
-        Collections.sort(items, new Comparator<Item>() {
-            @Override
-            public int compare(Item item1, Item item2) {
-                return ascending ? item1.getMake().compareTo(item2.getMake()) : item2.getMake().compareTo(item1.getMake());
-            }
-        });
-        itemAdapter.notifyDataSetChanged();
-    }
-
-    /**
-     * Sorts the items by description in either ascending or descending order.
-     *
-     * @param ascending True for ascending order, false for descending order.
-     */
-    public void sortByDescription(boolean ascending) {
-        Collections.sort(items, new Comparator<Item>() {
-            @Override
-            public int compare(Item item1, Item item2) {
-                return ascending ? item1.getDescription().compareTo(item2.getDescription()) : item2.getDescription().compareTo(item1.getDescription());
-            }
-        });
-        itemAdapter.notifyDataSetChanged();
-    }
-
-    /**
-     * Sorts the items by a specified tag.
-     *
-     * @param tagString The tag string to be used for sorting.
-     */
-    public void sortByTag(String tagString) {
-        Collections.sort(items, new Comparator<Item>() {
-            @Override
-            public int compare(Item item1, Item item2) {
-                boolean hasTag1 = false;
-                for (Tag t : item1.getTags()) {
-                    if (t.getName().equals(tagString)) {
-                        hasTag1 = true;
-                    }
-                }
-
-                boolean hasTag2 = false;
-                for (Tag t : item2.getTags()) {
-                    if (t.getName().equals(tagString)) {
-                        hasTag2 = true;
-                    }
-                }
-                // Put items with the specified tag at the top
-                if (hasTag1 && !hasTag2) {
-                    return -1; // item1 comes first
-                } else if (!hasTag1 && hasTag2) {
-                    return 1;  // item2 comes first
-                } else {
-                    // For items with the same tag status, maintain their original order
-                    return 0;
-                }
-            }
-        });
-        itemAdapter.notifyDataSetChanged();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+/**
+ * The total declared value of the items in the ItemStore over time, combined from the price
+ * histories of the items. Every price change is kept as the difference it made to the total on
+ * its day, and the differences are also summed per block of BLOCK_DAYS days, so the total at the
+ * start of a range comes from the block sums before it and only the days within the range are
+ * read, however long the history is. Items that are removed take their history with them, so the
+ * series covers the items there are now.
+ * <p>
+ * This class follows the Singleton pattern and, like InventoryRollups, registers itself with the
+ * ItemStore when it is first requested. All methods run on the main thread.
+ */
+
+package com.example.cmput301project.analytics;
+
+import com.example.cmput301project.ItemChangeListener;
+import com.example.cmput301project.ItemStore;
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.PriceHistory;
+import com.example.cmput301project.itemClasses.UniqueId;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class InventoryHistory implements ItemChangeListener {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Number of days whose changes are summed together.
+     */
+    private static final long BLOCK_DAYS = 32;
+
+    private static InventoryHistory instance = null;
+    // The histories counted, as the items change in place
+    private final HashMap<UniqueId, PriceHistory> counted;
+    private final TreeMap<Long, Long> dayChanges;
+    private final TreeMap<Long, Long> blockChanges;
+
+    private InventoryHistory() {
+        counted = new HashMap<>();
+        dayChanges = new TreeMap<>();
+        blockChanges = new TreeMap<>();
+    }
+
+    /**
+     * Singleton for the inventory history. The first call counts the items already in the store.
+     *
+     * @return the instance of the inventory history class
+     */
+    public static InventoryHistory getInstance() {
+        if (instance == null) {
+            instance = new InventoryHistory();
+            ItemStore.getInstance().addListener(instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onItemAdded(Item item) {
+        add(item);
+    }
+
+    @Override
+    public void onItemChanged(Item oldItem, Item newItem) {
+        remove(oldItem);
+        add(newItem);
+    }
+
+    @Override
+    public void onItemRemoved(Item item) {
+        remove(item);
+    }
+
+    /**
+     * Finds the total value over a time range at the resolution of days.
+     *
+     * @param from The start of the range in epoch milliseconds.
+     * @param to   The end of the range in epoch milliseconds, inclusive.
+     * @return The total at the start of the range, as a point at time from, followed by the total
+     * at the start of each later day in the range on which it changed.
+     */
+    public PriceHistory.Points between(long from, long to) {
+        PriceHistory.Points points = new PriceHistory.Points();
+        if (from > to) {
+            return points;
+        }
+        long fromDay = Math.floorDiv(from, DAY_MILLIS);
+        long toDay = Math.floorDiv(to, DAY_MILLIS);
+        long fromBlock = Math.floorDiv(fromDay, BLOCK_DAYS);
+        long total = 0;
+        for (long change : blockChanges.headMap(fromBlock).values()) {
+            total += change;
+        }
+        for (long change : dayChanges.subMap(fromBlock * BLOCK_DAYS, true, fromDay, true).values()) {
+            total += change;
+        }
+        points.add(from, total);
+        for (Map.Entry<Long, Long> entry : dayChanges.subMap(fromDay, false, toDay, true).entrySet()) {
+            total += entry.getValue();
+            points.add(entry.getKey() * DAY_MILLIS, total);
+        }
+        return points;
+    }
+
+    private void add(Item item) {
+        if (item.getUniqueId() == null) {
+            return;
+        }
+        remove(item);
+        PriceHistory history = item.getPriceHistory();
+        counted.put(item.getUniqueId(), history);
+        count(history, 1);
+    }
+
+    private void remove(Item item) {
+        if (item.getUniqueId() == null) {
+            return;
+        }
+        PriceHistory history = counted.remove(item.getUniqueId());
+        if (history != null) {
+            count(history, -1);
+        }
+    }
+
+    /**
+     * Adds the changes an item's prices made to the total, or takes them away for a sign of -1.
+     */
+    private void count(PriceHistory history, int sign) {
+        PriceHistory.Points prices = history.all();
+        long previous = 0;
+        for (int i = 0; i < prices.size(); i++) {
+            long day = Math.floorDiv(prices.getTime(i), DAY_MILLIS);
+            long change = sign * (prices.getCents(i) - previous);
+            addChange(dayChanges, day, change);
+            addChange(blockChanges, Math.floorDiv(day, BLOCK_DAYS), change);
+            previous = prices.getCents(i);
+        }
+    }
+
+    private static void addChange(TreeMap<Long, Long> changes, long key, long change) {
+        Long sum = changes.get(key);
+        long newSum = (sum == null ? 0 : sum) + change;
+        if (newSum == 0) {
+            changes.remove(key);
+        } else {
+            changes.put(key, newSum);
+        }
+    }
+}
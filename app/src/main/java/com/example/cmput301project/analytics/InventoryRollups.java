@@ -0,0 +1,324 @@
+/**
+ * Rollups of the items in the ItemStore by make, by tag, by purchase year and by purchase month,
+ * and the distribution of all their values, kept current from the store's item changes so that the
+ * dashboard only reads them. The values each item was counted with are remembered, so an item is
+ * uncounted correctly even if it was modified in place since. Every change costs time proportional
+ * to the item's number of tags, and reading a rollup costs time proportional to its number of
+ * groups, however many items there are.
+ * <p>
+ * This class follows the Singleton pattern. The instance registers itself with the ItemStore when
+ * it is first requested and follows it from then on, so it should be requested as soon as the
+ * items start loading rather than when the dashboard opens. All methods run on the main thread,
+ * where the ItemStore publishes its changes.
+ */
+
+package com.example.cmput301project.analytics;
+
+import com.example.cmput301project.ItemChangeListener;
+import com.example.cmput301project.ItemStore;
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+import com.example.cmput301project.itemClasses.UniqueId;
+import com.example.cmput301project.search.TextNormalizer;
+import com.example.cmput301project.search.ValueSketch;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+public class InventoryRollups implements ItemChangeListener {
+
+    /**
+     * Listener for changes to the rollups.
+     */
+    public interface OnRollupsChangedListener {
+        /**
+         * Called on the main thread once after each batch of item changes that changed the rollups.
+         *
+         * @param rollups The rollups.
+         */
+        void onRollupsChanged(InventoryRollups rollups);
+    }
+
+    /**
+     * The total value of all items bought up to the end of a month.
+     */
+    public static class GrowthPoint {
+        private final String month;
+        private final int count;
+        private final long cents;
+
+        GrowthPoint(String month, int count, long cents) {
+            this.month = month;
+            this.count = count;
+            this.cents = cents;
+        }
+
+        /**
+         * @return The month as "yyyy-MM".
+         */
+        public String getMonth() {
+            return month;
+        }
+
+        /**
+         * @return The number of items bought up to the end of the month.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return The total value of the items bought up to the end of the month in cents.
+         */
+        public long getCents() {
+            return cents;
+        }
+    }
+
+    private static InventoryRollups instance = null;
+    private final Rollup makes;
+    private final Rollup tags;
+    private final Rollup years;
+    private final Rollup months;
+    private final ValueSketch values;
+    private final HashMap<UniqueId, Counted> counted;
+    private final Calendar calendar;
+    private int itemCount;
+    private long totalCents;
+    private int undatedCount;
+    private long undatedCents;
+    private boolean changed;
+    private OnRollupsChangedListener listener;
+
+    private InventoryRollups() {
+        makes = new Rollup(false);
+        tags = new Rollup(false);
+        years = new Rollup(true);
+        months = new Rollup(true);
+        values = new ValueSketch();
+        counted = new HashMap<>();
+        calendar = Calendar.getInstance();
+    }
+
+    /**
+     * Singleton for the inventory rollups. The first call counts the items already in the store.
+     *
+     * @return the instance of the inventory rollups class
+     */
+    public static InventoryRollups getInstance() {
+        if (instance == null) {
+            instance = new InventoryRollups();
+            ItemStore.getInstance().addListener(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the listener told about changes to the rollups, such as an open dashboard.
+     *
+     * @param listener The listener, or null to remove it.
+     */
+    public void setOnRollupsChangedListener(OnRollupsChangedListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void onItemAdded(Item item) {
+        add(item);
+    }
+
+    @Override
+    public void onItemChanged(Item oldItem, Item newItem) {
+        remove(oldItem);
+        add(newItem);
+    }
+
+    @Override
+    public void onItemRemoved(Item item) {
+        remove(item);
+    }
+
+    @Override
+    public void onChangesApplied() {
+        if (changed) {
+            changed = false;
+            if (listener != null) {
+                listener.onRollupsChanged(this);
+            }
+        }
+    }
+
+    /**
+     * @return The number of items.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * @return The total value of all items in cents.
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * @return The number of items without a purchase date, which are left out of the periods.
+     */
+    public int getUndatedCount() {
+        return undatedCount;
+    }
+
+    /**
+     * @return The total value of the items without a purchase date in cents.
+     */
+    public long getUndatedCents() {
+        return undatedCents;
+    }
+
+    /**
+     * @return The distribution of the values of all items, for quantiles and histograms.
+     */
+    public ValueSketch getValues() {
+        return values;
+    }
+
+    public Rollup getMakes() {
+        return makes;
+    }
+
+    /**
+     * @return The rollup by tag. An item counts once for each of its distinct tags, so the groups
+     * can add up to more than the total.
+     */
+    public Rollup getTags() {
+        return tags;
+    }
+
+    /**
+     * @return The rollup by purchase year, with years as four digit strings, in order.
+     */
+    public Rollup getYears() {
+        return years;
+    }
+
+    /**
+     * @return The rollup by purchase month, with months as "yyyy-MM", in order.
+     */
+    public Rollup getMonths() {
+        return months;
+    }
+
+    /**
+     * Computes the growth of the total value over time from the rollup by month, in time
+     * proportional to the number of months.
+     *
+     * @return The running totals at the end of every month with purchases, in order.
+     */
+    public List<GrowthPoint> getGrowth() {
+        List<Rollup.Row> rows = months.getRows();
+        ArrayList<GrowthPoint> growth = new ArrayList<>(rows.size());
+        int count = 0;
+        long cents = 0;
+        for (Rollup.Row row : rows) {
+            count += row.getCount();
+            cents += row.getCents();
+            growth.add(new GrowthPoint(row.getLabel(), count, cents));
+        }
+        return growth;
+    }
+
+    private void add(Item item) {
+        if (item.getUniqueId() == null) {
+            return;
+        }
+        remove(item);
+        Counted values = new Counted(item.getMake(), distinctTags(item), month(item), item.getPriceCents());
+        counted.put(item.getUniqueId(), values);
+        count(values, 1);
+    }
+
+    private void remove(Item item) {
+        if (item.getUniqueId() == null) {
+            return;
+        }
+        Counted values = counted.remove(item.getUniqueId());
+        if (values != null) {
+            count(values, -1);
+        }
+    }
+
+    /**
+     * Adds an item's values to every rollup, or takes them away for a sign of -1.
+     */
+    private void count(Counted values, int sign) {
+        itemCount += sign;
+        totalCents += sign * values.cents;
+        if (sign > 0) {
+            this.values.add(values.cents);
+            makes.add(values.make, values.cents);
+            for (String tag : values.tags) {
+                tags.add(tag, values.cents);
+            }
+        } else {
+            this.values.remove(values.cents);
+            makes.remove(values.make, values.cents);
+            for (String tag : values.tags) {
+                tags.remove(tag, values.cents);
+            }
+        }
+        if (values.month == null) {
+            undatedCount += sign;
+            undatedCents += sign * values.cents;
+        } else if (sign > 0) {
+            years.add(values.month.substring(0, 4), values.cents);
+            months.add(values.month, values.cents);
+        } else {
+            years.remove(values.month.substring(0, 4), values.cents);
+            months.remove(values.month, values.cents);
+        }
+        changed = true;
+    }
+
+    private String[] distinctTags(Item item) {
+        ArrayList<String> names = new ArrayList<>();
+        if (item.getTags() != null) {
+            HashSet<String> seen = new HashSet<>();
+            for (Tag tag : item.getTags()) {
+                if (seen.add(TextNormalizer.normalize(tag.getName()))) {
+                    names.add(tag.getName());
+                }
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private String month(Item item) {
+        if (item.getPurchaseDate() == null) {
+            return null;
+        }
+        calendar.setTime(item.getPurchaseDate());
+        return String.format(Locale.US, "%04d-%02d", calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+    }
+
+    /**
+     * The values an item was counted with.
+     */
+    private static class Counted {
+        final String make;
+        final String[] tags;
+        final String month;
+        final long cents;
+
+        Counted(String make, String[] tags, String month, long cents) {
+            this.make = make;
+            this.tags = tags;
+            this.month = month;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * The number and total value in cents of the items in each group of one attribute, such as each
+ * make or each purchase month, and the distribution of their values. Like a Facet, labels are
+ * grouped case-insensitively and shown with the spelling they were first seen with, and the table
+ * is adjusted one item at a time, so reading it costs time proportional to the number of groups
+ * rather than items. The distributions of several groups can be merged, such as for the median of
+ * a few makes together.
+ */
+
+package com.example.cmput301project.analytics;
+
+import com.example.cmput301project.search.TextNormalizer;
+import com.example.cmput301project.search.ValueSketch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class Rollup {
+
+    /**
+     * One group and the number and total value of its items.
+     */
+    public static class Row {
+        private final String label;
+        private int count;
+        private long cents;
+        // Only kept by the rollup's own rows, not by the copies it hands out
+        private ValueSketch values;
+
+        Row(String label, int count, long cents) {
+            this.label = label;
+            this.count = count;
+            this.cents = cents;
+        }
+
+        /**
+         * @return The group as it was first spelled.
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return The total value of the items in the group in cents.
+         */
+        public long getCents() {
+            return cents;
+        }
+    }
+
+    /**
+     * Orders rows by descending total value, then descending count, then label.
+     */
+    public static final Comparator<Row> BY_VALUE = (a, b) -> {
+        if (a.cents != b.cents) {
+            return a.cents > b.cents ? -1 : 1;
+        }
+        if (a.count != b.count) {
+            return b.count - a.count;
+        }
+        return a.label.compareTo(b.label);
+    };
+
+    private final Map<String, Row> rows;
+
+    /**
+     * Constructs an empty rollup.
+     *
+     * @param ordered True to keep the groups in the order of their labels, such as for periods
+     *                labelled "2023-04", false if their order does not matter.
+     */
+    public Rollup(boolean ordered) {
+        rows = ordered ? new TreeMap<String, Row>() : new HashMap<String, Row>();
+    }
+
+    /**
+     * Counts one more item in a group.
+     *
+     * @param label The group, ignored if null or blank.
+     * @param cents The value of the item in cents.
+     */
+    public void add(String label, long cents) {
+        String key = TextNormalizer.normalize(label);
+        if (key.isEmpty()) {
+            return;
+        }
+        Row row = rows.get(key);
+        if (row == null) {
+            row = new Row(label.trim(), 0, 0);
+            row.values = new ValueSketch();
+            rows.put(key, row);
+        }
+        row.count++;
+        row.cents += cents;
+        row.values.add(cents);
+    }
+
+    /**
+     * Counts one item less in a group, with the value it was added with. Groups left without items
+     * are dropped.
+     *
+     * @param label The group, ignored if null or blank.
+     * @param cents The value the item was added with in cents.
+     */
+    public void remove(String label, long cents) {
+        String key = TextNormalizer.normalize(label);
+        Row row = rows.get(key);
+        if (row == null) {
+            return;
+        }
+        row.count--;
+        row.cents -= cents;
+        row.values.remove(cents);
+        if (row.count <= 0) {
+            rows.remove(key);
+        }
+    }
+
+    /**
+     * Removes all groups.
+     */
+    public void clear() {
+        rows.clear();
+    }
+
+    /**
+     * @return The number of groups.
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return Copies of all rows, in label order for an ordered rollup.
+     */
+    public List<Row> getRows() {
+        ArrayList<Row> copies = new ArrayList<>(rows.size());
+        for (Row row : rows.values()) {
+            copies.add(new Row(row.label, row.count, row.cents));
+        }
+        return copies;
+    }
+
+    /**
+     * @param label A group.
+     * @return A copy of the distribution of the values of the items in the group, empty if there
+     * is no such group.
+     */
+    public ValueSketch getValues(String label) {
+        Row row = rows.get(TextNormalizer.normalize(label));
+        return row == null ? new ValueSketch() : row.values.copy();
+    }
+
+    /**
+     * Merges the distributions of several groups, in time proportional to the number of groups.
+     *
+     * @param labels The groups. Groups that do not exist are skipped.
+     * @return The distribution of the values of the items in the groups. An item in several of
+     * the groups, such as one with several of the tags, counts once for each.
+     */
+    public ValueSketch getValues(Iterable<String> labels) {
+        ValueSketch merged = new ValueSketch();
+        for (String label : labels) {
+            Row row = rows.get(TextNormalizer.normalize(label));
+            if (row != null) {
+                merged.merge(row.values);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @param k The number of rows wanted.
+     * @return Copies of the k rows with the highest total value, highest first.
+     */
+    public List<Row> top(int k) {
+        List<Row> sorted = getRows();
+        Collections.sort(sorted, BY_VALUE);
+        return sorted.size() > k ? new ArrayList<>(sorted.subList(0, k)) : sorted;
+    }
+}
@@ -27,7 +27,6 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
 import android.util.Log;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -47,9 +46,11 @@ import androidx.fragment.app.DialogFragment;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.RequestOptions;
+import com.example.cmput301project.BarcodeScannerPool;
 import com.example.cmput301project.Database;
 import com.example.cmput301project.R;
 import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Money;
 import com.example.cmput301project.itemClasses.Photograph;
 import com.example.cmput301project.itemClasses.Tag;
 import com.example.cmput301project.itemClasses.UniqueId;
@@ -61,8 +62,6 @@ import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.firebase.storage.UploadTask;
 import com.google.mlkit.vision.barcode.BarcodeScanner;
-import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
-import com.google.mlkit.vision.barcode.BarcodeScanning;
 import com.google.mlkit.vision.barcode.common.Barcode;
 import com.google.mlkit.vision.common.InputImage;
 
@@ -109,8 +108,8 @@ public class AddItemFragment extends DialogFragment {
     private Button parseButton;
     private final ActivityResultLauncher<String> requestPermissionLauncher = registerForActivityResult(new ActivityResultContracts.RequestPermission(), isGranted -> {
     });
-    private BarcodeScannerOptions barcodeScannerOptions;
     private BarcodeScanner barcodeScanner;
+    private final DialogTimer openTimer = new DialogTimer("Add item");
     private Button cameraButton;
     private Button galleryButton;
     private Button deletePicture;
@@ -224,6 +223,16 @@ public class AddItemFragment extends DialogFragment {
         }
     }
 
+    /**
+     * Returns the barcode scanner to the pool when the fragment is destroyed.
+     */
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        BarcodeScannerPool.getInstance().release(barcodeScanner);
+        barcodeScanner = null;
+    }
+
 
     /**
      * Interface for communication between the AddItemFragment and its hosting activity.
@@ -263,7 +272,9 @@ public class AddItemFragment extends DialogFragment {
     @NonNull
     @Override
     public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
-        View view = LayoutInflater.from(getActivity()).inflate(R.layout.add_item_layout, null);
+        openTimer.setDetail(LayoutPreinflater.hasSpare(getActivity(), R.layout.add_item_layout) ? " from a preinflated layout" : "");
+        View view = LayoutPreinflater.inflate(getActivity(), R.layout.add_item_layout);
+        openTimer.stopWhenDrawn(view);
 
         itemName = view.findViewById(R.id.name_edit_text); //find views on fragment to set text later
         itemDescription = view.findViewById(R.id.description_edit_text);
@@ -282,8 +293,7 @@ public class AddItemFragment extends DialogFragment {
         addTagButton = view.findViewById(R.id.add_tags_button); // Initialize the addTagButton
         scannerButton = view.findViewById(R.id.scan_barcode_button);
         parseButton = view.findViewById(R.id.parse_barcode_button);
-        barcodeScannerOptions = new BarcodeScannerOptions.Builder().setBarcodeFormats(Barcode.FORMAT_ALL_FORMATS).build();
-        barcodeScanner = BarcodeScanning.getClient(barcodeScannerOptions);
+        barcodeScanner = BarcodeScannerPool.getInstance().acquire();
         galleryButton = view.findViewById(R.id.gallery_button);
         cameraButton = view.findViewById(R.id.camera_button);
         itemPicture = view.findViewById(R.id.image_view);
@@ -388,6 +398,7 @@ public class AddItemFragment extends DialogFragment {
                         String make = itemMake.getText().toString().trim();
 
                         String priceText = itemPrice.getText().toString().trim();
+                        long priceCents = Money.parse(priceText);
                         String comments = itemComments.getText().toString().trim();
 
                         // Check if any field is empty
@@ -405,7 +416,7 @@ public class AddItemFragment extends DialogFragment {
                         // Validate all fields
 
                         boolean isValidFields = isValidName(name) && isValidDescription(description) && isValidModel(model) && isValidMake(make) &&
-                                isValidPrice(priceText) && isValidComment(comments);
+                                priceCents != Money.INVALID && isValidComment(comments);
 
                         if(dateAdded.getText().toString().equals("MM/DD/YYYY")){
                             dateAdded.setError("Please enter a date");
@@ -421,11 +432,9 @@ public class AddItemFragment extends DialogFragment {
                             } catch (ParseException e) {
                                 throw new RuntimeException(e);
                             }
-                            Double price = Double.parseDouble(priceText);
-
                             // Create a new Item
                             if (newItem == null) {
-                                newItem = new Item(name, parsedDate, description, make, model, serial, price, comments);
+                                newItem = new Item(name, parsedDate, description, make, model, serial, priceCents, comments);
                             } else {
                                 newItem.setUniqueId(new UniqueId());
                                 newItem.setName(name);
@@ -434,7 +443,7 @@ public class AddItemFragment extends DialogFragment {
                                 newItem.setMake(make);
                                 newItem.setModel(model);
                                 newItem.setSerialNumber(serial);
-                                newItem.setValue(price);
+                                newItem.setPriceCents(priceCents);
                                 newItem.setComment(comments);
                             }
 
@@ -464,7 +473,7 @@ public class AddItemFragment extends DialogFragment {
                             if (!isValidMake(make)) {
                                 itemMake.setError("Max 20 characters");
                             }
-                            if (!isValidPrice(priceText)) {
+                            if (priceCents == Money.INVALID) {
                                 itemPrice.setError("Invalid price format");
                             }
                             if (!isValidComment(comments)) {
@@ -548,17 +557,6 @@ public class AddItemFragment extends DialogFragment {
         return true;
     }
 
-    /**
-     * Validates the item price based on regex
-     *
-     * @param price The variable to validate.
-     * @return True if the name is valid, false otherwise.
-     */
-    private boolean isValidPrice(String price) {
-        String priceText = String.valueOf(price);
-        return priceText.matches("^(0\\.\\d{1,2}|[1-9]\\d*\\.?\\d{0,2})$");
-    }
-
     /**
      * Validates the item variable based on a maximum character limit.
      *
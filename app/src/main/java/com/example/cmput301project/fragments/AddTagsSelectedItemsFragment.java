@@ -151,7 +151,9 @@ public class AddTagsSelectedItemsFragment extends DialogFragment {
                 okButton.setOnClickListener(new View.OnClickListener() {
                     @Override
                     public void onClick(View v) {
-                        for (Item item : itemAdapter.getSelectedItems()) {
+                        for (Item selected : itemAdapter.getSelectedItems()) {
+                            // The selected items are shared with the search thread, so the tags go on a copy
+                            Item item = selected.copy();
                             for (int i = 0; i < chipGroupTags.getChildCount(); i++) {
                                 Chip chip = (Chip) chipGroupTags.getChildAt(i);
                                 String tagText = chip.getText().toString();
@@ -0,0 +1,77 @@
+/**
+ * Measures how long dialogs take to open, from the moment one is requested until its first frame
+ * is about to be drawn, and logs each time with the mean and maximum of all openings of the same
+ * dialog so far. A timer starts when it is constructed, so a dialog fragment that creates its
+ * timer as a field measures from the tap that constructed it.
+ */
+
+package com.example.cmput301project.fragments;
+
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+public class DialogTimer {
+
+    private static final String TAG = "DialogTimer";
+
+    // Count, total and maximum opening time in milliseconds per dialog, used on the main thread
+    private static final HashMap<String, long[]> stats = new HashMap<>();
+
+    private final String dialogName;
+    private final long start;
+    private String detail;
+
+    /**
+     * Starts timing the opening of a dialog.
+     *
+     * @param dialogName The name of the dialog in the log.
+     */
+    public DialogTimer(String dialogName) {
+        this.dialogName = dialogName;
+        this.start = SystemClock.uptimeMillis();
+        this.detail = "";
+    }
+
+    /**
+     * Adds a note to the logged time, such as how the dialog was built.
+     *
+     * @param detail The note.
+     */
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    /**
+     * Stops the timer right before the first frame of a view is drawn, and logs the time.
+     *
+     * @param view The content view of the dialog.
+     */
+    public void stopWhenDrawn(final View view) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                report(SystemClock.uptimeMillis() - start);
+                return true;
+            }
+        });
+    }
+
+    private void report(long elapsed) {
+        long[] stat = stats.get(dialogName);
+        if (stat == null) {
+            stat = new long[3];
+            stats.put(dialogName, stat);
+        }
+        stat[0]++;
+        stat[1] += elapsed;
+        stat[2] = Math.max(stat[2], elapsed);
+        Log.i(TAG, String.format(Locale.US, "%s dialog opened in %d ms%s (mean %d ms, max %d ms over %d openings)",
+                dialogName, elapsed, detail, stat[1] / stat[0], stat[2], stat[0]));
+    }
+}
@@ -13,8 +13,6 @@ package com.example.cmput301project.fragments;
 
 // Import statements
 
-import static java.lang.Double.parseDouble;
-
 import android.Manifest;
 import android.app.Activity;
 import android.app.AlertDialog;
@@ -31,7 +29,6 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
 import android.util.Log;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -51,9 +48,11 @@ import androidx.fragment.app.DialogFragment;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.RequestOptions;
+import com.example.cmput301project.BarcodeScannerPool;
 import com.example.cmput301project.Database;
 import com.example.cmput301project.R;
 import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Money;
 import com.example.cmput301project.itemClasses.Photograph;
 import com.example.cmput301project.itemClasses.Tag;
 import com.google.android.gms.tasks.OnCompleteListener;
@@ -64,8 +63,6 @@ import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.firebase.storage.UploadTask;
 import com.google.mlkit.vision.barcode.BarcodeScanner;
-import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
-import com.google.mlkit.vision.barcode.BarcodeScanning;
 import com.google.mlkit.vision.barcode.common.Barcode;
 import com.google.mlkit.vision.common.InputImage;
 
@@ -103,18 +100,19 @@ public class EditItemFragment extends DialogFragment {
     private Button parseButton;
     private final ActivityResultLauncher<String> requestPermissionLauncher = registerForActivityResult(new ActivityResultContracts.RequestPermission(), isGranted -> {
     });
-    private BarcodeScannerOptions barcodeScannerOptions;
     private BarcodeScanner barcodeScanner;
+    private final DialogTimer openTimer = new DialogTimer("Edit item");
     private ImageView itemPicture;
     private Button deletePicture;
 
     /**
-     * Constructor for the EditItemFragment class.
+     * Constructor for the EditItemFragment class. The item is edited on a copy, since the shown
+     * item is shared with the search thread.
      *
      * @param item The item to be edited.
      */
     public EditItemFragment(Item item) { //if called with an item passed in, we assume that we want to edit the item
-        this.editItem = item;
+        this.editItem = item.copy();
     }
 
     // Method to check if the tag is already added
@@ -235,6 +233,16 @@ public class EditItemFragment extends DialogFragment {
         }
     }
 
+    /**
+     * Returns the barcode scanner to the pool when the fragment is destroyed.
+     */
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        BarcodeScannerPool.getInstance().release(barcodeScanner);
+        barcodeScanner = null;
+    }
+
     /**
      * Interface for communication with the hosting activity.
      */
@@ -254,7 +262,9 @@ public class EditItemFragment extends DialogFragment {
     @Override
     public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
 
-        View view = LayoutInflater.from(getActivity()).inflate(R.layout.add_item_layout, null);
+        openTimer.setDetail(LayoutPreinflater.hasSpare(getActivity(), R.layout.add_item_layout) ? " from a preinflated layout" : "");
+        View view = LayoutPreinflater.inflate(getActivity(), R.layout.add_item_layout);
+        openTimer.stopWhenDrawn(view);
         itemName = view.findViewById(R.id.name_edit_text); //find views on fragment to set text later
         itemDescription = view.findViewById(R.id.description_edit_text);
         itemSerial = view.findViewById(R.id.serial_edit_text);
@@ -294,8 +304,7 @@ public class EditItemFragment extends DialogFragment {
         addTagButton = view.findViewById(R.id.add_tags_button); // Initialize the addTagButton
         scannerButton = view.findViewById(R.id.scan_barcode_button);
         parseButton = view.findViewById(R.id.parse_barcode_button);
-        barcodeScannerOptions = new BarcodeScannerOptions.Builder().setBarcodeFormats(Barcode.FORMAT_ALL_FORMATS).build();
-        barcodeScanner = BarcodeScanning.getClient(barcodeScannerOptions);
+        barcodeScanner = BarcodeScannerPool.getInstance().acquire();
         galleryButton = view.findViewById(R.id.gallery_button);
         cameraButton = view.findViewById(R.id.camera_button);
         itemPicture = view.findViewById(R.id.image_view);
@@ -323,7 +332,7 @@ public class EditItemFragment extends DialogFragment {
         itemModel.setText(editItem.getModel());
         itemMake.setText(editItem.getMake());
         dateAdded.setText(new SimpleDateFormat("MM/dd/YYYY").format(editItem.getPurchaseDate()));
-        itemPrice.setText(editItem.getValue().toString());
+        itemPrice.setText(Money.format(editItem.getPriceCents()));
         itemComments.setText(editItem.getComment());
 
         if (editItem.getTags() != null) {
@@ -416,6 +425,7 @@ public class EditItemFragment extends DialogFragment {
                         String model = itemModel.getText().toString().trim();
                         String make = itemMake.getText().toString().trim();
                         String priceText = itemPrice.getText().toString().trim();
+                        long priceCents = Money.parse(priceText);
                         String comments = itemComments.getText().toString().trim();
                         editItem.clearTags(); // Clear existing tags
                         for (int i = 0; i < chipGroupTags.getChildCount(); i++) {
@@ -437,7 +447,7 @@ public class EditItemFragment extends DialogFragment {
 
                         // Validate all fields
                         boolean isValidFields = isValidName(name) && isValidDescription(description) && isValidModel(model) && isValidMake(make) &&
-                                isValidPrice(priceText) && isValidComment(comments);
+                                priceCents != Money.INVALID && isValidComment(comments);
 
                         // Edit item if fields valid
                         if (isValidFields && !anyFieldsEmpty) {
@@ -449,16 +459,18 @@ public class EditItemFragment extends DialogFragment {
                             } catch (ParseException e) {
                                 throw new RuntimeException(e);
                             }
-                            Double price = Double.parseDouble(priceText);
-
                             // Edit the item
                             editItem.setName(itemName.getText().toString());
                             editItem.setDescription(itemDescription.getText().toString());
                             editItem.setSerialNumber(itemSerial.getText().toString());
                             editItem.setModel(itemModel.getText().toString());
                             editItem.setMake(itemMake.getText().toString());
-                            editItem.setValue(parseDouble(itemPrice.getText().toString()));
+                            // The date first, since an item without recorded prices records
+                            // its old price as of its purchase date
                             editItem.setPurchaseDate(parsedDate);
+                            if (priceCents != editItem.getPriceCents()) {
+                                editItem.changePrice(priceCents, System.currentTimeMillis());
+                            }
                             editItem.setComment(itemComments.getText().toString());
                             listener.onItemEdited(editItem);
                             listener.updateTotalCostAfterEdit(); //recalculate monthly costs
@@ -478,7 +490,7 @@ public class EditItemFragment extends DialogFragment {
                             if (!isValidMake(make)) {
                                 itemMake.setError("Max 20 characters");
                             }
-                            if (!isValidPrice(priceText)) {
+                            if (priceCents == Money.INVALID) {
                                 itemPrice.setError("Invalid price format");
                             }
                             if (!isValidComment(comments)) {
@@ -562,17 +574,6 @@ public class EditItemFragment extends DialogFragment {
         return true;
     }
 
-    /**
-     * Checks if the given price string is a valid numeric format with up to two decimal places.
-     *
-     * @param price The price string to be validated.
-     * @return true if the price is valid, false otherwise.
-     */
-    private boolean isValidPrice(String price) {
-        String priceText = String.valueOf(price);
-        return priceText.matches("^(0\\.\\d{1,2}|[1-9]\\d*\\.?\\d{0,2})$");
-    }
-
     /**
      * Checks if the given comment string is valid.
      *
@@ -4,6 +4,8 @@
  * to enter filter values and interactively set date ranges. Utilizes a listener interface to
  * communicate with the hosting activity, notifying it when filters are saved or cleared. Handles
  * user interactions, including setting and clearing filters, and invokes the listener accordingly.
+ * The most common makes, tags and purchase years are offered as chips showing how many of the
+ * currently shown items, and of all items, have them.
  */
 
 package com.example.cmput301project.fragments;
@@ -26,6 +28,7 @@ import androidx.fragment.app.DialogFragment;
 
 import com.example.cmput301project.R;
 import com.example.cmput301project.itemClasses.ItemFilter;
+import com.example.cmput301project.search.Facet;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 
@@ -37,9 +40,16 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 public class ItemFiltersFragment extends DialogFragment {
+
+    /**
+     * Maximum number of chips offered per facet.
+     */
+    private static final int MAX_FACET_CHIPS = 12;
+
     private TextView editFromDate;
     private TextView editToDate;
     private Button addKeywordButton;
@@ -53,6 +63,30 @@ public class ItemFiltersFragment extends DialogFragment {
 
     }
 
+    /**
+     * Puts the counts of one facet into the arguments of the dialog, most common values first.
+     *
+     * @param args      The arguments of the dialog.
+     * @param name      The name of the facet: "make", "tag" or "year".
+     * @param view      The counts among the currently shown items.
+     * @param inventory The counts among all items.
+     */
+    public static void putFacets(Bundle args, String name, Facet view, Facet inventory) {
+        List<Facet.Count> counts = inventory.getCounts();
+        int size = Math.min(counts.size(), MAX_FACET_CHIPS);
+        String[] labels = new String[size];
+        int[] viewCounts = new int[size];
+        int[] totals = new int[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = counts.get(i).getLabel();
+            viewCounts[i] = view.getCount(labels[i]);
+            totals[i] = counts.get(i).getCount();
+        }
+        args.putStringArray(name + "FacetLabels", labels);
+        args.putIntArray(name + "FacetCounts", viewCounts);
+        args.putIntArray(name + "FacetTotals", totals);
+    }
+
     /**
      * Called when the fragment is attached to an activity. Sets the listener if the activity
      * implements the OnFragmentInteractionListener interface.
@@ -114,6 +148,12 @@ public class ItemFiltersFragment extends DialogFragment {
         editTag = view.findViewById(R.id.filter_tag_edit_text);
 
         Bundle args = getArguments();
+        addFacetChips(view.findViewById(R.id.chip_group_make_facets), args, "make", label -> editMake.setText(label));
+        addFacetChips(view.findViewById(R.id.chip_group_tag_facets), args, "tag", label -> editTag.setText(label));
+        addFacetChips(view.findViewById(R.id.chip_group_year_facets), args, "year", label -> {
+            editFromDate.setText("01/01/" + label);
+            editToDate.setText("12/31/" + label);
+        });
         if (!args.isEmpty()) {
             String fromString = args.getString("from");
             String toString = args.getString("to");
@@ -255,6 +295,41 @@ public class ItemFiltersFragment extends DialogFragment {
         return dialog;
     }
 
+    /**
+     * Adds a chip for every value of a facet passed in the arguments. Each chip shows how many
+     * of the shown items have the value, and how many items have it overall if that differs.
+     *
+     * @param group    The chip group to fill.
+     * @param args     The arguments of the dialog.
+     * @param name     The name of the facet.
+     * @param onChosen Called with the value of a chip when it is clicked.
+     */
+    private void addFacetChips(ChipGroup group, Bundle args, String name, OnFacetChosenListener onChosen) {
+        String[] labels = args == null ? null : args.getStringArray(name + "FacetLabels");
+        if (labels == null) {
+            group.setVisibility(View.GONE);
+            return;
+        }
+        int[] counts = args.getIntArray(name + "FacetCounts");
+        int[] totals = args.getIntArray(name + "FacetTotals");
+        for (int i = 0; i < labels.length; i++) {
+            String label = labels[i];
+            Chip chip = new Chip(getContext());
+            chip.setText(counts[i] == totals[i]
+                    ? String.format(Locale.US, "%s (%d)", label, totals[i])
+                    : String.format(Locale.US, "%s (%d of %d)", label, counts[i], totals[i]));
+            chip.setOnClickListener(v -> onChosen.onFacetChosen(label));
+            group.addView(chip);
+        }
+    }
+
+    /**
+     * Receives the value of a clicked facet chip.
+     */
+    private interface OnFacetChosenListener {
+        void onFacetChosen(String label);
+    }
+
     /**
      * This will display the calendar widget set to the correct date if the user has chosen one
      * previously
@@ -0,0 +1,168 @@
+/**
+ * Inflates the layouts of heavy dialogs ahead of time on a background thread, so that opening a
+ * dialog does not inflate its whole view hierarchy on the main thread. One spare view is kept per
+ * layout: it is inflated once the main thread is idle, and again after each dialog takes it. The
+ * background thread uses a clone of the activity's LayoutInflater, which keeps the activity's view
+ * factories, so a preinflated dialog gets the same Material and AppCompat views as one inflated on
+ * the spot. A dialog opened before its spare is ready, or whose layout cannot be inflated off the
+ * main thread, inflates its layout itself.
+ */
+
+package com.example.cmput301project.fragments;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class LayoutPreinflater {
+
+    /**
+     * Implemented by activities whose dialogs use preinflated layouts.
+     */
+    public interface Provider {
+        /**
+         * @return The preinflater of the activity.
+         */
+        LayoutPreinflater getLayoutPreinflater();
+    }
+
+    private static final String TAG = "LayoutPreinflater";
+
+    private final int[] layoutIds;
+    private final LayoutInflater inflater;
+    private final LayoutInflater backgroundInflater;
+    // The fields below are only used on the main thread
+    private final SparseArray<View> spares;
+    private final SparseBooleanArray pending;
+    private final SparseBooleanArray failed;
+    private final ExecutorService executor;
+    private final Handler mainHandler;
+    private boolean shutdown;
+
+    /**
+     * Constructs a LayoutPreinflater. Nothing is inflated until preinflateWhenIdle is called.
+     *
+     * @param activity  The activity whose dialogs use the layouts.
+     * @param layoutIds The layouts to preinflate.
+     */
+    public LayoutPreinflater(Activity activity, int... layoutIds) {
+        this.layoutIds = layoutIds.clone();
+        this.inflater = LayoutInflater.from(activity);
+        // LayoutInflater is not thread safe, so the background thread has its own
+        this.backgroundInflater = inflater.cloneInContext(activity);
+        this.spares = new SparseArray<>();
+        this.pending = new SparseBooleanArray();
+        this.failed = new SparseBooleanArray();
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+                }, "layout-preinflater");
+            }
+        });
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Inflates a dialog layout, taking the preinflated view of the activity if it has one.
+     *
+     * @param activity The activity showing the dialog.
+     * @param layoutId The layout of the dialog.
+     * @return The inflated layout, not attached to any parent.
+     */
+    public static View inflate(Activity activity, int layoutId) {
+        if (activity instanceof Provider) {
+            return ((Provider) activity).getLayoutPreinflater().inflate(layoutId);
+        }
+        return LayoutInflater.from(activity).inflate(layoutId, null);
+    }
+
+    /**
+     * @param activity The activity showing a dialog.
+     * @param layoutId The layout of the dialog.
+     * @return True if the activity has a preinflated view of the layout ready.
+     */
+    public static boolean hasSpare(Activity activity, int layoutId) {
+        return activity instanceof Provider
+                && ((Provider) activity).getLayoutPreinflater().spares.get(layoutId) != null;
+    }
+
+    /**
+     * Preinflates every layout without a spare view the next time the main thread is idle, so
+     * that preinflating never delays the frames of the activity starting up.
+     */
+    public void preinflateWhenIdle() {
+        Looper.myQueue().addIdleHandler(() -> {
+            for (int layoutId : layoutIds) {
+                preinflate(layoutId);
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Returns the spare view of a layout and preinflates the next one when the main thread is
+     * idle again, or inflates the layout on the spot if no spare view is ready.
+     *
+     * @param layoutId The layout.
+     * @return The inflated layout, not attached to any parent.
+     */
+    public View inflate(int layoutId) {
+        View view = spares.get(layoutId);
+        if (view == null) {
+            return inflater.inflate(layoutId, null);
+        }
+        spares.remove(layoutId);
+        preinflateWhenIdle();
+        return view;
+    }
+
+    /**
+     * Stops preinflating and drops the spare views. Called when the activity is destroyed.
+     */
+    public void shutdown() {
+        shutdown = true;
+        executor.shutdownNow();
+        spares.clear();
+    }
+
+    private void preinflate(final int layoutId) {
+        if (shutdown || spares.get(layoutId) != null || pending.get(layoutId) || failed.get(layoutId)) {
+            return;
+        }
+        pending.put(layoutId, true);
+        executor.execute(() -> {
+            View view;
+            try {
+                view = backgroundInflater.inflate(layoutId, null);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Layout cannot be inflated in the background, inflating it on demand", e);
+                view = null;
+            }
+            final View inflated = view;
+            mainHandler.post(() -> {
+                pending.delete(layoutId);
+                if (inflated == null) {
+                    failed.put(layoutId, true);
+                } else if (!shutdown) {
+                    spares.put(layoutId, inflated);
+                }
+            });
+        });
+    }
+}
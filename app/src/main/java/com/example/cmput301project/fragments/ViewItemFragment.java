@@ -15,7 +15,6 @@ import android.app.AlertDialog;
 import android.app.Dialog;
 import android.content.Context;
 import android.content.DialogInterface;
-import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -31,18 +30,26 @@ import com.bumptech.glide.request.RequestOptions;
 import com.example.cmput301project.Database;
 import com.example.cmput301project.R;
 import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Money;
+import com.example.cmput301project.itemClasses.PriceHistory;
 import com.example.cmput301project.itemClasses.Tag;
-import com.google.android.gms.tasks.OnSuccessListener;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Date;
 
 public class ViewItemFragment extends DialogFragment {
 
+    /**
+     * Number of latest prices listed in the price history.
+     */
+    private static final int PRICE_HISTORY_SHOWN = 5;
+
     // Membership function declaration
     private TextView itemName;
     private TextView itemDescription;
     private TextView itemPrice;
+    private TextView itemPriceHistory;
     private TextView itemSerial;
     private TextView itemModel;
     private TextView itemMake;
@@ -117,6 +124,7 @@ public class ViewItemFragment extends DialogFragment {
         itemName = view.findViewById(R.id.view_item_name);
         itemDescription = view.findViewById(R.id.view_item_description);
         itemPrice = view.findViewById(R.id.view_item_price);
+        itemPriceHistory = view.findViewById(R.id.view_item_price_history);
         itemSerial = view.findViewById(R.id.view_item_serial);
         itemModel = view.findViewById(R.id.view_item_model);
         itemMake = view.findViewById(R.id.view_item_make);
@@ -126,20 +134,20 @@ public class ViewItemFragment extends DialogFragment {
         itemPicture = view.findViewById(R.id.image_view);
 
         if (viewedItem.getPhotographs() != null && !viewedItem.getPhotographs().isEmpty()) {
-            db.getImage(viewedItem.getPhotographs().get(0).getName()).addOnSuccessListener(new OnSuccessListener<Uri>() {
-                @Override
-                public void onSuccess(Uri uri) {
-                    Glide.with(getActivity()).load(uri).apply(new RequestOptions().placeholder(R.drawable.defaultuser).error(R.drawable.defaultuser)).into(itemPicture);
-                    itemPicture.invalidate();
-                }
-            });
+            // Loading the storage reference itself skips the download URL round trip and reuses
+            // the original cached when the list loaded the item's thumbnail
+            Glide.with(getActivity())
+                    .load(db.getImageForGlide(viewedItem.getPhotographs().get(0).getName()))
+                    .apply(new RequestOptions().placeholder(R.drawable.defaultuser).error(R.drawable.defaultuser))
+                    .into(itemPicture);
         }
 
         AlertDialog.Builder builder = new AlertDialog.Builder(getContext());
 
         itemName.setText("Name: " + viewedItem.getName());
         itemDescription.setText("Description: " + viewedItem.getDescription());
-        itemPrice.setText("Price: " + viewedItem.getValue().toString());
+        itemPrice.setText("Price: " + Money.format(viewedItem.getPriceCents()));
+        showPriceHistory();
         itemModel.setText("Model: " + viewedItem.getModel());
         itemSerial.setText("Serial #: " + viewedItem.getSerialNumber().toString());
         itemMake.setText("Make: " + viewedItem.getMake());
@@ -176,4 +184,24 @@ public class ViewItemFragment extends DialogFragment {
 
         return dialog;
     }
+
+    /**
+     * Lists the latest price changes of the item, if its price ever changed.
+     */
+    private void showPriceHistory() {
+        PriceHistory.Points prices = viewedItem.getPriceHistory().all();
+        if (prices.size() < 2) {
+            return;
+        }
+        DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
+        StringBuilder history = new StringBuilder("Price history:");
+        int first = Math.max(0, prices.size() - PRICE_HISTORY_SHOWN);
+        for (int i = first; i < prices.size(); i++) {
+            history.append(i == first ? " " : ", ")
+                    .append(df.format(new Date(prices.getTime(i))))
+                    .append(" $").append(Money.format(prices.getCents(i)));
+        }
+        itemPriceHistory.setText(history);
+        itemPriceHistory.setVisibility(View.VISIBLE);
+    }
 }
@@ -1,6 +1,6 @@
 /**
  * Represents an individual item with detailed information such as name, purchase date, description,
- * make, model, serial number, value, comment, associated tags, photographs, and selection status.
+ * make, model, serial number, price, comment, associated tags, photographs, and selection status.
  * Provides getters and setters for accessing and modifying item attributes. Supports the addition,
  * removal, and clearing of tags. Implements methods to manage photographs associated with the item.
  * The selection status is used for tracking the item's state, and a boolean flag indicates whether
@@ -13,6 +13,10 @@ package com.example.cmput301project.itemClasses;
 
 import com.example.cmput301project.itemClasses.Photograph;
 
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.PropertyName;
+
 import org.checkerframework.checker.units.qual.A;
 import java.util.ArrayList;
 import java.util.Date;
@@ -25,7 +29,9 @@ public class Item {
     private String make;
     private String model;
     private String serialNumber;
-    private Double value;
+    private long priceCents;
+    private boolean pricedInCents;
+    private PriceHistory priceHistory = PriceHistory.EMPTY;
     private String comment;
     private ArrayList<Tag> tags;
     private ArrayList<Photograph> photographs;
@@ -34,14 +40,15 @@ public class Item {
 
     public Item() {}
 
-    public Item(String name, Date purchaseDate, String description, String make, String model, String serialNumber, Double value, String comment) {
+    public Item(String name, Date purchaseDate, String description, String make, String model, String serialNumber, long priceCents, String comment) {
         this.name = name;
         this.purchaseDate = purchaseDate;
         this.description = description;
         this.make = make;
         this.model = model;
         this.serialNumber = serialNumber;
-        this.value = value;
+        this.priceCents = priceCents;
+        this.pricedInCents = true;
         this.comment = comment;
         this.tags = tags;
         this.photographs = photographs;
@@ -49,6 +56,32 @@ public class Item {
         this.uniqueId = new UniqueId();
     }
 
+    /**
+     * Copies the item for editing. Items in the ItemStore are shared with the search thread and
+     * must not change, so an edit is made to a copy that is then saved, and comes back as a new
+     * item with the next snapshot.
+     *
+     * @return A copy with its own tag and photograph lists.
+     */
+    public Item copy() {
+        Item copy = new Item();
+        copy.name = name;
+        copy.purchaseDate = purchaseDate == null ? null : new Date(purchaseDate.getTime());
+        copy.description = description;
+        copy.make = make;
+        copy.model = model;
+        copy.serialNumber = serialNumber;
+        copy.priceCents = priceCents;
+        copy.pricedInCents = pricedInCents;
+        copy.priceHistory = priceHistory;
+        copy.comment = comment;
+        copy.tags = tags == null ? null : new ArrayList<>(tags);
+        copy.photographs = photographs == null ? null : new ArrayList<>(photographs);
+        copy.selected = selected;
+        copy.uniqueId = uniqueId;
+        return copy;
+    }
+
     public String getName() {
         return name;
     }
@@ -96,12 +129,83 @@ public class Item {
         this.serialNumber = serialNumber;
     }
 
-    public Double getValue() {
-        return value;
+    /**
+     * @return The price of the item in whole cents.
+     */
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
+        this.pricedInCents = true;
+    }
+
+    /**
+     * The price in dollars, still written to the "value" field of the document so that older
+     * versions of the app and queries on that field keep working.
+     *
+     * @return The price in dollars.
+     */
+    @PropertyName("value")
+    public double getLegacyValue() {
+        return Money.toDollars(priceCents);
+    }
+
+    /**
+     * Reads the price of a document written before prices were stored in cents. Ignored once the
+     * price in cents is known, whichever field of the document is read first.
+     *
+     * @param value The price in dollars, may be null.
+     */
+    @PropertyName("value")
+    public void setLegacyValue(Double value) {
+        if (value != null && !pricedInCents) {
+            priceCents = Money.fromDollars(value);
+        }
+    }
+
+    /**
+     * Changes the price and records the change in the price history. An item without recorded
+     * prices first records its previous price as of its purchase date.
+     *
+     * @param priceCents The new price in cents.
+     * @param timeMillis The time of the change in epoch milliseconds.
+     */
+    public void changePrice(long priceCents, long timeMillis) {
+        this.priceHistory = getPriceHistory().append(timeMillis, priceCents);
+        setPriceCents(priceCents);
     }
 
-    public void setValue(Double value) {
-        this.value = value;
+    /**
+     * @return The prices the item has had. Until its price first changes, an item has had its
+     * current price since its purchase date.
+     */
+    @Exclude
+    public PriceHistory getPriceHistory() {
+        if (priceHistory.isEmpty()) {
+            return PriceHistory.EMPTY.append(purchaseDate == null ? 0 : purchaseDate.getTime(), priceCents);
+        }
+        return priceHistory;
+    }
+
+    /**
+     * @return The recorded price history in its compact encoding, or null if no price change was
+     * recorded yet.
+     */
+    @PropertyName("priceHistory")
+    public Blob getPriceHistoryBlob() {
+        return priceHistory.isEmpty() ? null : Blob.fromBytes(priceHistory.toBytes());
+    }
+
+    @PropertyName("priceHistory")
+    public void setPriceHistoryBlob(Blob blob) {
+        try {
+            priceHistory = blob == null ? PriceHistory.EMPTY : PriceHistory.fromBytes(blob.toBytes());
+        } catch (IllegalArgumentException e) {
+            // An unreadable history must not keep the item from loading
+            priceHistory = PriceHistory.EMPTY;
+        }
     }
 
     public String getComment() {
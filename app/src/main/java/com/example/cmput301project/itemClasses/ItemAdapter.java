@@ -1,93 +1,470 @@
 /**
- * Custom ArrayAdapter for managing the display of Item objects in a ListView.
- * This adapter handles the visualization of item data, including name, date, cost,
- * description, serial number, model, make, comment, and tags. It provides a custom
- * view for each item in the associated ListView, allowing the user to interact with
- * and manipulate individual items. The adapter supports the selection of items through
- * checkboxes, enabling batch operations. It also integrates buttons for editing and
- * viewing item details directly from the displayed list. The deletion of selected items
- * is facilitated through the 'deleteSelectedItems' method. The class ensures proper
- * handling of item data and user interactions within the context of a ListView.
+ * RecyclerView adapter for managing the display of Item objects in the items list.
+ * Each row shows the name, purchase date and value of an item, a checkbox for selecting it
+ * for batch operations, and buttons for editing and viewing the item's details. A new search
+ * result is compared with the shown one by an AsyncListDiffer on a background thread, matching
+ * items by their UniqueId and comparing the displayed fields, so only rows that were inserted,
+ * removed, moved or changed are rebound. Once the result is shown, the adapter shows the
+ * SortedItemList itself and is its Callback: live changes notify the exact rows the list reports,
+ * without copying or comparing the list again.
+ * Binding a row only assigns prepared values: each ViewHolder looks up its views and sets its
+ * click listeners once, and the formatted date and value of recently shown items are cached until
+ * the item's date or value changes. Rows have stable ids derived from the UniqueId of their item,
+ * so views are reused for the same item across updates and moves are animated as moves.
+ * Selected items are kept in an ItemSelection by their UniqueId, so the selection survives
+ * snapshots that replace the item objects.
+ * Rows show a thumbnail of the item's first photo, loaded by Glide straight from its Firebase
+ * Storage reference and decoded at the thumbnail's size rather than at full resolution. Once the
+ * adapter is attached to its RecyclerView, the thumbnails of the rows about to scroll into view are
+ * preloaded at that same size, and image requests are paused while the list is flung.
+ * The deletion of selected items is facilitated through the 'deleteSelectedItems' method.
  */
 
 
 package com.example.cmput301project.itemClasses;
 
 import android.content.Context;
+import android.util.LruCache;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.CheckBox;
+import android.widget.ImageView;
 import android.widget.TextView;
-import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
 import com.example.cmput301project.Database;
+import com.example.cmput301project.FrameMonitor;
+import com.example.cmput301project.ItemStore;
 import com.example.cmput301project.R;
 import com.example.cmput301project.activities.MainActivity;
+import com.example.cmput301project.search.SortedItemList;
+import com.google.firebase.storage.StorageReference;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.Set;
+import java.util.Objects;
+
+public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ViewHolder>
+        implements SortedItemList.Callback, ListPreloader.PreloadModelProvider<StorageReference> {
+
+    /**
+     * Number of items whose formatted texts are kept, a few screens' worth, so the cache stays the
+     * same size however many items there are.
+     */
+    private static final int DISPLAY_TEXT_CACHE_SIZE = 256;
+
+    /**
+     * Number of rows ahead of the scroll position whose thumbnails are preloaded.
+     */
+    private static final int THUMBNAIL_PRELOAD_ROWS = 10;
+
+    /**
+     * Matches items by their UniqueId, and considers a row unchanged if the fields it displays are.
+     */
+    private static final DiffUtil.ItemCallback<Item> DIFF_CALLBACK = new DiffUtil.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return Objects.equals(oldItem.getUniqueId(), newItem.getUniqueId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getPurchaseDate(), newItem.getPurchaseDate())
+                    && oldItem.getPriceCents() == newItem.getPriceCents()
+                    && Objects.equals(thumbnailName(oldItem), thumbnailName(newItem));
+        }
+    };
 
-public class ItemAdapter extends ArrayAdapter<Item> {
-    private ArrayList<Item> items;
     private Context context;
-    private Set<Item> selectedItems;
+    private final AsyncDifferConfig<Item> differConfig;
+    private final AdapterListUpdateCallback rowUpdates;
+    // Set while a new differ is given the shown rows, which are already drawn
+    private boolean seedingDiffer;
+    private AsyncListDiffer<Item> differ;
+    // The list whose changes the rows follow, or null while the rows show the differ's list
+    private SortedItemList liveItems;
+    private int resultGeneration;
+    private ItemSelection selection;
+    private final DateFormat dateFormat;
+    // Keyed by identity, as Item does not override equals
+    private final LruCache<Item, DisplayText> displayTexts;
+    private final RequestManager glide;
+    private final int thumbnailSize;
+    // Shared by rows and the preloader, so preloaded thumbnails are the ones rows ask for
+    private final RequestOptions thumbnailOptions;
+    private FrameMonitor frameMonitor;
 
-    public ItemAdapter(Context context, ArrayList<Item> items) {
-        super(context, 0, items);
-        this.items = items;
+    public ItemAdapter(Context context) {
         this.context = context;
-        this.selectedItems = new HashSet<>();
+        this.differConfig = new AsyncDifferConfig.Builder<>(DIFF_CALLBACK).build();
+        this.rowUpdates = new AdapterListUpdateCallback(this);
+        this.differ = newDiffer(Collections.<Item>emptyList());
+        this.selection = new ItemSelection();
+        this.dateFormat = new SimpleDateFormat("MM/dd/yyyy");
+        this.displayTexts = new LruCache<>(DISPLAY_TEXT_CACHE_SIZE);
+        this.glide = Glide.with(context);
+        this.thumbnailSize = context.getResources().getDimensionPixelSize(R.dimen.item_thumbnail_size);
+        // Caching the original as well lets the item's detail view reuse the download
+        this.thumbnailOptions = new RequestOptions()
+                .override(thumbnailSize)
+                .centerCrop()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .diskCacheStrategy(DiskCacheStrategy.ALL);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Stops the rows from following the list they show and keeps them as they are. Must be called
+     * before that list is replaced, so the next result is diffed against the rows actually shown.
+     */
+    public void freezeRows() {
+        if (liveItems != null) {
+            differ = newDiffer(new ArrayList<>(liveItems));
+            liveItems = null;
+        }
+    }
+
+    /**
+     * Shows a new result. A copy of the items is compared with the shown rows on a background
+     * thread; once it is committed, the rows follow the list's own changes through the Callback.
+     * Changes made to the list before then are not followed, so the list has to be shown again
+     * if it changes while {@link #isFollowing} is false.
+     *
+     * @param items          The items to show, which report their changes to this adapter.
+     * @param commitCallback Run once the result is shown, unless another result replaces it first.
+     */
+    public void showResult(SortedItemList items, @Nullable Runnable commitCallback) {
+        freezeRows();
+        int generation = ++resultGeneration;
+        differ.submitList(new ArrayList<>(items), () -> {
+            if (generation == resultGeneration) {
+                liveItems = items;
+            }
+            if (commitCallback != null) {
+                commitCallback.run();
+            }
+        });
+    }
+
+    /**
+     * @param items A list of items.
+     * @return True if the rows follow the changes of the list, false if its last result is still
+     * being diffed.
+     */
+    public boolean isFollowing(SortedItemList items) {
+        return liveItems == items;
+    }
+
+    /**
+     * Creates a differ whose current list is the given rows, without notifying them again. A
+     * differ's first list is taken as is, and only later lists are diffed.
+     */
+    private AsyncListDiffer<Item> newDiffer(List<Item> shown) {
+        AsyncListDiffer<Item> newDiffer = new AsyncListDiffer<>(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                if (!seedingDiffer) {
+                    rowUpdates.onInserted(position, count);
+                }
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                rowUpdates.onRemoved(position, count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                rowUpdates.onMoved(fromPosition, toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, @Nullable Object payload) {
+                rowUpdates.onChanged(position, count, payload);
+            }
+        }, differConfig);
+        seedingDiffer = true;
+        newDiffer.submitList(shown);
+        seedingDiffer = false;
+        return newDiffer;
+    }
+
+    @Override
+    public void onInserted(int position) {
+        if (liveItems != null) {
+            notifyItemInserted(position);
+        }
+    }
+
+    @Override
+    public void onRemoved(int position) {
+        if (liveItems != null) {
+            notifyItemRemoved(position);
+        }
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        if (liveItems != null) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+    }
+
+    @Override
+    public void onChanged(int position) {
+        if (liveItems != null) {
+            notifyItemChanged(position);
+        }
+    }
+
+    /**
+     * @return The items the rows show.
+     */
+    private List<Item> shownItems() {
+        return liveItems != null ? liveItems : differ.getCurrentList();
+    }
+
+    private Item getItem(int position) {
+        return shownItems().get(position);
     }
 
-    @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        View view = convertView;
+    public int getItemCount() {
+        return shownItems().size();
+    }
 
-        if (view == null) {
-            view = LayoutInflater.from(context).inflate(R.layout.item_content, parent, false);
+    /**
+     * The formatted date and value of an item, with the values they were formatted from.
+     */
+    private static class DisplayText {
+        final Long time;
+        final long cents;
+        final String dateText;
+        final String valueText;
+
+        DisplayText(Date date, long cents, String dateText, String valueText) {
+            this.time = time(date);
+            this.cents = cents;
+            this.dateText = dateText;
+            this.valueText = valueText;
         }
 
-        Item item = items.get(position);
+        boolean isFor(Item item) {
+            return Objects.equals(time, time(item.getPurchaseDate())) && cents == item.getPriceCents();
+        }
+
+        // Dates are mutable, so the time is kept rather than the Date itself
+        private static Long time(Date date) {
+            return date == null ? null : date.getTime();
+        }
+    }
+
+    /**
+     * Holds the views of one row of the items list.
+     */
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        private final TextView itemName;
+        private final TextView itemDate;
+        private final TextView itemCost;
+        private final CheckBox checkBox;
+        private final ImageView thumbnail;
+        private final Button editButton;
+        private final Button viewButton;
+
+        public ViewHolder(@NonNull View view) {
+            super(view);
+            itemName = view.findViewById(R.id.item_name);
+            itemDate = view.findViewById(R.id.item_date);
+            itemCost = view.findViewById(R.id.item_cost);
+            checkBox = view.findViewById(R.id.checkbox);
+            thumbnail = view.findViewById(R.id.item_thumbnail);
+            editButton = view.findViewById(R.id.edit_item_button);
+            viewButton = view.findViewById(R.id.view_item_button);
+        }
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_content, parent, false);
+        ViewHolder holder = new ViewHolder(view);
+
+        // The listeners look up the item of the row when clicked, so they survive rebinding
+        holder.checkBox.setOnClickListener(v -> {
+            Item item = itemAt(holder);
+            if (item == null) {
+                return;
+            }
+            selection.setSelected(item, holder.checkBox.isChecked());
+            ((MainActivity) context).onSelectionChanged();
+        });
+        holder.editButton.setOnClickListener(v -> {
+            Item item = itemAt(holder);
+            if (item != null) {
+                ((MainActivity) context).editItem(item);
+            }
+        });
+        holder.viewButton.setOnClickListener(v -> {
+            Item item = itemAt(holder);
+            if (item != null) {
+                ((MainActivity) context).viewItem(item);
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        long start = System.nanoTime();
+        Item item = getItem(position);
+        DisplayText text = displayText(item);
 
         //sets display data of items displayed in the items list (without comment)
-        TextView itemName = view.findViewById(R.id.item_name);
-        TextView itemMonth = view.findViewById(R.id.item_date);
-        TextView itemCharge = view.findViewById(R.id.item_cost);
-
-        itemName.setText(item.getName());
-        DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
-        String newDateString = df.format(item.getPurchaseDate());
-        itemMonth.setText(newDateString);
-        itemCharge.setText("$" + String.format("%.2f", item.getValue()));
-
-        CheckBox checkBox = view.findViewById(R.id.checkbox); // Assuming checkbox ID is 'checkbox' in your item_content.xml
-        checkBox.setChecked(selectedItems.contains(item));
-        checkBox.setOnClickListener(v -> {
-            if (checkBox.isChecked()) {
-                selectedItems.add(item);
-            } else {
-                selectedItems.remove(item);
+        holder.itemName.setText(item.getName());
+        holder.itemDate.setText(text.dateText);
+        holder.itemCost.setText(text.valueText);
+        holder.checkBox.setChecked(selection.isSelected(item));
+
+        StorageReference photo = thumbnailOf(item);
+        if (photo == null) {
+            glide.clear(holder.thumbnail);
+            holder.thumbnail.setImageDrawable(null);
+        } else {
+            thumbnailRequest(photo).into(holder.thumbnail);
+        }
+        if (frameMonitor != null) {
+            frameMonitor.record(FrameMonitor.State.BINDING, start);
+        }
+    }
+
+    /**
+     * Tags the frames in which rows are bound, so their cost shows in the frame statistics.
+     *
+     * @param frameMonitor The monitor of the activity showing the list, or null.
+     */
+    public void setFrameMonitor(FrameMonitor frameMonitor) {
+        this.frameMonitor = frameMonitor;
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        // Release the thumbnail's bitmap to Glide's pool as soon as the row is off screen
+        glide.clear(holder.thumbnail);
+    }
+
+    /**
+     * Preloads the thumbnails of the rows ahead of the scroll position, and pauses image requests
+     * while the list is flung so rows passing by do not start downloads and decodes they will
+     * not be shown for. Requests resume as soon as the list is dragged or comes to rest.
+     *
+     * @param recyclerView The RecyclerView this adapter is set on.
+     */
+    public void loadThumbnailsFor(RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(glide, this,
+                new FixedPreloadSizeProvider<StorageReference>(thumbnailSize, thumbnailSize),
+                THUMBNAIL_PRELOAD_ROWS));
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView view, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_SETTLING) {
+                    glide.pauseRequests();
+                } else {
+                    glide.resumeRequests();
+                }
             }
         });
+    }
+
+    @NonNull
+    @Override
+    public List<StorageReference> getPreloadItems(int position) {
+        if (position >= getItemCount()) {
+            return Collections.emptyList();
+        }
+        StorageReference photo = thumbnailOf(getItem(position));
+        return photo == null ? Collections.<StorageReference>emptyList() : Collections.singletonList(photo);
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull StorageReference photo) {
+        return thumbnailRequest(photo);
+    }
+
+    /**
+     * @return The name of the item's first photo, or null if it has none.
+     */
+    private static String thumbnailName(Item item) {
+        List<Photograph> photos = item.getPhotographs();
+        return photos == null || photos.isEmpty() ? null : photos.get(0).getName();
+    }
+
+    /**
+     * @return The storage reference of the item's first photo, or null if it has none.
+     */
+    private static StorageReference thumbnailOf(Item item) {
+        String name = thumbnailName(item);
+        return name == null ? null : Database.getInstance().getImageForGlide(name);
+    }
 
-        Button editButton = view.findViewById(R.id.edit_item_button);
-        Button viewButton = view.findViewById(R.id.view_item_button);
+    private RequestBuilder<?> thumbnailRequest(StorageReference photo) {
+        return glide.load(photo).apply(thumbnailOptions);
+    }
 
-        editButton.setOnClickListener(v -> ((MainActivity) context).editItem(item));
-        viewButton.setOnClickListener(v -> ((MainActivity) context).viewItem(item));
+    @Override
+    public long getItemId(int position) {
+        UniqueId id = getItem(position).getUniqueId();
+        return id == null ? RecyclerView.NO_ID : id.toLong();
+    }
+
+    /**
+     * @return The item shown by a row, or null if the row is being removed.
+     */
+    private Item itemAt(ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : getItem(position);
+    }
 
-        return view;
+    /**
+     * Returns the formatted date and value of an item, formatting them only if the item is new or
+     * its date or value changed since.
+     */
+    private DisplayText displayText(Item item) {
+        DisplayText text = displayTexts.get(item);
+        if (text == null || !text.isFor(item)) {
+            Date date = item.getPurchaseDate();
+            long cents = item.getPriceCents();
+            text = new DisplayText(date, cents,
+                    date == null ? "" : dateFormat.format(date),
+                    "$" + Money.format(cents));
+            displayTexts.put(item, text);
+        }
+        return text;
     }
 
     /**
@@ -95,14 +472,48 @@ public class ItemAdapter extends ArrayAdapter<Item> {
      */
     public void deleteSelectedItems() {
         Database db = Database.getInstance(); //hack: remove
-        for (Item item : selectedItems) {
+        for (Item item : getSelectedItems()) {
             db.deleteItem(item);
         }
-        selectedItems.clear();
+        clearSelectedItems();
+    }
+
+    /**
+     * Lists the selected items. They are looked up among all items of the user once those have
+     * been loaded, and among the shown items before that.
+     *
+     * @return The selected items.
+     */
+    public List<Item> getSelectedItems() {
+        ItemStore store = ItemStore.getInstance();
+        Collection<Item> items = store.isLoaded() ? store.getItems() : shownItems();
+        return selection.selectedFrom(items);
+    }
+
+    /**
+     * @return True if nothing is selected.
+     */
+    public boolean isSelectionEmpty() {
+        return selection.getSelectedCount() == 0;
     }
 
-    public Set<Item> getSelectedItems() {
-        return selectedItems;
+    /**
+     * Selects every item in a scope, such as all items or those matching the current search, in
+     * constant time. Only the shown rows are redrawn.
+     *
+     * @param scope The items to select.
+     */
+    public void selectMatching(ItemSelection.Scope scope) {
+        selection.selectMatching(scope);
+        notifyItemRangeChanged(0, getItemCount());
+        ((MainActivity) context).onSelectionChanged();
+    }
+
+    /**
+     * @return The selection, which also keeps the number and total value of the selected items.
+     */
+    public ItemSelection getSelection() {
+        return selection;
     }
 
 
@@ -111,8 +522,9 @@ public class ItemAdapter extends ArrayAdapter<Item> {
      * This method empties the set of selected items, ensuring no items are marked as selected.
      */
     public void clearSelectedItems() {
-        selectedItems.clear();
-        notifyDataSetChanged();  // Notifying the adapter to refresh the list view
+        selection.clear();
+        notifyItemRangeChanged(0, getItemCount());  // Refresh the checkboxes of the shown rows
+        ((MainActivity) context).onSelectionChanged();
     }
 
 }
@@ -14,6 +14,7 @@ package com.example.cmput301project.itemClasses;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Objects;
 /**
  * Filter object designed to specify criteria for item filtering.
  * The filter stores attributes such as date range, keywords, and makes,
@@ -174,4 +175,34 @@ public class ItemFilter {
      * @return True if any criteria are set, false if the filter is empty.
      */
     public boolean isFilterActive() {return isFilterDate() || isFilterKeywords() || isFilterMakes() || isFilterTag();}
+
+    /**
+     * Compares two filters by their criteria, so equal filters can share cached results.
+     *
+     * @param o The object to compare with.
+     * @return True if the other object is a filter with the same criteria.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ItemFilter)) {
+            return false;
+        }
+        ItemFilter other = (ItemFilter) o;
+        return Objects.equals(from, other.from)
+                && Objects.equals(to, other.to)
+                && keywords.equals(other.keywords)
+                && Objects.equals(make, other.make)
+                && Objects.equals(tag, other.tag);
+    }
+
+    /**
+     * @return A hash code consistent with equals().
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, keywords, make, tag);
+    }
 }
\ No newline at end of file
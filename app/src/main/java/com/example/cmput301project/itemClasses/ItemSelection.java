@@ -0,0 +1,230 @@
+/**
+ * The items selected for batch operations, identified by UniqueId so that the selection survives
+ * snapshots that replace the item objects. A selection is a scope, which is nothing, everything,
+ * or the items matching a filter, plus the ids the user toggled against that scope. Selecting
+ * all or all matching items therefore only replaces the scope and takes constant time however
+ * many items there are; the selected items are only listed when an operation needs them.
+ * <p>
+ * The number and total value of the selected items are kept as well, without going through the
+ * items: the totals of the scope are supplied by whoever counts its items, and each toggled id
+ * remembers the value it was toggled with, so the totals follow toggles and item changes exactly.
+ */
+
+package com.example.cmput301project.itemClasses;
+
+import com.example.cmput301project.ItemChangeListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ItemSelection implements ItemChangeListener {
+
+    /**
+     * Decides which items a select all covers.
+     */
+    public interface Scope {
+        /**
+         * @param item An item.
+         * @return True if the item is in the scope.
+         */
+        boolean contains(Item item);
+    }
+
+    /**
+     * The scope of select all without a filter.
+     */
+    public static final Scope ALL = new Scope() {
+        @Override
+        public boolean contains(Item item) {
+            return true;
+        }
+    };
+
+    private Scope scope;
+    // Each toggled id carries its value in cents, complemented if the item was in the scope
+    private UniqueIdSet toggled;
+    private int scopeCount;
+    private long scopeCents;
+    private int toggledCount;
+    private long toggledCents;
+
+    /**
+     * Constructs an empty selection.
+     */
+    public ItemSelection() {
+        scope = null;
+        resetCounts();
+    }
+
+    /**
+     * @param item An item.
+     * @return True if the item is selected.
+     */
+    public boolean isSelected(Item item) {
+        boolean inScope = scope != null && scope.contains(item);
+        return inScope != toggled.contains(item.getUniqueId());
+    }
+
+    /**
+     * Selects or deselects a single item.
+     *
+     * @param item     The item.
+     * @param selected True to select the item, false to deselect it.
+     */
+    public void setSelected(Item item, boolean selected) {
+        if (isSelected(item) == selected) {
+            return;
+        }
+        if (toggled.contains(item.getUniqueId())) {
+            untoggle(item.getUniqueId());
+        } else {
+            toggle(item);
+        }
+    }
+
+    /**
+     * Selects every item.
+     */
+    public void selectAll() {
+        selectMatching(ALL);
+    }
+
+    /**
+     * Selects exactly the items in a scope, such as those matching the current search. The scope
+     * is evaluated whenever the selection is checked.
+     *
+     * @param scope The items to select.
+     */
+    public void selectMatching(Scope scope) {
+        this.scope = scope;
+        resetCounts();
+    }
+
+    /**
+     * Deselects every item.
+     */
+    public void clear() {
+        scope = null;
+        resetCounts();
+    }
+
+    /**
+     * @return The scope of select all, or null if nothing was selected that way.
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Sets the number and total value of the items in the scope, as counted elsewhere. Called
+     * whenever the items in the scope change.
+     *
+     * @param count      The number of items in the scope.
+     * @param totalCents Their total value in cents.
+     */
+    public void setScopeTotals(int count, long totalCents) {
+        scopeCount = count;
+        scopeCents = totalCents;
+    }
+
+    /**
+     * @return The number of selected items.
+     */
+    public int getSelectedCount() {
+        return (scope == null ? 0 : scopeCount) + toggledCount;
+    }
+
+    /**
+     * @return The total value of the selected items in cents.
+     */
+    public long getSelectedCents() {
+        return (scope == null ? 0 : scopeCents) + toggledCents;
+    }
+
+    @Override
+    public void onItemAdded(Item item) {
+    }
+
+    /**
+     * Keeps a toggled item selected or deselected as it was, recounting it with its new value. If
+     * the item moved into or out of the scope, the scope alone may now give it that state, and
+     * then it is no longer toggled.
+     */
+    @Override
+    public void onItemChanged(Item oldItem, Item newItem) {
+        UniqueId id = newItem.getUniqueId();
+        if (id == null || !toggled.contains(id)) {
+            return;
+        }
+        boolean selected = isSelected(oldItem);
+        untoggle(id);
+        boolean inScope = scope != null && scope.contains(newItem);
+        if (inScope != selected) {
+            toggle(newItem);
+        }
+    }
+
+    @Override
+    public void onItemRemoved(Item item) {
+        if (item.getUniqueId() != null && toggled.contains(item.getUniqueId())) {
+            untoggle(item.getUniqueId());
+        }
+    }
+
+    /**
+     * @return True if no item can be selected, without looking at any items.
+     */
+    public boolean isEmpty() {
+        return scope == null && toggled.isEmpty();
+    }
+
+    /**
+     * Lists the selected items among the given ones.
+     *
+     * @param items The items to choose from.
+     * @return The selected items, in the order of the given ones.
+     */
+    public List<Item> selectedFrom(Collection<Item> items) {
+        ArrayList<Item> selected = new ArrayList<>();
+        for (Item item : items) {
+            if (isSelected(item)) {
+                selected.add(item);
+            }
+        }
+        return selected;
+    }
+
+    private void toggle(Item item) {
+        boolean inScope = scope != null && scope.contains(item);
+        // Prices are never negative, so the complement marks an item of the scope
+        long cents = item.getPriceCents();
+        long counted = inScope ? ~cents : cents;
+        toggled.put(item.getUniqueId(), counted);
+        count(counted, 1);
+    }
+
+    private void untoggle(UniqueId id) {
+        count(toggled.getValue(id), -1);
+        toggled.remove(id);
+    }
+
+    /**
+     * Adds the effect of a toggle on the totals, or takes it away for a sign of -1. Toggling an
+     * item of the scope deselects it, and toggling any other item selects it.
+     */
+    private void count(long counted, int sign) {
+        int direction = counted < 0 ? -sign : sign;
+        long cents = counted < 0 ? ~counted : counted;
+        toggledCount += direction;
+        toggledCents += direction * cents;
+    }
+
+    private void resetCounts() {
+        toggled = new UniqueIdSet();
+        scopeCount = 0;
+        scopeCents = 0;
+        toggledCount = 0;
+        toggledCents = 0;
+    }
+}
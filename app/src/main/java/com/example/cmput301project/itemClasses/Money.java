@@ -0,0 +1,102 @@
+/**
+ * Conversions between amounts of money in whole cents, as items store them, and the text and
+ * dollar amounts they are shown, entered and were once stored as. Cents are exact, so totals and
+ * comparisons never drift; dollars only appear at the edges, in formatting and for documents
+ * written before prices were stored in cents.
+ */
+
+package com.example.cmput301project.itemClasses;
+
+import java.util.Locale;
+
+public final class Money {
+
+    /**
+     * Returned by parse for text that is not an amount.
+     */
+    public static final long INVALID = -1;
+
+    /**
+     * Longest whole dollar part accepted, so that any parsed amount fits in a long of cents.
+     */
+    private static final int MAX_DOLLAR_DIGITS = 15;
+
+    private Money() {
+    }
+
+    /**
+     * Parses an amount such as "12", "12.5" or "12.50" in a single pass, without going through a
+     * double. The dollars are digits without leading zeros, or a single zero, optionally followed
+     * by a point and at most two digits of cents.
+     *
+     * @param text The text to parse, may be null.
+     * @return The amount in cents, or INVALID if the text is not an amount.
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        int length = text.length();
+        int i = 0;
+        long dollars = 0;
+        while (i < length && isDigit(text.charAt(i))) {
+            if (i == MAX_DOLLAR_DIGITS || (i == 1 && dollars == 0)) {
+                return INVALID;
+            }
+            dollars = dollars * 10 + (text.charAt(i) - '0');
+            i++;
+        }
+        if (i == 0) {
+            return INVALID;
+        }
+        long cents = 0;
+        if (i < length) {
+            if (text.charAt(i) != '.' || length - i - 1 > 2) {
+                return INVALID;
+            }
+            for (int digit = 1; digit <= 2; digit++) {
+                cents *= 10;
+                if (i + digit < length) {
+                    char c = text.charAt(i + digit);
+                    if (!isDigit(c)) {
+                        return INVALID;
+                    }
+                    cents += c - '0';
+                }
+            }
+        }
+        return dollars * 100 + cents;
+    }
+
+    /**
+     * @param cents An amount in cents.
+     * @return The amount with two decimals and no currency symbol, such as "1234.50".
+     */
+    public static String format(long cents) {
+        String sign = cents < 0 ? "-" : "";
+        long abs = Math.abs(cents);
+        return String.format(Locale.US, "%s%d.%02d", sign, abs / 100, abs % 100);
+    }
+
+    /**
+     * Converts an amount in dollars, as documents stored it before prices were kept in cents.
+     *
+     * @param dollars The amount in dollars.
+     * @return The amount rounded to whole cents.
+     */
+    public static long fromDollars(double dollars) {
+        return Math.round(dollars * 100);
+    }
+
+    /**
+     * @param cents An amount in cents.
+     * @return The closest amount in dollars, for readers that still expect dollars.
+     */
+    public static double toDollars(long cents) {
+        return cents / 100.0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,344 @@
+/**
+ * The prices an item has had over time, as an append-only series of (time, cents) entries in time
+ * order. The series is stored compactly as bytes: entries are grouped in blocks of up to
+ * BLOCK_SIZE, and each block holds its first entry in full followed by the differences to the
+ * previous entry, all as variable-length integers, so a typical entry takes three to five bytes.
+ * Every block starts with its entry count and byte length, which gives an index of the blocks'
+ * first times without decoding them; a range query decodes only the blocks that overlap it.
+ * <p>
+ * Histories are immutable. Appending returns a new history and leaves the old one as it was, so a
+ * history can be kept as the version that was counted while the item moves on.
+ */
+
+package com.example.cmput301project.itemClasses;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+public final class PriceHistory {
+
+    private static final byte FORMAT = 1;
+
+    /**
+     * The history without entries.
+     */
+    public static final PriceHistory EMPTY = new PriceHistory(new byte[]{FORMAT}, 0, new long[0], new int[0], 0, 0);
+
+    /**
+     * Number of entries per block. Appending re-encodes at most one block of this size.
+     */
+    static final int BLOCK_SIZE = 16;
+
+    /**
+     * A series of prices at points in time, in time order.
+     */
+    public static class Points {
+        private long[] times;
+        private long[] cents;
+        private int size;
+
+        /**
+         * Constructs an empty series.
+         */
+        public Points() {
+            times = new long[8];
+            cents = new long[8];
+        }
+
+        /**
+         * Adds a point after the existing ones.
+         *
+         * @param time   The time in epoch milliseconds.
+         * @param amount The amount in cents.
+         */
+        public void add(long time, long amount) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                cents = Arrays.copyOf(cents, size * 2);
+            }
+            times[size] = time;
+            cents[size] = amount;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param index The index of a point.
+         * @return Its time in epoch milliseconds.
+         */
+        public long getTime(int index) {
+            return times[index];
+        }
+
+        /**
+         * @param index The index of a point.
+         * @return Its amount in cents.
+         */
+        public long getCents(int index) {
+            return cents[index];
+        }
+    }
+
+    private final byte[] bytes;
+    private final int size;
+    private final long[] blockTimes;
+    private final int[] blockOffsets;
+    private final long lastTime;
+    private final long lastCents;
+
+    private PriceHistory(byte[] bytes, int size, long[] blockTimes, int[] blockOffsets, long lastTime, long lastCents) {
+        this.bytes = bytes;
+        this.size = size;
+        this.blockTimes = blockTimes;
+        this.blockOffsets = blockOffsets;
+        this.lastTime = lastTime;
+        this.lastCents = lastCents;
+    }
+
+    /**
+     * Reads a history written by toBytes.
+     *
+     * @param bytes The encoded history.
+     * @return The history.
+     * @throws IllegalArgumentException If the bytes are not an encoded history.
+     */
+    public static PriceHistory fromBytes(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != FORMAT) {
+            throw new IllegalArgumentException("Unknown price history format");
+        }
+        Reader reader = new Reader(bytes, 1);
+        int size = 0;
+        int blocks = 0;
+        long[] blockTimes = new long[4];
+        int[] blockOffsets = new int[4];
+        while (reader.position < bytes.length) {
+            if (blocks == blockTimes.length) {
+                blockTimes = Arrays.copyOf(blockTimes, blocks * 2);
+                blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+            }
+            blockOffsets[blocks] = reader.position;
+            int count = (int) reader.readVarint();
+            int length = (int) reader.readVarint();
+            int end = reader.position + length;
+            if (count <= 0 || count > BLOCK_SIZE || end > bytes.length) {
+                throw new IllegalArgumentException("Corrupt price history");
+            }
+            blockTimes[blocks++] = reader.readSigned();
+            size += count;
+            reader.position = end;
+        }
+        Points last = new Points();
+        if (blocks > 0) {
+            decodeBlock(bytes, blockOffsets[blocks - 1], last);
+        }
+        return new PriceHistory(bytes, size, Arrays.copyOf(blockTimes, blocks), Arrays.copyOf(blockOffsets, blocks),
+                blocks > 0 ? last.getTime(last.size() - 1) : 0, blocks > 0 ? last.getCents(last.size() - 1) : 0);
+    }
+
+    /**
+     * @return The encoded history, for storage. The array must not be modified.
+     */
+    public byte[] toBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The time of the latest entry in epoch milliseconds, or 0 if there is none.
+     */
+    public long getLastTime() {
+        return lastTime;
+    }
+
+    /**
+     * @return The latest price in cents, or 0 if there is none.
+     */
+    public long getLastCents() {
+        return lastCents;
+    }
+
+    /**
+     * Records a price. Re-encodes only the last block, so it costs constant time besides copying
+     * the bytes.
+     *
+     * @param time  The time of the change in epoch milliseconds. Times before the latest entry
+     *              are moved up to it, so the history stays in order.
+     * @param cents The new price in cents.
+     * @return The history with the price appended, or this history if the price is unchanged.
+     */
+    public PriceHistory append(long time, long cents) {
+        if (size > 0 && cents == lastCents) {
+            return this;
+        }
+        time = size > 0 ? Math.max(time, lastTime) : time;
+        int blocks = blockOffsets.length;
+        Points entries = new Points();
+        if (blocks > 0) {
+            decodeBlock(bytes, blockOffsets[blocks - 1], entries);
+        }
+        int offset;
+        long[] newTimes;
+        int[] newOffsets;
+        if (blocks > 0 && entries.size() < BLOCK_SIZE) {
+            offset = blockOffsets[blocks - 1];
+            newTimes = blockTimes;
+            newOffsets = blockOffsets;
+        } else {
+            entries.size = 0;
+            offset = bytes.length;
+            newTimes = Arrays.copyOf(blockTimes, blocks + 1);
+            newOffsets = Arrays.copyOf(blockOffsets, blocks + 1);
+            newTimes[blocks] = time;
+            newOffsets[blocks] = offset;
+        }
+        entries.add(time, cents);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(offset + 8 * entries.size() + 4);
+        out.write(bytes, 0, offset);
+        encodeBlock(entries, out);
+        return new PriceHistory(out.toByteArray(), size + 1, newTimes, newOffsets, time, cents);
+    }
+
+    /**
+     * Finds the prices in a time range, decoding only the blocks that overlap it.
+     *
+     * @param from The start of the range in epoch milliseconds.
+     * @param to   The end of the range in epoch milliseconds, inclusive.
+     * @return The price at the start of the range, as a point at time from, if the history began
+     * before it, followed by the entries within the range.
+     */
+    public Points between(long from, long to) {
+        Points points = new Points();
+        if (size == 0 || from > to) {
+            return points;
+        }
+        // The last entry before from is in the last block that starts before it
+        int low = 0;
+        int high = blockTimes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockTimes[mid] < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        Points entries = new Points();
+        boolean before = false;
+        long beforeCents = 0;
+        for (int block = Math.max(0, low - 1); block < blockOffsets.length && blockTimes[block] <= to; block++) {
+            entries.size = 0;
+            decodeBlock(bytes, blockOffsets[block], entries);
+            for (int i = 0; i < entries.size(); i++) {
+                long time = entries.getTime(i);
+                if (time < from) {
+                    before = true;
+                    beforeCents = entries.getCents(i);
+                } else if (time <= to) {
+                    if (before && points.size() == 0 && time > from) {
+                        points.add(from, beforeCents);
+                    }
+                    points.add(time, entries.getCents(i));
+                }
+            }
+        }
+        if (before && points.size() == 0) {
+            points.add(from, beforeCents);
+        }
+        return points;
+    }
+
+    /**
+     * @return Every entry, in time order.
+     */
+    public Points all() {
+        return between(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private static void encodeBlock(Points entries, ByteArrayOutputStream out) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(8 * entries.size());
+        writeSigned(body, entries.getTime(0));
+        writeSigned(body, entries.getCents(0));
+        for (int i = 1; i < entries.size(); i++) {
+            writeVarint(body, entries.getTime(i) - entries.getTime(i - 1));
+            writeSigned(body, entries.getCents(i) - entries.getCents(i - 1));
+        }
+        writeVarint(out, entries.size());
+        writeVarint(out, body.size());
+        byte[] encoded = body.toByteArray();
+        out.write(encoded, 0, encoded.length);
+    }
+
+    private static void decodeBlock(byte[] bytes, int offset, Points entries) {
+        Reader reader = new Reader(bytes, offset);
+        int count = (int) reader.readVarint();
+        reader.readVarint();
+        long time = reader.readSigned();
+        long cents = reader.readSigned();
+        entries.add(time, cents);
+        for (int i = 1; i < count; i++) {
+            time += reader.readVarint();
+            cents += reader.readSigned();
+            entries.add(time, cents);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // Zigzag encoding keeps small negative numbers short
+    private static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads variable-length integers from a position in a byte array.
+     */
+    private static class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= bytes.length) {
+                    throw new IllegalArgumentException("Corrupt price history");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Corrupt price history");
+        }
+
+        long readSigned() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -40,4 +40,35 @@ public class UniqueId {
     public void setLsb(long lsb) {
         this.lsb = lsb;
     }
+
+    /**
+     * Folds the 128 bits into a 64-bit id, such as a stable RecyclerView item id. Different ids
+     * collide with negligible probability, since random UUIDs are random in nearly all bits. The
+     * result is never -1, which RecyclerView reserves for "no id". This is deliberately not a
+     * getter, so Firestore does not store it with the item.
+     *
+     * @return A 64-bit id derived from this id.
+     */
+    public long toLong() {
+        long id = msb ^ lsb;
+        return id == -1L ? 0L : id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UniqueId)) {
+            return false;
+        }
+        UniqueId other = (UniqueId) o;
+        return msb == other.msb && lsb == other.lsb;
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = msb ^ lsb;
+        return (int) (hash ^ (hash >>> 32));
+    }
 }
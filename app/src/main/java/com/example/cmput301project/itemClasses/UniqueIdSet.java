@@ -0,0 +1,150 @@
+/**
+ * A set of UniqueIds stored as pairs of primitive longs in an open addressing hash table with
+ * linear probing. Ids are compared by value, so a set filled from one version of the items still
+ * recognizes the objects of the next snapshot. Each id can carry a long value, such as an amount
+ * attached to it. Each entry costs 25 bytes and no objects, rather than a HashMap node, a boxed
+ * key and the UniqueId it points to.
+ */
+
+package com.example.cmput301project.itemClasses;
+
+public class UniqueIdSet {
+    private long[] msbs;
+    private long[] lsbs;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Constructs an empty set.
+     */
+    public UniqueIdSet() {
+        allocate(16);
+    }
+
+    /**
+     * @param id The id to add.
+     * @return True if the id was not in the set yet.
+     */
+    public boolean add(UniqueId id) {
+        return put(id, 0L);
+    }
+
+    /**
+     * Adds an id with a value, or replaces the value of an id already in the set.
+     *
+     * @param id    The id.
+     * @param value The value attached to the id.
+     * @return True if the id was not in the set yet.
+     */
+    public boolean put(UniqueId id, long value) {
+        if (2 * (size + 1) > used.length) {
+            rehash(used.length * 2);
+        }
+        int slot = find(id.getMsb(), id.getLsb());
+        values[slot] = value;
+        if (used[slot]) {
+            return false;
+        }
+        used[slot] = true;
+        msbs[slot] = id.getMsb();
+        lsbs[slot] = id.getLsb();
+        size++;
+        return true;
+    }
+
+    /**
+     * @param id An id.
+     * @return The value attached to the id, or 0 if the id is not in the set.
+     */
+    public long getValue(UniqueId id) {
+        int slot = find(id.getMsb(), id.getLsb());
+        return used[slot] ? values[slot] : 0L;
+    }
+
+    /**
+     * Removes an id, moving later entries of its probe sequence back so that lookups never need
+     * to skip deleted slots.
+     *
+     * @param id The id to remove.
+     * @return True if the id was in the set.
+     */
+    public boolean remove(UniqueId id) {
+        int slot = find(id.getMsb(), id.getLsb());
+        if (!used[slot]) {
+            return false;
+        }
+        int mask = used.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; used[next]; next = (next + 1) & mask) {
+            int home = hash(msbs[next], lsbs[next]) & mask;
+            // Move the entry into the gap unless its home slot lies cyclically after the gap
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                msbs[gap] = msbs[next];
+                lsbs[gap] = lsbs[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        used[gap] = false;
+        size--;
+        return true;
+    }
+
+    /**
+     * @param id An id.
+     * @return True if the id is in the set.
+     */
+    public boolean contains(UniqueId id) {
+        return used[find(id.getMsb(), id.getLsb())];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The slot holding the id, or the empty slot where it would be added.
+     */
+    private int find(long msb, long lsb) {
+        int mask = used.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (used[slot] && (msbs[slot] != msb || lsbs[slot] != lsb)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = find(oldMsbs[i], oldLsbs[i]);
+                used[slot] = true;
+                msbs[slot] = oldMsbs[i];
+                lsbs[slot] = oldLsbs[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+    }
+}
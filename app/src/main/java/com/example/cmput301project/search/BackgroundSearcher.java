@@ -0,0 +1,380 @@
+/**
+ * Runs searches off the UI thread so the result list can follow every keystroke. The ItemIndex,
+ * its result cache and all queries live on a single background thread: item changes are forwarded
+ * to that thread in order, so a query always sees a consistent index without locking. Starting a
+ * new search cancels the one still queued or running, and only the result of the newest search is
+ * delivered, on the main thread, together with the facet counts of the inventory and the result.
+ * <p>
+ * Once a result has been delivered, later item changes are matched against its plan as they reach
+ * the index, and each batch is delivered as a list of ViewChanges that a SortedItemList applies in
+ * place. The search only runs again when the plan itself would change, such as for ranked fuzzy
+ * matches.
+ * <p>
+ * The scope of a "select all matching" selection can be counted as well; its counts are delivered
+ * whenever it is set and after every batch of item changes.
+ */
+
+package com.example.cmput301project.search;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import com.example.cmput301project.ItemChangeListener;
+import com.example.cmput301project.itemClasses.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+public class BackgroundSearcher implements ItemChangeListener {
+
+    /**
+     * Receives the result of a search on the main thread.
+     */
+    public interface OnResultListener {
+        /**
+         * @param result          The result of the search.
+         * @param inventoryFacets The make, tag and year counts of all items.
+         * @param viewFacets      The make, tag and year counts of the result.
+         */
+        void onResult(QueryResult result, FacetCounts inventoryFacets, FacetCounts viewFacets);
+    }
+
+    /**
+     * Receives the first items of a search on the main thread.
+     */
+    public interface OnTopListener {
+        /**
+         * @param result The first items of the sorted result.
+         */
+        void onTop(QueryResult result);
+    }
+
+    /**
+     * Receives the effect of item changes on the last delivered result, on the main thread.
+     */
+    public interface OnViewChangedListener {
+        /**
+         * Called after a batch of item changes, unless a newer search was started since the
+         * result was delivered.
+         *
+         * @param changes         The changes to the delivered result, in the order they happened.
+         * @param inventoryFacets The make, tag and year counts of all items.
+         * @param viewFacets      The make, tag and year counts of the changed result.
+         */
+        void onViewChanged(List<ViewChange> changes, FacetCounts inventoryFacets, FacetCounts viewFacets);
+
+        /**
+         * Called after a batch of item changes that the delivered result cannot follow in place, or
+         * when no result has been delivered yet. The search should be run again.
+         */
+        void onViewStale();
+    }
+
+    /**
+     * Receives the counts of the selected scope on the main thread.
+     */
+    public interface OnScopeCountedListener {
+        /**
+         * @param scopePlan   The plan of the selected scope the counts are for.
+         * @param scopeFacets The counts and total value of the items in the scope.
+         */
+        void onScopeCounted(QueryPlan scopePlan, FacetCounts scopeFacets);
+    }
+
+    private final ItemIndex index;
+    private final ItemSearcher searcher;
+    private final FacetEngine facets;
+    private final ExecutorService executor;
+    private final Handler mainHandler;
+    private Future<?> pending;
+    private int generation;
+    private OnViewChangedListener viewListener;
+    private OnScopeCountedListener scopeListener;
+
+    // Owned by the search thread: the last delivered search and the changes to it since
+    private ItemQuery liveQuery;
+    private QueryPlan livePlan;
+    private int liveGeneration = -1;
+    private ArrayList<ViewChange> viewChanges = new ArrayList<>();
+    private boolean changed;
+
+    /**
+     * Constructs a BackgroundSearcher. The index must not be used on any other thread afterwards.
+     *
+     * @param index The index to maintain and search.
+     */
+    public BackgroundSearcher(ItemIndex index) {
+        this.index = index;
+        this.searcher = new ItemSearcher(index);
+        this.facets = new FacetEngine();
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+                }, "item-search");
+            }
+        });
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    @Override
+    public void onItemAdded(final Item item) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                index.onItemAdded(item);
+                facets.onItemAdded(item);
+                recordChange(null, item);
+            }
+        });
+    }
+
+    @Override
+    public void onItemChanged(final Item oldItem, final Item newItem) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                index.onItemChanged(oldItem, newItem);
+                facets.onItemChanged(oldItem, newItem);
+                recordChange(oldItem, newItem);
+            }
+        });
+    }
+
+    @Override
+    public void onItemRemoved(final Item item) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                index.onItemRemoved(item);
+                facets.onItemRemoved(item);
+                recordChange(item, null);
+            }
+        });
+    }
+
+    @Override
+    public void onChangesApplied() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                deliverChanges();
+            }
+        });
+    }
+
+    /**
+     * @param listener Receives the effect of item changes on the delivered result. Must be set on
+     *                 the main thread.
+     */
+    public void setOnViewChangedListener(OnViewChangedListener listener) {
+        viewListener = listener;
+    }
+
+    /**
+     * Works out how an item change affects the delivered result. Runs on the search thread.
+     */
+    private void recordChange(Item oldItem, Item newItem) {
+        changed = true;
+        if (livePlan == null) {
+            return;
+        }
+        Item shown = newItem != null && livePlan.matches(newItem) ? newItem : null;
+        if (oldItem == null && shown == null) {
+            return;
+        }
+        int docId = shown == null ? -1 : index.getDocId(shown.getUniqueId());
+        viewChanges.add(new ViewChange(oldItem, shown, docId));
+    }
+
+    /**
+     * Sends the changes of a batch to the main thread. If the query would now be planned
+     * differently, or the result is ranked by similarity, the changes cannot be applied in place
+     * and a new search is requested instead. Runs on the search thread.
+     */
+    private void deliverChanges() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        deliverScope();
+        final int viewGeneration = liveGeneration;
+        final List<ViewChange> changes = viewChanges;
+        viewChanges = new ArrayList<>();
+        if (livePlan == null || livePlan.isRanked()
+                || !livePlan.getClauses().equals(QueryPlanner.plan(liveQuery, index).getClauses())) {
+            livePlan = null;
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (viewListener != null && (viewGeneration == -1 || viewGeneration == generation)) {
+                        viewListener.onViewStale();
+                    }
+                }
+            });
+            return;
+        }
+        final FacetCounts inventoryFacets = facets.getInventory().snapshot();
+        final FacetCounts viewFacets = facets.getView().snapshot();
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (viewListener != null && viewGeneration == generation) {
+                    viewListener.onViewChanged(changes, inventoryFacets, viewFacets);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends the counts of the selected scope to the main thread, if a scope is counted. Runs on
+     * the search thread.
+     */
+    private void deliverScope() {
+        final QueryPlan scopePlan = facets.getScopePlan();
+        if (scopePlan == null) {
+            return;
+        }
+        final FacetCounts scopeFacets = facets.getScope().snapshot();
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (scopeListener != null) {
+                    scopeListener.onScopeCounted(scopePlan, scopeFacets);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param listener Receives the counts of the selected scope. Must be set on the main thread.
+     */
+    public void setOnScopeCountedListener(OnScopeCountedListener listener) {
+        scopeListener = listener;
+    }
+
+    /**
+     * Starts or stops counting the items of a selected scope, such as all items matching the
+     * shown search. The counts are delivered once counted and again after every batch of item
+     * changes. Must be called on the main thread.
+     *
+     * @param plan The plan of the search whose matches are selected, or null to stop counting.
+     */
+    public void setSelectionScope(final QueryPlan plan) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                facets.setScope(plan, index);
+                deliverScope();
+            }
+        });
+    }
+
+    /**
+     * Starts a search, cancelling the previous one if it has not finished yet. Must be called on
+     * the main thread.
+     *
+     * @param query    The query.
+     * @param order    The sort order of the result.
+     * @param listener Receives the result on the main thread, unless a newer search was started.
+     */
+    public void search(final ItemQuery query, final SortOrder order, final OnResultListener listener) {
+        cancel();
+        final int searchGeneration = generation;
+        pending = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                final QueryResult result;
+                final FacetCounts inventoryFacets;
+                final FacetCounts viewFacets;
+                try {
+                    result = searcher.search(query, order);
+                    QueryPlan plan = result.getPlan();
+                    facets.setView(plan, result.getItems());
+                    liveQuery = query;
+                    livePlan = plan;
+                    liveGeneration = searchGeneration;
+                    viewChanges.clear();
+                    inventoryFacets = facets.getInventory().snapshot();
+                    viewFacets = facets.getView().snapshot();
+                } catch (CancellationException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    Log.e("Search", "Search failed: " + query, e);
+                    return;
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (searchGeneration == generation) {
+                            listener.onResult(result, inventoryFacets, viewFacets);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Finds the first items of a search in the given order, such as the most valuable items,
+     * without sorting the whole result. Unlike search(), this does not cancel or replace the
+     * current search. Must be called on the main thread.
+     *
+     * @param query    The query.
+     * @param order    The sort order.
+     * @param k        The number of items wanted.
+     * @param listener Receives the items on the main thread.
+     */
+    public void searchTop(final ItemQuery query, final SortOrder order, final int k, final OnTopListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final QueryResult result;
+                try {
+                    result = searcher.searchTop(query, order, k);
+                } catch (RuntimeException e) {
+                    Log.e("Search", "Top search failed: " + query, e);
+                    return;
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onTop(result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Cancels the current search, so its result is never delivered. Must be called on the main
+     * thread.
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Cancels the current search and stops the background thread.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
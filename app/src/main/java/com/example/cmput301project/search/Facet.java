@@ -0,0 +1,129 @@
+/**
+ * Counts how many items have each value of one attribute, such as each make. Values are grouped
+ * case-insensitively and shown with the spelling they were first seen with. Counts are adjusted one
+ * item at a time, so keeping them current costs nothing per unchanged item.
+ */
+
+package com.example.cmput301project.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+public class Facet {
+
+    /**
+     * One value of the attribute and the number of items that have it.
+     */
+    public static class Count {
+        private final String label;
+        private int count;
+
+        Count(String label, int count) {
+            this.label = label;
+            this.count = count;
+        }
+
+        /**
+         * @return The value as it was first spelled.
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private final HashMap<String, Count> counts;
+
+    /**
+     * Constructs an empty facet.
+     */
+    public Facet() {
+        counts = new HashMap<>();
+    }
+
+    /**
+     * Counts one more item with a value.
+     *
+     * @param value The value, ignored if null or blank.
+     */
+    public void add(String value) {
+        String key = TextNormalizer.normalize(value);
+        if (key.isEmpty()) {
+            return;
+        }
+        Count count = counts.get(key);
+        if (count == null) {
+            counts.put(key, new Count(value.trim(), 1));
+        } else {
+            count.count++;
+        }
+    }
+
+    /**
+     * Counts one item less with a value.
+     *
+     * @param value The value, ignored if null or blank.
+     */
+    public void remove(String value) {
+        String key = TextNormalizer.normalize(value);
+        Count count = counts.get(key);
+        if (count != null && --count.count == 0) {
+            counts.remove(key);
+        }
+    }
+
+    /**
+     * @param value A value of the attribute.
+     * @return The number of items with that value, ignoring case.
+     */
+    public int getCount(String value) {
+        Count count = counts.get(TextNormalizer.normalize(value));
+        return count == null ? 0 : count.count;
+    }
+
+    /**
+     * @return The number of distinct values.
+     */
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * @return The values with their counts, most frequent first and then alphabetically.
+     */
+    public List<Count> getCounts() {
+        ArrayList<Count> sorted = new ArrayList<>(counts.values());
+        Collections.sort(sorted, new Comparator<Count>() {
+            @Override
+            public int compare(Count a, Count b) {
+                int byCount = Integer.compare(b.count, a.count);
+                return byCount != 0 ? byCount : a.label.compareToIgnoreCase(b.label);
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * Removes all counts.
+     */
+    public void clear() {
+        counts.clear();
+    }
+
+    /**
+     * @return An independent copy of this facet.
+     */
+    public Facet copy() {
+        Facet copy = new Facet();
+        for (HashMap.Entry<String, Count> entry : counts.entrySet()) {
+            copy.counts.put(entry.getKey(), new Count(entry.getValue().label, entry.getValue().count));
+        }
+        return copy;
+    }
+}
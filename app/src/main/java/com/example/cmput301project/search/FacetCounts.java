@@ -0,0 +1,195 @@
+/**
+ * Make, tag and purchase year counts of a set of items, their total value in cents and the
+ * distribution of their values, for quantiles such as the median. Items are added and removed one
+ * at a time; an item with the same tag twice counts once for that tag. The counted values of every
+ * item are remembered, so an item is uncounted correctly even if it was modified in place since.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+import com.example.cmput301project.itemClasses.UniqueId;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+
+public class FacetCounts {
+    private final Facet makes;
+    private final Facet tags;
+    private final Facet years;
+    private final ValueSketch values;
+    private final HashMap<UniqueId, Counted> counted;
+    private final Calendar calendar;
+    private int itemCount;
+    private long totalCents;
+
+    /**
+     * Constructs empty counts.
+     */
+    public FacetCounts() {
+        this(new Facet(), new Facet(), new Facet(), new ValueSketch(), new HashMap<UniqueId, Counted>(), 0, 0);
+    }
+
+    private FacetCounts(Facet makes, Facet tags, Facet years, ValueSketch values,
+                        HashMap<UniqueId, Counted> counted, int itemCount, long totalCents) {
+        this.makes = makes;
+        this.tags = tags;
+        this.years = years;
+        this.values = values;
+        this.counted = counted;
+        this.calendar = Calendar.getInstance();
+        this.itemCount = itemCount;
+        this.totalCents = totalCents;
+    }
+
+    /**
+     * Counts an item, replacing the counts of an earlier version of it.
+     *
+     * @param item The item.
+     */
+    public void add(Item item) {
+        remove(item);
+        Counted values = new Counted(item.getMake(), distinctTags(item), year(item), item.getPriceCents());
+        counted.put(item.getUniqueId(), values);
+        itemCount++;
+        totalCents += values.cents;
+        this.values.add(values.cents);
+        makes.add(values.make);
+        for (String tag : values.tags) {
+            tags.add(tag);
+        }
+        years.add(values.year);
+    }
+
+    /**
+     * Stops counting an item, with the values it had when it was added.
+     *
+     * @param item The item.
+     * @return True if the item was counted.
+     */
+    public boolean remove(Item item) {
+        Counted values = counted.remove(item.getUniqueId());
+        if (values == null) {
+            return false;
+        }
+        itemCount--;
+        totalCents -= values.cents;
+        this.values.remove(values.cents);
+        makes.remove(values.make);
+        for (String tag : values.tags) {
+            tags.remove(tag);
+        }
+        years.remove(values.year);
+        return true;
+    }
+
+    /**
+     * @param item An item.
+     * @return True if the item is counted.
+     */
+    public boolean contains(Item item) {
+        return counted.containsKey(item.getUniqueId());
+    }
+
+    /**
+     * Removes all counts.
+     */
+    public void clear() {
+        counted.clear();
+        itemCount = 0;
+        totalCents = 0;
+        values.clear();
+        makes.clear();
+        tags.clear();
+        years.clear();
+    }
+
+    /**
+     * @return The number of counted items.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * @return The total value of the counted items in cents.
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * @return The distribution of the values of the counted items.
+     */
+    public ValueSketch getValues() {
+        return values;
+    }
+
+    public Facet getMakes() {
+        return makes;
+    }
+
+    public Facet getTags() {
+        return tags;
+    }
+
+    /**
+     * @return The counts per purchase year, with years as four digit strings.
+     */
+    public Facet getYears() {
+        return years;
+    }
+
+    /**
+     * Copies the counts for display on another thread. The copy costs time proportional to the
+     * number of distinct values and value buckets, not items, and only supports reading the
+     * counts.
+     *
+     * @return An independent copy of the counts.
+     */
+    public FacetCounts snapshot() {
+        return new FacetCounts(makes.copy(), tags.copy(), years.copy(), values.copy(),
+                new HashMap<UniqueId, Counted>(), itemCount, totalCents);
+    }
+
+    private String[] distinctTags(Item item) {
+        ArrayList<String> names = new ArrayList<>();
+        if (item.getTags() != null) {
+            HashSet<String> seen = new HashSet<>();
+            for (Tag tag : item.getTags()) {
+                if (seen.add(TextNormalizer.normalize(tag.getName()))) {
+                    names.add(tag.getName());
+                }
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private String year(Item item) {
+        if (item.getPurchaseDate() == null) {
+            return null;
+        }
+        calendar.setTime(item.getPurchaseDate());
+        return String.valueOf(calendar.get(Calendar.YEAR));
+    }
+
+    /**
+     * The values an item was counted with.
+     */
+    private static class Counted {
+        final String make;
+        final String[] tags;
+        final String year;
+        final long cents;
+
+        Counted(String make, String[] tags, String year, long cents) {
+            this.make = make;
+            this.tags = tags;
+            this.year = year;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Keeps facet counts for the whole inventory and for the items currently shown. Both are updated
+ * from item changes: a changed item is taken out of the counts with its old values and put back
+ * with its new ones, and it only counts for the shown items if it matches the current search plan.
+ * When the search itself changes, the view counts are rebuilt from the new result, which costs
+ * time proportional to the result rather than the inventory.
+ * <p>
+ * The engine also counts the scope of a "select all matching" selection, which is the view at the
+ * time it was selected. While the view stays on the same search the two share their counts. When
+ * the search changes, the old view counts are kept as the scope counts and the view is counted
+ * again, so the scope is never recounted as long as it was selected from the shown items.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.ItemChangeListener;
+import com.example.cmput301project.itemClasses.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FacetEngine implements ItemChangeListener {
+    private final FacetCounts inventory;
+    private FacetCounts view;
+    private List<QueryClause> viewClauses;
+    private QueryPlan viewPlan;
+    private FacetCounts scope;
+    private List<QueryClause> scopeClauses;
+    private QueryPlan scopePlan;
+
+    /**
+     * Constructs a FacetEngine whose view is the whole inventory.
+     */
+    public FacetEngine() {
+        inventory = new FacetCounts();
+        view = new FacetCounts();
+        viewClauses = new ArrayList<>();
+        viewPlan = null;
+    }
+
+    @Override
+    public void onItemAdded(Item item) {
+        inventory.add(item);
+        if (inView(item)) {
+            view.add(item);
+        }
+        if (hasOwnScope() && scopePlan.matches(item)) {
+            scope.add(item);
+        }
+    }
+
+    @Override
+    public void onItemChanged(Item oldItem, Item newItem) {
+        inventory.remove(oldItem);
+        inventory.add(newItem);
+        view.remove(oldItem);
+        if (inView(newItem)) {
+            view.add(newItem);
+        }
+        if (hasOwnScope()) {
+            scope.remove(oldItem);
+            if (scopePlan.matches(newItem)) {
+                scope.add(newItem);
+            }
+        }
+    }
+
+    @Override
+    public void onItemRemoved(Item item) {
+        inventory.remove(item);
+        view.remove(item);
+        if (hasOwnScope()) {
+            scope.remove(item);
+        }
+    }
+
+    /**
+     * Makes the view counts follow a new search. Nothing is recounted if the plan evaluates the
+     * same clauses as before, since the counts have been kept current through the item changes.
+     * Initially the view is the whole inventory, the same as for an empty query.
+     *
+     * @param plan   The plan of the search.
+     * @param result The items the search found.
+     */
+    public void setView(QueryPlan plan, List<Item> result) {
+        List<QueryClause> clauses = plan.getClauses();
+        if (clauses.equals(viewClauses)) {
+            viewPlan = plan;
+            return;
+        }
+        viewClauses = clauses;
+        viewPlan = plan;
+        if (scope != null && clauses.equals(scopeClauses)) {
+            // Back to the search the scope was selected from, whose counts are still current
+            view = scope;
+            return;
+        }
+        if (scope == view) {
+            // The scope keeps the counts of the view it was selected from
+            view = new FacetCounts();
+        } else {
+            view.clear();
+        }
+        for (Item item : result) {
+            view.add(item);
+        }
+    }
+
+    /**
+     * Starts or stops counting the scope of a selection. A scope selected from the current view
+     * shares its counts; any other scope is counted by going through every indexed item once.
+     *
+     * @param plan  The plan of the search whose matches are selected, or null to stop counting.
+     * @param index The index holding every item.
+     */
+    public void setScope(QueryPlan plan, ItemIndex index) {
+        if (plan == null) {
+            scope = null;
+            scopeClauses = null;
+            scopePlan = null;
+            return;
+        }
+        List<QueryClause> clauses = plan.getClauses();
+        scopePlan = plan;
+        if (clauses.equals(viewClauses)) {
+            scope = view;
+            scopeClauses = viewClauses;
+            return;
+        }
+        if (scope != null && clauses.equals(scopeClauses)) {
+            return;
+        }
+        scope = new FacetCounts();
+        scopeClauses = clauses;
+        PostingList all = index.getAll();
+        for (int i = 0; i < all.size(); i++) {
+            Item item = index.getItem(all.get(i));
+            if (plan.matches(item)) {
+                scope.add(item);
+            }
+        }
+    }
+
+    /**
+     * @return The counts of the selected scope, or null if no scope is counted.
+     */
+    public FacetCounts getScope() {
+        return scope;
+    }
+
+    /**
+     * @return The plan of the selected scope, or null if no scope is counted.
+     */
+    public QueryPlan getScopePlan() {
+        return scopePlan;
+    }
+
+    /**
+     * @return True if the scope is counted separately from the view.
+     */
+    private boolean hasOwnScope() {
+        return scope != null && scope != view;
+    }
+
+    /**
+     * @return The counts of the whole inventory.
+     */
+    public FacetCounts getInventory() {
+        return inventory;
+    }
+
+    /**
+     * @return The counts of the items matching the current search.
+     */
+    public FacetCounts getView() {
+        return view;
+    }
+
+    private boolean inView(Item item) {
+        return viewPlan == null || viewPlan.matches(item);
+    }
+}
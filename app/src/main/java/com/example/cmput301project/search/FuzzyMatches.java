@@ -0,0 +1,70 @@
+/**
+ * Result of a fuzzy lookup in a TrigramIndex: the matching document ids in ascending order, each
+ * with its similarity score.
+ */
+
+package com.example.cmput301project.search;
+
+import java.util.Arrays;
+
+public class FuzzyMatches {
+    private final int[] docIds;
+    private final double[] scores;
+    private final int size;
+
+    FuzzyMatches(int[] docIds, double[] scores, int size) {
+        this.docIds = docIds;
+        this.scores = scores;
+        this.size = size;
+    }
+
+    /**
+     * @return The matching document ids in ascending order.
+     */
+    public PostingList getDocIds() {
+        return PostingList.wrap(Arrays.copyOf(docIds, size), size);
+    }
+
+    /**
+     * @return The number of matches.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param docId A document id.
+     * @return The similarity of the document, or 0 if it did not match.
+     */
+    public double getScore(int docId) {
+        int pos = Arrays.binarySearch(docIds, 0, size, docId);
+        return pos < 0 ? 0 : scores[pos];
+    }
+
+    /**
+     * Combines the matches of several attributes, keeping the best score of every document.
+     *
+     * @param other The other matches.
+     * @return The union of both matches.
+     */
+    public FuzzyMatches merge(FuzzyMatches other) {
+        int[] ids = new int[size + other.size];
+        double[] merged = new double[size + other.size];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && docIds[i] < other.docIds[j])) {
+                ids[n] = docIds[i];
+                merged[n++] = scores[i++];
+            } else if (i >= size || other.docIds[j] < docIds[i]) {
+                ids[n] = other.docIds[j];
+                merged[n++] = other.scores[j++];
+            } else {
+                ids[n] = docIds[i];
+                merged[n++] = Math.max(scores[i++], other.scores[j++]);
+            }
+        }
+        return new FuzzyMatches(ids, merged, n);
+    }
+}
@@ -0,0 +1,478 @@
+/**
+ * In-memory indexes over the items in the ItemStore. Every item is given a small integer document
+ * id, and the index keeps posting lists of document ids per make, model, tag and word, as well as
+ * ordered maps over price and purchase date for range queries. Trigram indexes over name, make and
+ * model answer typo-tolerant lookups. The index is kept up to date from
+ * item-level changes, so a change costs time proportional to the size of the changed item rather
+ * than the size of the inventory. Every change also bumps a version number, so results computed
+ * from the index can tell whether they are still current.
+ * <p>
+ * The keys every item was indexed with are remembered, so an item is taken out of the indexes
+ * correctly even if it was modified in place since it was added.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.ItemChangeListener;
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+import com.example.cmput301project.itemClasses.UniqueId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class ItemIndex implements ItemChangeListener {
+    private final HashMap<UniqueId, Integer> docIds;
+    private final ArrayList<Item> docs;
+    private final ArrayList<Indexed> indexed;
+    private final PostingList all;
+    private final HashMap<String, PostingList> makes;
+    private final HashMap<String, PostingList> models;
+    private final HashMap<String, PostingList> tags;
+    private final TreeMap<String, PostingList> words;
+    private final TreeMap<Long, PostingList> prices;
+    private final TreeMap<Long, PostingList> dates;
+    private final TrigramIndex nameGrams;
+    private final TrigramIndex makeGrams;
+    private final TrigramIndex modelGrams;
+    private final SortKeys sortKeys;
+    private long version;
+
+    /**
+     * Constructs an empty index.
+     */
+    public ItemIndex() {
+        docIds = new HashMap<>();
+        docs = new ArrayList<>();
+        indexed = new ArrayList<>();
+        all = new PostingList();
+        makes = new HashMap<>();
+        models = new HashMap<>();
+        tags = new HashMap<>();
+        words = new TreeMap<>();
+        prices = new TreeMap<>();
+        dates = new TreeMap<>();
+        nameGrams = new TrigramIndex();
+        makeGrams = new TrigramIndex();
+        modelGrams = new TrigramIndex();
+        sortKeys = new SortKeys();
+    }
+
+    @Override
+    public void onItemAdded(Item item) {
+        version++;
+        Integer existing = docIds.get(item.getUniqueId());
+        if (existing != null) {
+            replace(existing, item);
+            return;
+        }
+        int docId = docs.size();
+        docs.add(item);
+        indexed.add(null);
+        docIds.put(item.getUniqueId(), docId);
+        all.add(docId);
+        addToIndexes(docId, item);
+    }
+
+    @Override
+    public void onItemChanged(Item oldItem, Item newItem) {
+        version++;
+        Integer docId = docIds.get(oldItem.getUniqueId());
+        if (docId == null || !oldItem.getUniqueId().equals(newItem.getUniqueId())) {
+            onItemRemoved(oldItem);
+            onItemAdded(newItem);
+            return;
+        }
+        replace(docId, newItem);
+    }
+
+    @Override
+    public void onItemRemoved(Item item) {
+        version++;
+        Integer docId = docIds.remove(item.getUniqueId());
+        if (docId == null) {
+            return;
+        }
+        removeFromIndexes(docId);
+        sortKeys.clear(docId);
+        docs.set(docId, null);
+        all.remove(docId);
+    }
+
+    private void replace(int docId, Item newItem) {
+        removeFromIndexes(docId);
+        docs.set(docId, newItem);
+        addToIndexes(docId, newItem);
+    }
+
+    /**
+     * @return A number that increases with every change to the indexed items.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the posting list of a tag without copying it. The list must not be modified and is
+     * only valid until the next change to the index.
+     *
+     * @param tag A tag name, matched ignoring case.
+     * @return The document ids of the items with the tag, or null if there are none.
+     */
+    public PostingList getTagPostings(String tag) {
+        return tags.get(TextNormalizer.normalize(tag));
+    }
+
+    /**
+     * @return The sort keys of the indexed items, by document id.
+     */
+    public SortKeys getSortKeys() {
+        return sortKeys;
+    }
+
+    /**
+     * @return The number of indexed items.
+     */
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * @param docId A document id taken from one of the posting lists of this index.
+     * @return The item with that document id.
+     */
+    public Item getItem(int docId) {
+        return docs.get(docId);
+    }
+
+    /**
+     * @param id The unique id of an item.
+     * @return The document id of the item, or -1 if it is not indexed.
+     */
+    public int getDocId(UniqueId id) {
+        Integer docId = docIds.get(id);
+        return docId == null ? -1 : docId;
+    }
+
+    /**
+     * @return The document ids of all indexed items. The returned list must not be modified.
+     */
+    public PostingList getAll() {
+        return all;
+    }
+
+    /**
+     * Reports whether a clause can be answered from an index rather than by testing items.
+     *
+     * @param clause The clause.
+     * @return True if lookup() supports the clause.
+     */
+    public boolean canLookup(QueryClause clause) {
+        if (clause.isNegated()) {
+            return false;
+        }
+        if (clause.isFuzzy()) {
+            return true;
+        }
+        return clause.getField() != QueryClause.Field.DESCRIPTION && clause.getField() != QueryClause.Field.NAME;
+    }
+
+    /**
+     * Names the index that serves a clause, for the explain output.
+     *
+     * @param clause The clause.
+     * @return A short description of the index.
+     */
+    public String describe(QueryClause clause) {
+        if (clause.isFuzzy()) {
+            return clause.getField() == QueryClause.Field.TEXT
+                    ? "name/make/model trigram indexes"
+                    : clause.getField().getKeyword() + " trigram index";
+        }
+        switch (clause.getField()) {
+            case MAKE:
+                return "make index";
+            case MODEL:
+                return "model index";
+            case TAG:
+                return "tag index";
+            case TEXT:
+                return "word prefix index";
+            case PRICE:
+                return "price range index";
+            case BOUGHT:
+                return "purchase date range index";
+            default:
+                return "no index";
+        }
+    }
+
+    /**
+     * Estimates how many items a clause matches without materializing the matches.
+     *
+     * @param clause A clause for which canLookup() returns true.
+     * @return The estimated number of matches.
+     */
+    public int estimate(QueryClause clause) {
+        if (clause.isFuzzy()) {
+            int estimate = 0;
+            for (TrigramIndex grams : trigramIndexesFor(clause)) {
+                estimate += grams.estimate(clause.getValue());
+            }
+            return estimate;
+        }
+        switch (clause.getField()) {
+            case MAKE:
+                return sizeOf(makes.get(clause.getNormalizedValue()));
+            case MODEL:
+                return sizeOf(models.get(clause.getNormalizedValue()));
+            case TAG:
+                return sizeOf(tags.get(clause.getNormalizedValue()));
+            case TEXT:
+                int best = Integer.MAX_VALUE;
+                for (String token : TextNormalizer.tokenize(clause.getValue())) {
+                    best = Math.min(best, totalSize(wordsWithPrefix(token)));
+                }
+                return best == Integer.MAX_VALUE ? all.size() : best;
+            case PRICE:
+                return totalSize(priceRange(clause));
+            case BOUGHT:
+                return totalSize(dateRange(clause));
+            default:
+                return all.size();
+        }
+    }
+
+    /**
+     * Looks up the items matching a clause. For word clauses the result is a candidate set: phrases
+     * still have to be verified against the items.
+     *
+     * @param clause A clause for which canLookup() returns true.
+     * @return The document ids of the matching items.
+     */
+    public PostingList lookup(QueryClause clause) {
+        if (clause.isFuzzy()) {
+            return lookupFuzzy(clause).getDocIds();
+        }
+        switch (clause.getField()) {
+            case MAKE:
+                return copyOf(makes.get(clause.getNormalizedValue()));
+            case MODEL:
+                return copyOf(models.get(clause.getNormalizedValue()));
+            case TAG:
+                return copyOf(tags.get(clause.getNormalizedValue()));
+            case TEXT:
+                PostingList result = null;
+                for (String token : TextNormalizer.tokenize(clause.getValue())) {
+                    PostingList matches = PostingList.union(wordsWithPrefix(token).values());
+                    result = result == null ? matches : PostingList.intersect(result, matches);
+                }
+                return result == null ? all.copy() : result;
+            case PRICE:
+                return PostingList.union(priceRange(clause).values());
+            case BOUGHT:
+                return PostingList.union(dateRange(clause).values());
+            default:
+                throw new IllegalArgumentException("No index for " + clause.getField());
+        }
+    }
+
+    /**
+     * Looks up the items approximately matching a fuzzy clause, together with their similarity.
+     *
+     * @param clause A fuzzy clause.
+     * @return The matching document ids and their scores.
+     */
+    public FuzzyMatches lookupFuzzy(QueryClause clause) {
+        FuzzyMatches matches = null;
+        for (TrigramIndex grams : trigramIndexesFor(clause)) {
+            FuzzyMatches fieldMatches = grams.search(clause.getValue(), TrigramIndex.DEFAULT_THRESHOLD);
+            matches = matches == null ? fieldMatches : matches.merge(fieldMatches);
+        }
+        return matches;
+    }
+
+    private TrigramIndex[] trigramIndexesFor(QueryClause clause) {
+        switch (clause.getField()) {
+            case NAME:
+                return new TrigramIndex[]{nameGrams};
+            case MAKE:
+                return new TrigramIndex[]{makeGrams};
+            case MODEL:
+                return new TrigramIndex[]{modelGrams};
+            default:
+                return new TrigramIndex[]{nameGrams, makeGrams, modelGrams};
+        }
+    }
+
+    /**
+     * Walks the price or purchase date index from one end and collects the first document ids, so
+     * the most or least valuable or recent items are found in time proportional to k. Items with
+     * equal values come in document id order, as in a stable sort. Items without the attribute are
+     * not in the index and are never returned.
+     *
+     * @param key       Key.PRICE or Key.DATE.
+     * @param ascending True to start from the lowest value, false from the highest.
+     * @param k         The number of ids wanted.
+     * @return Up to k document ids.
+     */
+    public int[] first(SortOrder.Key key, boolean ascending, int k) {
+        NavigableMap<?, PostingList> map;
+        if (key == SortOrder.Key.PRICE) {
+            map = prices;
+        } else if (key == SortOrder.Key.DATE) {
+            map = dates;
+        } else {
+            throw new IllegalArgumentException("No ordered index for " + key);
+        }
+        int[] ids = new int[Math.min(k, size())];
+        int count = 0;
+        for (PostingList list : (ascending ? map : map.descendingMap()).values()) {
+            for (int i = 0; i < list.size() && count < ids.length; i++) {
+                ids[count++] = list.get(i);
+            }
+            if (count == ids.length) {
+                break;
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private NavigableMap<Long, PostingList> priceRange(QueryClause clause) {
+        if (clause.getLowCents() > clause.getHighCents()) {
+            return new TreeMap<>();
+        }
+        return prices.subMap(clause.getLowCents(), clause.isLowInclusive(), clause.getHighCents(), clause.isHighInclusive());
+    }
+
+    private NavigableMap<Long, PostingList> dateRange(QueryClause clause) {
+        if (clause.getFrom() > clause.getTo()) {
+            return new TreeMap<>();
+        }
+        return dates.subMap(clause.getFrom(), true, clause.getTo(), true);
+    }
+
+    private NavigableMap<String, PostingList> wordsWithPrefix(String prefix) {
+        return words.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void addToIndexes(int docId, Item item) {
+        Indexed keys = new Indexed(item);
+        indexed.set(docId, keys);
+        sortKeys.set(docId, item);
+        add(makes, TextNormalizer.normalize(keys.make), docId);
+        add(models, TextNormalizer.normalize(keys.model), docId);
+        for (String tag : keys.tags) {
+            add(tags, tag, docId);
+        }
+        for (String word : keys.words) {
+            add(words, word, docId);
+        }
+        add(prices, keys.cents, docId);
+        if (keys.date != null) {
+            add(dates, keys.date, docId);
+        }
+        nameGrams.add(docId, keys.name);
+        makeGrams.add(docId, keys.make);
+        modelGrams.add(docId, keys.model);
+    }
+
+    /**
+     * Takes a document out of every index, with the keys it was added with.
+     */
+    private void removeFromIndexes(int docId) {
+        Indexed keys = indexed.get(docId);
+        if (keys == null) {
+            return;
+        }
+        indexed.set(docId, null);
+        remove(makes, TextNormalizer.normalize(keys.make), docId);
+        remove(models, TextNormalizer.normalize(keys.model), docId);
+        for (String tag : keys.tags) {
+            remove(tags, tag, docId);
+        }
+        for (String word : keys.words) {
+            remove(words, word, docId);
+        }
+        remove(prices, keys.cents, docId);
+        if (keys.date != null) {
+            remove(dates, keys.date, docId);
+        }
+        nameGrams.remove(docId, keys.name);
+        makeGrams.remove(docId, keys.make);
+        modelGrams.remove(docId, keys.model);
+    }
+
+    private static HashSet<String> tagNames(Item item) {
+        HashSet<String> names = new HashSet<>();
+        if (item.getTags() != null) {
+            for (Tag tag : item.getTags()) {
+                names.add(TextNormalizer.normalize(tag.getName()));
+            }
+        }
+        return names;
+    }
+
+    private static <K> void add(Map<K, PostingList> index, K key, int docId) {
+        PostingList postings = index.get(key);
+        if (postings == null) {
+            postings = new PostingList();
+            index.put(key, postings);
+        }
+        postings.add(docId);
+    }
+
+    private static <K> void remove(Map<K, PostingList> index, K key, int docId) {
+        PostingList postings = index.get(key);
+        if (postings != null) {
+            postings.remove(docId);
+            if (postings.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static int sizeOf(PostingList postings) {
+        return postings == null ? 0 : postings.size();
+    }
+
+    private static PostingList copyOf(PostingList postings) {
+        return postings == null ? new PostingList() : postings.copy();
+    }
+
+    private static int totalSize(Map<?, PostingList> range) {
+        int total = 0;
+        for (PostingList postings : range.values()) {
+            total += postings.size();
+        }
+        return total;
+    }
+
+    /**
+     * The keys an item was indexed with.
+     */
+    private static class Indexed {
+        final String name;
+        final String make;
+        final String model;
+        final String[] tags;
+        final String[] words;
+        final long cents;
+        final Long date;
+
+        Indexed(Item item) {
+            name = item.getName();
+            make = item.getMake();
+            model = item.getModel();
+            tags = tagNames(item).toArray(new String[0]);
+            words = new HashSet<>(TextNormalizer.tokenize(TextNormalizer.searchableText(item))).toArray(new String[0]);
+            cents = item.getPriceCents();
+            date = item.getPurchaseDate() == null ? null : item.getPurchaseDate().getTime();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Root of a parsed search query: a conjunction of QueryClauses that an item has to satisfy.
+ * Queries are produced by the QueryParser from the search box, or converted from an ItemFilter
+ * built by the filters dialog, so both entry points share the same planner and indexes.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.ItemFilter;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class ItemQuery {
+    private final ArrayList<QueryClause> clauses;
+    private boolean explain;
+
+    /**
+     * Constructs an empty query, which matches every item.
+     */
+    public ItemQuery() {
+        clauses = new ArrayList<>();
+        explain = false;
+    }
+
+    /**
+     * Adds a clause to the query.
+     *
+     * @param clause The clause to add.
+     */
+    public void addClause(QueryClause clause) {
+        clauses.add(clause);
+    }
+
+    /**
+     * @return The clauses of the query, in the order they were written.
+     */
+    public List<QueryClause> getClauses() {
+        return Collections.unmodifiableList(clauses);
+    }
+
+    /**
+     * @return True if the query has no clauses.
+     */
+    public boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    /**
+     * @return True if the execution plan should be reported to the user.
+     */
+    public boolean isExplain() {
+        return explain;
+    }
+
+    /**
+     * @param explain True if the execution plan should be reported to the user.
+     */
+    public void setExplain(boolean explain) {
+        this.explain = explain;
+    }
+
+    /**
+     * Evaluates every clause directly against an item.
+     *
+     * @param item The item to test.
+     * @return True if the item satisfies all clauses.
+     */
+    public boolean matches(Item item) {
+        for (QueryClause clause : clauses) {
+            if (!clause.matches(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts the criteria of the filters dialog into an equivalent query. The dates of the
+     * dialog are whole days, both included, the same as for "bought:from..to" in the search box,
+     * so the query text shown for a filter parses back to the same query.
+     *
+     * @param filter The filter to convert.
+     * @return The query.
+     */
+    public static ItemQuery fromFilter(ItemFilter filter) {
+        ItemQuery query = new ItemQuery();
+        if (filter.isFilterDate()) {
+            query.addClause(QueryClause.dateRange(startOfDay(filter.getFrom(), 0),
+                    startOfDay(filter.getTo(), 1) - 1, false));
+        }
+        for (String keyword : filter.getKeywords()) {
+            query.addClause(QueryClause.term(QueryClause.Field.DESCRIPTION, keyword, false));
+        }
+        if (filter.isFilterMakes()) {
+            query.addClause(QueryClause.term(QueryClause.Field.MAKE, filter.getMake(), false));
+        }
+        if (filter.isFilterTag()) {
+            query.addClause(QueryClause.term(QueryClause.Field.TAG, filter.getTag(), false));
+        }
+        return query;
+    }
+
+    /**
+     * @param date A date.
+     * @param days The number of days to move forward.
+     * @return The first millisecond of the day that many days after the date.
+     */
+    private static long startOfDay(Date date, int days) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        cal.add(Calendar.DAY_OF_MONTH, days);
+        return cal.getTimeInMillis();
+    }
+
+    /**
+     * Converts the parts of this query the filters dialog can show back into an ItemFilter.
+     * Clauses the dialog has no field for are left out.
+     *
+     * @return The filter.
+     */
+    public ItemFilter toFilter() {
+        ItemFilter filter = new ItemFilter();
+        for (QueryClause clause : clauses) {
+            if (clause.isNegated()) {
+                continue;
+            }
+            switch (clause.getField()) {
+                case BOUGHT:
+                    filter.setFrom(new Date(clause.getFrom() == Long.MIN_VALUE ? 0 : clause.getFrom()));
+                    filter.setTo(clause.getTo() == Long.MAX_VALUE ? new Date() : new Date(clause.getTo()));
+                    break;
+                case DESCRIPTION:
+                    filter.addKeyword(clause.getValue());
+                    break;
+                case MAKE:
+                    filter.setMake(clause.getValue());
+                    break;
+                case TAG:
+                    filter.setTag(clause.getValue());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Compares the clauses of two queries. Whether the plan is explained does not change the
+     * results, so it is ignored.
+     *
+     * @param o The object to compare with.
+     * @return True if the other object is a query with equal clauses in the same order.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof ItemQuery && clauses.equals(((ItemQuery) o).clauses);
+    }
+
+    /**
+     * @return A hash code consistent with equals().
+     */
+    @Override
+    public int hashCode() {
+        return clauses.hashCode();
+    }
+
+    /**
+     * Renders the query as text that parses back to an equivalent query.
+     *
+     * @return The query text.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (explain) {
+            builder.append("explain");
+        }
+        for (QueryClause clause : clauses) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(clause);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Answers queries against an ItemIndex in a given sort order. Sorted results are kept in a
+ * ResultCache, so repeating a recent combination of query and sort order costs a hash lookup as
+ * long as the indexed items have not changed.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+
+public class ItemSearcher {
+
+    /**
+     * Number of sorted results kept for quick switching between recent views.
+     */
+    private static final int CACHE_CAPACITY = 16;
+
+    private final ItemIndex index;
+    private final ResultCache cache;
+
+    /**
+     * Constructs an ItemSearcher.
+     *
+     * @param index The index to search.
+     */
+    public ItemSearcher(ItemIndex index) {
+        this.index = index;
+        this.cache = new ResultCache(CACHE_CAPACITY);
+    }
+
+    /**
+     * @return The index this searcher runs queries against.
+     */
+    public ItemIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Finds the items matching a query, in the given order.
+     *
+     * @param query The query.
+     * @param order The sort order of the result.
+     * @return The sorted result.
+     * @throws CancellationException If the calling thread is interrupted during the search.
+     */
+    public QueryResult search(ItemQuery query, SortOrder order) {
+        long start = System.nanoTime();
+        long version = index.getVersion();
+        int[] docIds = cache.get(query, order, version);
+        if (docIds != null) {
+            QueryPlan plan = QueryPlanner.plan(query, index);
+            ArrayList<Item> items = new ArrayList<>(docIds.length);
+            for (int docId : docIds) {
+                items.add(index.getItem(docId));
+            }
+            long elapsed = System.nanoTime() - start;
+            String explanation = String.format(Locale.US, "Result cache hit for version %d, sorted by %s\n%d matches in %.3f ms",
+                    version, order, items.size(), elapsed / 1e6);
+            return new QueryResult(plan, docIds, items, explanation, elapsed);
+        }
+
+        QueryResult result = QueryPlanner.plan(query, index).execute();
+        docIds = result.getDocIds();
+        ArrayList<Item> items = result.getItems();
+        String explanation = result.getExplanation();
+        if (order.getKey() != SortOrder.Key.NONE) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Query cancelled");
+            }
+            long sortStart = System.nanoTime();
+            order.sort(docIds, index);
+            items = new ArrayList<>(docIds.length);
+            for (int docId : docIds) {
+                items.add(index.getItem(docId));
+            }
+            explanation += String.format(Locale.US, "\nsorted by %s in %.3f ms", order, (System.nanoTime() - sortStart) / 1e6);
+        }
+        cache.put(query, order, version, docIds);
+        return new QueryResult(result.getPlan(), docIds, items, explanation, System.nanoTime() - start);
+    }
+
+    /**
+     * Finds the first k items of a query result in the given order, without sorting the whole
+     * result. The first k of a cached sorted result are reused; an empty query ordered only by
+     * price or purchase date is answered by walking that index, in time proportional to k; any
+     * other query keeps the best k matches in a bounded heap, in O(n log k) time. Top results are
+     * not cached themselves.
+     *
+     * @param query The query.
+     * @param order The sort order of the result.
+     * @param k     The number of items wanted.
+     * @return The first min(k, matches) items of the sorted result.
+     * @throws CancellationException If the calling thread is interrupted during the search.
+     */
+    public QueryResult searchTop(ItemQuery query, SortOrder order, int k) {
+        long start = System.nanoTime();
+        int[] docIds = cache.get(query, order, index.getVersion());
+        QueryPlan plan = QueryPlanner.plan(query, index);
+        String explanation;
+        if (docIds != null) {
+            docIds = Arrays.copyOf(docIds, Math.min(k, docIds.length));
+            explanation = String.format(Locale.US, "Top %d from the cached result sorted by %s", k, order);
+        } else {
+            docIds = topFromIndex(query, order, k);
+            if (docIds != null) {
+                explanation = String.format(Locale.US, "Top %d by walking the %s index",
+                        k, order.getKey().name().toLowerCase());
+            } else {
+                QueryResult result = plan.execute();
+                if (order.getKey() == SortOrder.Key.NONE) {
+                    docIds = Arrays.copyOf(result.getDocIds(), Math.min(k, result.getDocIds().length));
+                    explanation = result.getExplanation() + String.format(Locale.US, "\nfirst %d of the result", k);
+                } else {
+                    docIds = index.getSortKeys().top(result.getDocIds(), order, k);
+                    explanation = result.getExplanation()
+                            + String.format(Locale.US, "\ntop %d by %s with a bounded heap", k, order);
+                }
+            }
+        }
+        ArrayList<Item> items = new ArrayList<>(docIds.length);
+        for (int docId : docIds) {
+            items.add(index.getItem(docId));
+        }
+        long elapsed = System.nanoTime() - start;
+        explanation += String.format(Locale.US, "\n%d items in %.3f ms", items.size(), elapsed / 1e6);
+        return new QueryResult(plan, docIds, items, explanation, elapsed);
+    }
+
+    /**
+     * @return The first k ids from the price or date index, or null if the index cannot answer
+     * the query, including when too few items have the attribute.
+     */
+    private int[] topFromIndex(ItemQuery query, SortOrder order, int k) {
+        SortOrder.Key key = order.getKey();
+        if (!query.isEmpty() || order.getNext() != null || (key != SortOrder.Key.PRICE && key != SortOrder.Key.DATE)) {
+            return null;
+        }
+        int[] docIds = index.first(key, order.isAscending(), k);
+        return docIds.length == Math.min(k, index.size()) ? docIds : null;
+    }
+
+    /**
+     * @return The cache of sorted results.
+     */
+    public ResultCache getCache() {
+        return cache;
+    }
+}
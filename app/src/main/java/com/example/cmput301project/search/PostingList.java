@@ -0,0 +1,196 @@
+/**
+ * A sorted set of document ids backed by a growable int array. Posting lists are the building block
+ * of the in-memory item indexes: each indexed value maps to the posting list of the documents that
+ * contain it, and query clauses are combined by merging posting lists instead of scanning items.
+ */
+
+package com.example.cmput301project.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+public class PostingList {
+    private int[] ids;
+    private int size;
+
+    /**
+     * Constructs an empty posting list.
+     */
+    public PostingList() {
+        this(4);
+    }
+
+    /**
+     * Constructs an empty posting list with room for the given number of ids.
+     *
+     * @param capacity The initial capacity.
+     */
+    public PostingList(int capacity) {
+        ids = new int[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    private PostingList(int[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    /**
+     * Adds an id, keeping the list sorted. Appending ids in increasing order is O(1).
+     *
+     * @param id The id to add.
+     * @return True if the id was added, false if it was already present.
+     */
+    public boolean add(int id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity(size + 1);
+            ids[size++] = id;
+            return true;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an id.
+     *
+     * @param id The id to remove.
+     * @return True if the id was present.
+     */
+    public boolean remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * @param id The id to look for.
+     * @return True if the id is in the list.
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * @param index A position between 0 and size() - 1.
+     * @return The id at the given position.
+     */
+    public int get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @return The number of ids in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if the list holds no ids.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return A sorted array holding a copy of the ids.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * @return An independent copy of this list.
+     */
+    public PostingList copy() {
+        return new PostingList(Arrays.copyOf(ids, Math.max(size, 1)), size);
+    }
+
+    /**
+     * Wraps an array of ids that is already sorted and free of duplicates.
+     *
+     * @param sortedIds The sorted ids. The array is used directly, not copied.
+     * @param size      The number of valid entries at the start of the array.
+     * @return A posting list over the array.
+     */
+    public static PostingList wrap(int[] sortedIds, int size) {
+        return new PostingList(sortedIds.length == 0 ? new int[1] : sortedIds, size);
+    }
+
+    /**
+     * Intersects two posting lists with a linear merge.
+     *
+     * @param a The first list.
+     * @param b The second list.
+     * @return A new list holding the ids present in both lists.
+     */
+    public static PostingList intersect(PostingList a, PostingList b) {
+        int[] out = new int[Math.min(a.size, b.size)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            int x = a.ids[i];
+            int y = b.ids[j];
+            if (x == y) {
+                out[n++] = x;
+                i++;
+                j++;
+            } else if (x < y) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return wrap(out, n);
+    }
+
+    /**
+     * Unions any number of posting lists.
+     *
+     * @param lists The lists to merge.
+     * @return A new list holding every id present in at least one of the lists.
+     */
+    public static PostingList union(Collection<PostingList> lists) {
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] out = new int[total];
+        int n = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.ids, 0, out, n, list.size);
+            n += list.size;
+        }
+        if (lists.size() > 1) {
+            Arrays.sort(out, 0, n);
+            int unique = 0;
+            for (int i = 0; i < n; i++) {
+                if (unique == 0 || out[unique - 1] != out[i]) {
+                    out[unique++] = out[i];
+                }
+            }
+            n = unique;
+        }
+        return wrap(out, n);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(capacity, ids.length * 2));
+        }
+    }
+}
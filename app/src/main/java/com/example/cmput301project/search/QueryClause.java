@@ -0,0 +1,418 @@
+/**
+ * A single clause of a parsed search query, such as {@code make:sony}, {@code price>100},
+ * {@code bought:2019..2021}, {@code make~samsng} or {@code "4k tv"}. Clauses are the nodes of the
+ * query AST: the planner decides per clause whether an index can serve it, and every clause can
+ * also be evaluated directly against an item for residual filtering.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Money;
+import com.example.cmput301project.itemClasses.Tag;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
+
+public class QueryClause {
+
+    /**
+     * The item attribute a clause constrains.
+     */
+    public enum Field {
+        NAME("name"),
+        MAKE("make"),
+        MODEL("model"),
+        TAG("tag"),
+        DESCRIPTION("desc"),
+        TEXT(""),
+        PRICE("price"),
+        BOUGHT("bought");
+
+        private final String keyword;
+
+        Field(String keyword) {
+            this.keyword = keyword;
+        }
+
+        /**
+         * @return The keyword used for this field in query text.
+         */
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    private final Field field;
+    private final boolean negated;
+    private final String value;
+    private final String normalizedValue;
+    private final boolean phrase;
+    private final boolean fuzzy;
+    private final long lowCents;
+    private final boolean lowInclusive;
+    private final long highCents;
+    private final boolean highInclusive;
+    private final long from;
+    private final long to;
+
+    private QueryClause(Field field, boolean negated, String value, boolean phrase, boolean fuzzy,
+                        long lowCents, boolean lowInclusive, long highCents, boolean highInclusive,
+                        long from, long to) {
+        this.field = field;
+        this.negated = negated;
+        this.value = value;
+        this.normalizedValue = field == Field.TEXT
+                ? TextNormalizer.join(TextNormalizer.tokenize(value))
+                : TextNormalizer.normalize(value);
+        this.phrase = phrase;
+        this.fuzzy = fuzzy;
+        this.lowCents = lowCents;
+        this.lowInclusive = lowInclusive;
+        this.highCents = highCents;
+        this.highInclusive = highInclusive;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Creates a clause matching a text attribute. Make, model and tag have to be equal to the value,
+     * name and description have to contain it.
+     *
+     * @param field   One of NAME, MAKE, MODEL, TAG or DESCRIPTION.
+     * @param value   The value to match.
+     * @param negated True to match items that do not satisfy the clause.
+     * @return The clause.
+     */
+    public static QueryClause term(Field field, String value, boolean negated) {
+        if (field == Field.PRICE || field == Field.BOUGHT || field == Field.TEXT) {
+            throw new IllegalArgumentException("Not a term field: " + field);
+        }
+        return new QueryClause(field, negated, value, false, false, 0, false, 0, false, 0, 0);
+    }
+
+    /**
+     * Creates a free-text clause. Every word must be the beginning of a word in the item's name,
+     * description, make or model. A phrase additionally requires the words to appear in order.
+     *
+     * @param text    The words to match.
+     * @param phrase  True if the words were quoted.
+     * @param negated True to match items that do not satisfy the clause.
+     * @return The clause.
+     */
+    public static QueryClause text(String text, boolean phrase, boolean negated) {
+        return new QueryClause(Field.TEXT, negated, text, phrase, false, 0, false, 0, false, 0, 0);
+    }
+
+    /**
+     * Creates a typo-tolerant clause that matches when the trigram similarity between the value and
+     * the attribute reaches TrigramIndex.DEFAULT_THRESHOLD. For TEXT the best of name, make and
+     * model counts.
+     *
+     * @param field   One of NAME, MAKE, MODEL or TEXT.
+     * @param value   The value to match approximately.
+     * @param negated True to match items that do not satisfy the clause.
+     * @return The clause.
+     */
+    public static QueryClause fuzzy(Field field, String value, boolean negated) {
+        if (field != Field.NAME && field != Field.MAKE && field != Field.MODEL && field != Field.TEXT) {
+            throw new IllegalArgumentException("Not a fuzzy field: " + field);
+        }
+        return new QueryClause(field, negated, value, false, true, 0, false, 0, false, 0, 0);
+    }
+
+    /**
+     * Creates a clause matching a price range in cents. Use Long.MIN_VALUE and Long.MAX_VALUE for
+     * open bounds.
+     *
+     * @param low           The lower bound in cents.
+     * @param lowInclusive  True if the lower bound itself matches.
+     * @param high          The upper bound in cents.
+     * @param highInclusive True if the upper bound itself matches.
+     * @param negated       True to match items outside of the range.
+     * @return The clause.
+     */
+    public static QueryClause priceRange(long low, boolean lowInclusive, long high, boolean highInclusive, boolean negated) {
+        return new QueryClause(Field.PRICE, negated, null, false, false, low, lowInclusive, high, highInclusive, 0, 0);
+    }
+
+    /**
+     * Creates a clause matching an inclusive purchase date range. Use Long.MIN_VALUE and
+     * Long.MAX_VALUE for open bounds.
+     *
+     * @param from    The first matching instant, in epoch milliseconds.
+     * @param to      The last matching instant, in epoch milliseconds.
+     * @param negated True to match items outside of the range.
+     * @return The clause.
+     */
+    public static QueryClause dateRange(long from, long to, boolean negated) {
+        return new QueryClause(Field.BOUGHT, negated, null, false, false, 0, false, 0, false, from, to);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public boolean isNegated() {
+        return negated;
+    }
+
+    /**
+     * @return The value as typed by the user, for term and text clauses.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return The normalized value that index keys are compared with.
+     */
+    public String getNormalizedValue() {
+        return normalizedValue;
+    }
+
+    public boolean isPhrase() {
+        return phrase;
+    }
+
+    /**
+     * @return True if the clause matches approximately, by trigram similarity.
+     */
+    public boolean isFuzzy() {
+        return fuzzy;
+    }
+
+    /**
+     * @return The lower bound of a price range in cents, or Long.MIN_VALUE if there is none.
+     */
+    public long getLowCents() {
+        return lowCents;
+    }
+
+    public boolean isLowInclusive() {
+        return lowInclusive;
+    }
+
+    /**
+     * @return The upper bound of a price range in cents, or Long.MAX_VALUE if there is none.
+     */
+    public long getHighCents() {
+        return highCents;
+    }
+
+    public boolean isHighInclusive() {
+        return highInclusive;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    /**
+     * Evaluates this clause directly against an item.
+     *
+     * @param item The item to test.
+     * @return True if the item satisfies the clause.
+     */
+    public boolean matches(Item item) {
+        return matchesIgnoringNegation(item) != negated;
+    }
+
+    private boolean matchesIgnoringNegation(Item item) {
+        if (fuzzy) {
+            return similarity(item) >= TrigramIndex.DEFAULT_THRESHOLD;
+        }
+        switch (field) {
+            case NAME:
+                return TextNormalizer.normalize(item.getName()).contains(normalizedValue);
+            case MAKE:
+                return TextNormalizer.normalize(item.getMake()).equals(normalizedValue);
+            case MODEL:
+                return TextNormalizer.normalize(item.getModel()).equals(normalizedValue);
+            case TAG:
+                if (item.getTags() == null) {
+                    return false;
+                }
+                for (Tag tag : item.getTags()) {
+                    if (TextNormalizer.normalize(tag.getName()).equals(normalizedValue)) {
+                        return true;
+                    }
+                }
+                return false;
+            case DESCRIPTION:
+                return TextNormalizer.normalize(item.getDescription()).contains(normalizedValue);
+            case TEXT:
+                return matchesText(item);
+            case PRICE:
+                return matchesPrice(item.getPriceCents());
+            case BOUGHT:
+                if (item.getPurchaseDate() == null) {
+                    return false;
+                }
+                long time = item.getPurchaseDate().getTime();
+                return time >= from && time <= to;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Computes how similar the attribute of an item is to the value of this clause.
+     *
+     * @param item The item.
+     * @return The trigram similarity between 0 and 1.
+     */
+    public double similarity(Item item) {
+        switch (field) {
+            case NAME:
+                return TrigramIndex.similarity(value, item.getName());
+            case MAKE:
+                return TrigramIndex.similarity(value, item.getMake());
+            case MODEL:
+                return TrigramIndex.similarity(value, item.getModel());
+            default:
+                return Math.max(TrigramIndex.similarity(value, item.getName()),
+                        Math.max(TrigramIndex.similarity(value, item.getMake()),
+                                TrigramIndex.similarity(value, item.getModel())));
+        }
+    }
+
+    /**
+     * @param cents A price in cents.
+     * @return True if the price lies within this clause's range, ignoring negation.
+     */
+    boolean matchesPrice(long cents) {
+        boolean aboveLow = lowInclusive ? cents >= lowCents : cents > lowCents;
+        boolean belowHigh = highInclusive ? cents <= highCents : cents < highCents;
+        return aboveLow && belowHigh;
+    }
+
+    private boolean matchesText(Item item) {
+        ArrayList<String> itemTokens = TextNormalizer.tokenize(TextNormalizer.searchableText(item));
+        for (String queryToken : TextNormalizer.tokenize(value)) {
+            boolean found = false;
+            for (String itemToken : itemTokens) {
+                if (itemToken.startsWith(queryToken)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return !phrase || (" " + TextNormalizer.join(itemTokens)).contains(" " + normalizedValue);
+    }
+
+    /**
+     * Compares two clauses by what they match. Values are compared after normalization, so
+     * {@code make:Sony} equals {@code make:sony}.
+     *
+     * @param o The object to compare with.
+     * @return True if the other object is an equivalent clause.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryClause)) {
+            return false;
+        }
+        QueryClause other = (QueryClause) o;
+        return field == other.field
+                && negated == other.negated
+                && phrase == other.phrase
+                && fuzzy == other.fuzzy
+                && Objects.equals(normalizedValue, other.normalizedValue)
+                && lowCents == other.lowCents
+                && lowInclusive == other.lowInclusive
+                && highCents == other.highCents
+                && highInclusive == other.highInclusive
+                && from == other.from
+                && to == other.to;
+    }
+
+    /**
+     * @return A hash code consistent with equals().
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, negated, phrase, fuzzy, normalizedValue,
+                lowCents, lowInclusive, highCents, highInclusive, from, to);
+    }
+
+    /**
+     * Renders the clause back into query text that parses to an equivalent clause.
+     *
+     * @return The clause as query text.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (negated) {
+            builder.append('-');
+        }
+        switch (field) {
+            case PRICE:
+                if (lowCents == Long.MIN_VALUE) {
+                    builder.append("price").append(highInclusive ? "<=" : "<").append(formatPrice(highCents));
+                } else if (highCents == Long.MAX_VALUE) {
+                    builder.append("price").append(lowInclusive ? ">=" : ">").append(formatPrice(lowCents));
+                } else if (lowInclusive && highInclusive && lowCents == highCents) {
+                    builder.append("price:").append(formatPrice(lowCents));
+                } else if (lowInclusive && highInclusive) {
+                    builder.append("price:").append(formatPrice(lowCents)).append("..").append(formatPrice(highCents));
+                } else {
+                    builder.append("price").append(lowInclusive ? ">=" : ">").append(formatPrice(lowCents))
+                            .append(" price").append(highInclusive ? "<=" : "<").append(formatPrice(highCents));
+                }
+                break;
+            case BOUGHT:
+                SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+                builder.append("bought:");
+                if (from != Long.MIN_VALUE) {
+                    builder.append(df.format(new Date(from)));
+                }
+                builder.append("..");
+                if (to != Long.MAX_VALUE) {
+                    builder.append(df.format(new Date(to)));
+                }
+                break;
+            case TEXT:
+                if (fuzzy) {
+                    builder.append('~');
+                }
+                builder.append(phrase ? quote(value) : value);
+                break;
+            default:
+                builder.append(field.getKeyword()).append(fuzzy ? '~' : ':').append(quoteIfNeeded(value));
+                break;
+        }
+        return builder.toString();
+    }
+
+    private static String formatPrice(long cents) {
+        return cents % 100 == 0 ? String.valueOf(cents / 100) : Money.format(cents);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static String quoteIfNeeded(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isWhitespace(value.charAt(i))) {
+                return quote(value);
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Parses the text of the search box into an ItemQuery. Supported syntax:
+ * <ul>
+ *     <li>{@code make:sony}, {@code model:x90}, {@code tag:office}, {@code desc:kitchen},
+ *     {@code name:lamp} - attribute matches</li>
+ *     <li>{@code make~samsng}, {@code model~...}, {@code name~...}, {@code ~word} - typo-tolerant
+ *     matches</li>
+ *     <li>{@code price>100}, {@code price<=50}, {@code price:100..500} - price comparisons and
+ *     ranges</li>
+ *     <li>{@code bought:2019..2021}, {@code bought>2020-06}, {@code bought:2021-03-14} - purchase
+ *     dates</li>
+ *     <li>{@code "4k tv"} - a phrase, and plain words, matched against name, description, make and
+ *     model</li>
+ *     <li>a leading {@code -} negates a clause, and a leading {@code explain} reports the execution
+ *     plan</li>
+ * </ul>
+ * Values containing spaces can be quoted, as in {@code make:"bang & olufsen"}. A field with nothing
+ * after it yet (such as {@code make:} while the user is still typing) is ignored.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Money;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+public final class QueryParser {
+
+    private QueryParser() {
+    }
+
+    /**
+     * Parses query text.
+     *
+     * @param text The text typed by the user.
+     * @return The parsed query.
+     * @throws IllegalArgumentException If a price or date value cannot be read.
+     */
+    public static ItemQuery parse(String text) {
+        ItemQuery query = new ItemQuery();
+        ArrayList<Token> tokens = tokenize(text == null ? "" : text);
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (i == 0 && !token.quoted && !token.negated && token.text.equalsIgnoreCase("explain")) {
+                query.setExplain(true);
+                continue;
+            }
+            QueryClause clause = parseToken(token);
+            if (clause != null) {
+                query.addClause(clause);
+            }
+        }
+        return query;
+    }
+
+    private static QueryClause parseToken(Token token) {
+        if (token.quoted) {
+            return QueryClause.text(token.text, true, token.negated);
+        }
+        int opStart = 0;
+        while (opStart < token.text.length() && Character.isLetter(token.text.charAt(opStart))) {
+            opStart++;
+        }
+        String fieldName = token.text.substring(0, opStart).toLowerCase(Locale.ROOT);
+        String rest = token.text.substring(opStart);
+        String op = null;
+        for (String candidate : new String[]{">=", "<=", ":", ">", "<", "~"}) {
+            if (rest.startsWith(candidate)) {
+                op = candidate;
+                break;
+            }
+        }
+        if (fieldName.isEmpty() && "~".equals(op)) {
+            String value = rest.substring(1);
+            return TextNormalizer.tokenize(value).isEmpty() ? null : QueryClause.fuzzy(QueryClause.Field.TEXT, value, token.negated);
+        }
+        QueryClause.Field field = op == null ? null : fieldFor(fieldName);
+        if (field == null) {
+            return TextNormalizer.tokenize(token.text).isEmpty() ? null : QueryClause.text(token.text, false, token.negated);
+        }
+        String value = rest.substring(op.length()).trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (op.equals("~") && (field == QueryClause.Field.PRICE || field == QueryClause.Field.BOUGHT)) {
+            throw new IllegalArgumentException("Use " + fieldName + ":value");
+        }
+        switch (field) {
+            case PRICE:
+                return parsePrice(op, value, token.negated);
+            case BOUGHT:
+                return parseBought(op, value, token.negated);
+            default:
+                if (op.equals("~")) {
+                    if (field == QueryClause.Field.TAG || field == QueryClause.Field.DESCRIPTION) {
+                        throw new IllegalArgumentException("Use " + fieldName + ":value");
+                    }
+                    return QueryClause.fuzzy(field, value, token.negated);
+                }
+                if (!op.equals(":")) {
+                    throw new IllegalArgumentException("Use " + fieldName + ":value");
+                }
+                return QueryClause.term(field, value, token.negated);
+        }
+    }
+
+    private static QueryClause.Field fieldFor(String name) {
+        switch (name) {
+            case "name":
+                return QueryClause.Field.NAME;
+            case "make":
+                return QueryClause.Field.MAKE;
+            case "model":
+                return QueryClause.Field.MODEL;
+            case "tag":
+                return QueryClause.Field.TAG;
+            case "desc":
+            case "description":
+                return QueryClause.Field.DESCRIPTION;
+            case "price":
+            case "value":
+                return QueryClause.Field.PRICE;
+            case "bought":
+            case "date":
+                return QueryClause.Field.BOUGHT;
+            default:
+                return null;
+        }
+    }
+
+    private static QueryClause parsePrice(String op, String value, boolean negated) {
+        switch (op) {
+            case ">":
+                return QueryClause.priceRange(parsePriceValue(value), false, Long.MAX_VALUE, true, negated);
+            case ">=":
+                return QueryClause.priceRange(parsePriceValue(value), true, Long.MAX_VALUE, true, negated);
+            case "<":
+                return QueryClause.priceRange(Long.MIN_VALUE, true, parsePriceValue(value), false, negated);
+            case "<=":
+                return QueryClause.priceRange(Long.MIN_VALUE, true, parsePriceValue(value), true, negated);
+            default:
+                int dots = value.indexOf("..");
+                if (dots < 0) {
+                    long price = parsePriceValue(value);
+                    return QueryClause.priceRange(price, true, price, true, negated);
+                }
+                String low = value.substring(0, dots).trim();
+                String high = value.substring(dots + 2).trim();
+                return QueryClause.priceRange(
+                        low.isEmpty() ? Long.MIN_VALUE : parsePriceValue(low), true,
+                        high.isEmpty() ? Long.MAX_VALUE : parsePriceValue(high), true,
+                        negated);
+        }
+    }
+
+    private static long parsePriceValue(String value) {
+        long cents = Money.parse(value.replace("$", "").replace(",", ""));
+        if (cents == Money.INVALID) {
+            throw new IllegalArgumentException("Invalid price: " + value);
+        }
+        return cents;
+    }
+
+    private static QueryClause parseBought(String op, String value, boolean negated) {
+        switch (op) {
+            case ">":
+                return QueryClause.dateRange(parsePeriod(value)[1] + 1, Long.MAX_VALUE, negated);
+            case ">=":
+                return QueryClause.dateRange(parsePeriod(value)[0], Long.MAX_VALUE, negated);
+            case "<":
+                return QueryClause.dateRange(Long.MIN_VALUE, parsePeriod(value)[0] - 1, negated);
+            case "<=":
+                return QueryClause.dateRange(Long.MIN_VALUE, parsePeriod(value)[1], negated);
+            default:
+                int dots = value.indexOf("..");
+                if (dots < 0) {
+                    long[] period = parsePeriod(value);
+                    return QueryClause.dateRange(period[0], period[1], negated);
+                }
+                String from = value.substring(0, dots).trim();
+                String to = value.substring(dots + 2).trim();
+                return QueryClause.dateRange(
+                        from.isEmpty() ? Long.MIN_VALUE : parsePeriod(from)[0],
+                        to.isEmpty() ? Long.MAX_VALUE : parsePeriod(to)[1],
+                        negated);
+        }
+    }
+
+    /**
+     * Reads a year, month or day and returns the first and last millisecond of that period.
+     */
+    private static long[] parsePeriod(String value) {
+        String pattern;
+        int unit;
+        if (value.matches("\\d{4}")) {
+            pattern = "yyyy";
+            unit = Calendar.YEAR;
+        } else if (value.matches("\\d{4}-\\d{1,2}")) {
+            pattern = "yyyy-MM";
+            unit = Calendar.MONTH;
+        } else if (value.matches("\\d{4}-\\d{1,2}-\\d{1,2}")) {
+            pattern = "yyyy-MM-dd";
+            unit = Calendar.DAY_OF_MONTH;
+        } else if (value.matches("\\d{1,2}/\\d{1,2}/\\d{4}")) {
+            pattern = "MM/dd/yyyy";
+            unit = Calendar.DAY_OF_MONTH;
+        } else {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat(pattern, Locale.US);
+        dateFormat.setLenient(false);
+        Date start;
+        try {
+            start = dateFormat.parse(value);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(start);
+        cal.add(unit, 1);
+        return new long[]{start.getTime(), cal.getTimeInMillis() - 1};
+    }
+
+    private static ArrayList<Token> tokenize(String text) {
+        ArrayList<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i >= text.length()) {
+                break;
+            }
+            boolean negated = false;
+            if (text.charAt(i) == '-' && i + 1 < text.length() && !Character.isWhitespace(text.charAt(i + 1))) {
+                negated = true;
+                i++;
+            }
+            boolean quoted = text.charAt(i) == '"';
+            boolean inQuotes = false;
+            StringBuilder builder = new StringBuilder();
+            while (i < text.length() && (inQuotes || !Character.isWhitespace(text.charAt(i)))) {
+                char c = text.charAt(i++);
+                if (c == '"') {
+                    inQuotes = !inQuotes;
+                } else {
+                    builder.append(c);
+                }
+            }
+            if (builder.length() > 0) {
+                tokens.add(new Token(builder.toString(), quoted, negated));
+            }
+        }
+        return tokens;
+    }
+
+    private static class Token {
+        final String text;
+        final boolean quoted;
+        final boolean negated;
+
+        Token(String text, boolean quoted, boolean negated) {
+            this.text = text;
+            this.quoted = quoted;
+            this.negated = negated;
+        }
+    }
+}
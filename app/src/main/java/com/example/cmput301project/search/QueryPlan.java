@@ -0,0 +1,263 @@
+/**
+ * An executable plan for an ItemQuery, produced by the QueryPlanner. Each step either looks a
+ * clause up in the ItemIndex and intersects the result with the candidates so far, or tests the
+ * remaining candidates against the clause directly. Results of fuzzy lookups are ranked by
+ * similarity. Executing the plan records how many candidates every step left and how long it took,
+ * which is what the explain mode reports.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+
+public class QueryPlan {
+
+    /**
+     * One clause of the plan together with the way it will be evaluated.
+     */
+    public static class Step {
+        private final QueryClause clause;
+        private final boolean usesIndex;
+        private final int estimate;
+        private final String source;
+
+        Step(QueryClause clause, boolean usesIndex, int estimate, String source) {
+            this.clause = clause;
+            this.usesIndex = usesIndex;
+            this.estimate = estimate;
+            this.source = source;
+        }
+
+        public QueryClause getClause() {
+            return clause;
+        }
+
+        /**
+         * @return True if the clause is answered by an index lookup, false if candidates are tested.
+         */
+        public boolean usesIndex() {
+            return usesIndex;
+        }
+
+        /**
+         * @return The number of matches estimated from the index, or Integer.MAX_VALUE if unknown.
+         */
+        public int getEstimate() {
+            return estimate;
+        }
+
+        /**
+         * @return The name of the index or strategy that evaluates the clause.
+         */
+        public String getSource() {
+            return source;
+        }
+    }
+
+    private final ItemQuery query;
+    private final ItemIndex index;
+    private final List<Step> steps;
+
+    QueryPlan(ItemQuery query, ItemIndex index, List<Step> steps) {
+        this.query = query;
+        this.index = index;
+        this.steps = steps;
+    }
+
+    /**
+     * @return The query this plan executes.
+     */
+    public ItemQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * @return The steps of the plan in execution order.
+     */
+    public List<Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * @return The clauses the steps evaluate, in execution order. Two plans with equal clauses
+     * find the same items.
+     */
+    public List<QueryClause> getClauses() {
+        List<QueryClause> clauses = new ArrayList<>(steps.size());
+        for (Step step : steps) {
+            clauses.add(step.getClause());
+        }
+        return clauses;
+    }
+
+    /**
+     * @return True if the result is ranked by similarity rather than kept in index order.
+     */
+    public boolean isRanked() {
+        for (Step step : steps) {
+            if (step.getClause().isFuzzy()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the planned clauses directly against a single item. This includes the fuzzy
+     * fallbacks chosen by the planner, so it can differ from the query itself.
+     *
+     * @param item The item to test.
+     * @return True if the item matches the query.
+     */
+    public boolean matches(Item item) {
+        for (Step step : steps) {
+            if (!step.getClause().matches(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Picks the clause that can be pushed down to Firestore. Firestore can only compare one field
+     * with inequalities and compares strings case-sensitively, so only a single price or purchase
+     * date range is pushed down; the rest of the query has to be evaluated on the returned items.
+     *
+     * @return The most selective price or purchase date clause, or null if there is none.
+     */
+    public QueryClause getPushdownClause() {
+        for (Step step : steps) {
+            QueryClause clause = step.getClause();
+            if (!clause.isNegated() && (clause.getField() == QueryClause.Field.PRICE
+                    || clause.getField() == QueryClause.Field.BOUGHT)) {
+                return clause;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Executes the plan against the index.
+     *
+     * @return The matching items, in the order they were added to the index or by descending
+     * similarity for fuzzy queries, and the plan report.
+     * @throws CancellationException If the executing thread is interrupted between two steps.
+     */
+    public QueryResult execute() {
+        long start = System.nanoTime();
+        StringBuilder explain = new StringBuilder();
+        explain.append(String.format(Locale.US, "%d items indexed", index.size()));
+        PostingList candidates = null;
+        FuzzyMatches ranking = null;
+        int stepNumber = 1;
+        for (Step step : steps) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Query cancelled");
+            }
+            long stepStart = System.nanoTime();
+            QueryClause clause = step.getClause();
+            String source = step.getSource();
+            if (step.usesIndex()) {
+                PostingList matches;
+                if (clause.isFuzzy()) {
+                    FuzzyMatches fuzzyMatches = index.lookupFuzzy(clause);
+                    ranking = ranking == null ? fuzzyMatches : ranking.merge(fuzzyMatches);
+                    matches = fuzzyMatches.getDocIds();
+                } else {
+                    matches = index.lookup(clause);
+                }
+                candidates = candidates == null ? matches : PostingList.intersect(candidates, matches);
+                if (clause.getField() == QueryClause.Field.TEXT && clause.isPhrase()) {
+                    candidates = filter(candidates, clause);
+                    source += " + phrase check";
+                }
+            } else {
+                if (candidates == null) {
+                    source = "full scan";
+                }
+                candidates = filter(candidates == null ? index.getAll() : candidates, clause);
+            }
+            explain.append(String.format(Locale.US, "\n%d. %s via %s: %d left, %.3f ms",
+                    stepNumber++, clause, source, candidates.size(), (System.nanoTime() - stepStart) / 1e6));
+        }
+        if (candidates == null) {
+            candidates = index.getAll();
+        }
+
+        int[] docIds = candidates.toArray();
+        if (ranking != null) {
+            double[] scores = new double[docIds.length];
+            for (int i = 0; i < docIds.length; i++) {
+                scores[i] = ranking.getScore(docIds[i]);
+            }
+            rank(docIds, scores);
+            explain.append("\nranked by similarity");
+        }
+        ArrayList<Item> items = new ArrayList<>(docIds.length);
+        for (int docId : docIds) {
+            items.add(index.getItem(docId));
+        }
+        long elapsed = System.nanoTime() - start;
+        explain.append(String.format(Locale.US, "\n%d matches in %.3f ms", items.size(), elapsed / 1e6));
+        return new QueryResult(this, docIds, items, explain.toString(), elapsed);
+    }
+
+    /**
+     * Sorts document ids by descending score with a bottom-up merge sort over both arrays. The
+     * sort is stable, so ids with equal scores stay in ascending order.
+     *
+     * @param docIds The document ids in ascending order, sorted in place.
+     * @param scores The score of each id, at the same positions. Its order afterwards is undefined.
+     */
+    private static void rank(int[] docIds, double[] scores) {
+        int n = docIds.length;
+        int[] ids = docIds;
+        double[] keys = scores;
+        int[] idsTo = new int[n];
+        double[] keysTo = new double[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (j >= hi || (i < mid && keys[i] >= keys[j])) {
+                        idsTo[k] = ids[i];
+                        keysTo[k] = keys[i++];
+                    } else {
+                        idsTo[k] = ids[j];
+                        keysTo[k] = keys[j++];
+                    }
+                }
+            }
+            int[] swapIds = ids;
+            ids = idsTo;
+            idsTo = swapIds;
+            double[] swapKeys = keys;
+            keys = keysTo;
+            keysTo = swapKeys;
+        }
+        if (ids != docIds) {
+            System.arraycopy(ids, 0, docIds, 0, n);
+        }
+    }
+
+    private PostingList filter(PostingList candidates, QueryClause clause) {
+        int[] kept = new int[candidates.size()];
+        int n = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            int docId = candidates.get(i);
+            if (clause.matches(index.getItem(docId))) {
+                kept[n++] = docId;
+            }
+        }
+        return PostingList.wrap(kept, n);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Turns an ItemQuery into a QueryPlan for a given ItemIndex. The planner estimates the number of
+ * matches of every clause from the index, starts with the most selective indexed clause, and only
+ * uses further index lookups while they are cheap compared to the candidates that are left. The
+ * remaining clauses are evaluated directly against the candidate items. A make, model or word
+ * clause without a single exact match falls back to a typo-tolerant trigram lookup.
+ */
+
+package com.example.cmput301project.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+public final class QueryPlanner {
+
+    /**
+     * An indexed clause is only worth a lookup while it matches at most this many times more items
+     * than the candidates that are left; otherwise testing the candidates directly is cheaper.
+     */
+    private static final int LOOKUP_RATIO = 4;
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * Plans the execution of a query.
+     *
+     * @param query The query to plan.
+     * @param index The index the query will run against.
+     * @return The plan.
+     */
+    public static QueryPlan plan(ItemQuery query, ItemIndex index) {
+        ArrayList<QueryPlan.Step> steps = new ArrayList<>();
+        for (QueryClause clause : query.getClauses()) {
+            boolean indexed = index.canLookup(clause);
+            int estimate = indexed ? index.estimate(clause) : Integer.MAX_VALUE;
+            String source = indexed ? index.describe(clause) : "residual filter";
+            if (estimate == 0 && index.size() > 0 && allowsFuzzyFallback(clause)) {
+                clause = QueryClause.fuzzy(clause.getField(), clause.getValue(), false);
+                estimate = index.estimate(clause);
+                source = index.describe(clause) + " (fuzzy fallback)";
+            }
+            steps.add(new QueryPlan.Step(clause, indexed, estimate, source));
+        }
+        Collections.sort(steps, new Comparator<QueryPlan.Step>() {
+            @Override
+            public int compare(QueryPlan.Step a, QueryPlan.Step b) {
+                return Integer.compare(a.getEstimate(), b.getEstimate());
+            }
+        });
+
+        int remaining = index.size();
+        for (int i = 0; i < steps.size(); i++) {
+            QueryPlan.Step step = steps.get(i);
+            if (step.usesIndex() && i > 0 && step.getEstimate() > (long) remaining * LOOKUP_RATIO) {
+                step = new QueryPlan.Step(step.getClause(), false, step.getEstimate(), "residual filter");
+                steps.set(i, step);
+            }
+            if (step.usesIndex()) {
+                remaining = Math.min(remaining, step.getEstimate());
+            }
+        }
+        return new QueryPlan(query, index, steps);
+    }
+
+    /**
+     * Plans a query whose clauses are all tested against each item, in the order of the query,
+     * such as for the items Firestore returns before the local index has been built. Nothing is
+     * estimated or looked up, so planning costs no more than the clauses themselves.
+     *
+     * @param query The query to plan.
+     * @return The plan, which can match items and pick a pushdown clause, but not be executed.
+     */
+    public static QueryPlan planWithoutIndex(ItemQuery query) {
+        ArrayList<QueryPlan.Step> steps = new ArrayList<>();
+        for (QueryClause clause : query.getClauses()) {
+            steps.add(new QueryPlan.Step(clause, false, Integer.MAX_VALUE, "residual filter"));
+        }
+        return new QueryPlan(query, null, steps);
+    }
+
+    private static boolean allowsFuzzyFallback(QueryClause clause) {
+        if (clause.isNegated() || clause.isFuzzy()) {
+            return false;
+        }
+        switch (clause.getField()) {
+            case MAKE:
+            case MODEL:
+                return true;
+            case TEXT:
+                return !clause.isPhrase();
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * The outcome of executing a QueryPlan: the plan itself, the matching items and their document
+ * ids, a human readable report of how each clause was evaluated, and the total execution time.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import java.util.ArrayList;
+
+public class QueryResult {
+    private final QueryPlan plan;
+    private final int[] docIds;
+    private final ArrayList<Item> items;
+    private final String explanation;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a QueryResult.
+     *
+     * @param plan         The plan that found the items.
+     * @param docIds       The document ids of the matching items, in result order.
+     * @param items        The matching items.
+     * @param explanation  The report of the executed plan.
+     * @param elapsedNanos The total execution time in nanoseconds.
+     */
+    public QueryResult(QueryPlan plan, int[] docIds, ArrayList<Item> items, String explanation, long elapsedNanos) {
+        this.plan = plan;
+        this.docIds = docIds;
+        this.items = items;
+        this.explanation = explanation;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The plan that found the items. Its clauses can be evaluated on any thread, for
+     * example to test whether another item belongs to the result.
+     */
+    public QueryPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * @return The document ids of the matching items, in the same order as getItems().
+     */
+    public int[] getDocIds() {
+        return docIds;
+    }
+
+    /**
+     * @return The matching items.
+     */
+    public ArrayList<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Which index served each clause, how many candidates were left and how long it took.
+     */
+    public String getExplanation() {
+        return explanation;
+    }
+
+    /**
+     * @return The total execution time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Least recently used cache of sorted query results. An entry is keyed by the query, the sort
+ * order and the version of the ItemIndex it was computed from, and holds the document ids of the
+ * result in display order. Switching back to a recently used filter or sort order is then a single
+ * hash lookup instead of a new query and sort. Entries of older index versions can never be hit
+ * again, so they are dropped as soon as a newer version is seen.
+ */
+
+package com.example.cmput301project.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class ResultCache {
+    private final LinkedHashMap<Key, int[]> entries;
+    private long version;
+    private int hits;
+    private int misses;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity The maximum number of cached results.
+     */
+    public ResultCache(final int capacity) {
+        entries = new LinkedHashMap<Key, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up a cached result and marks it as recently used.
+     *
+     * @param query   The query.
+     * @param order   The sort order.
+     * @param version The current version of the index.
+     * @return The document ids of the result in display order, or null if it is not cached.
+     */
+    public int[] get(ItemQuery query, SortOrder order, long version) {
+        advance(version);
+        int[] docIds = entries.get(new Key(query, order, version));
+        if (docIds == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return docIds;
+    }
+
+    /**
+     * Caches a result, evicting the least recently used one if the cache is full.
+     *
+     * @param query   The query.
+     * @param order   The sort order.
+     * @param version The version of the index the result was computed from.
+     * @param docIds  The document ids of the result in display order. The array must not be
+     *                modified afterwards.
+     */
+    public void put(ItemQuery query, SortOrder order, long version, int[] docIds) {
+        advance(version);
+        if (version == this.version) {
+            entries.put(new Key(query, order, version), docIds);
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return The number of cached results.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of lookups that found a cached result.
+     */
+    public int getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return The number of lookups that did not find a cached result.
+     */
+    public int getMissCount() {
+        return misses;
+    }
+
+    private void advance(long version) {
+        if (version > this.version) {
+            entries.clear();
+            this.version = version;
+        }
+    }
+
+    private static class Key {
+        final ItemQuery query;
+        final SortOrder order;
+        final long version;
+
+        Key(ItemQuery query, SortOrder order, long version) {
+            this.query = query;
+            this.order = order;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return version == other.version && query.equals(other.query) && order.equals(other.order);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, order, version);
+        }
+    }
+}
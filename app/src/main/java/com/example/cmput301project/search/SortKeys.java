@@ -0,0 +1,454 @@
+/**
+ * Sort keys of the indexed items, stored by document id in primitive columns: purchase dates as
+ * epoch milliseconds, prices as whole cents, and collation keys for make and description. All keys
+ * are extracted once, when an item is indexed, so a sort never looks at the item itself. Collation
+ * keys order text by the rules of the default locale, with accented and differently composed
+ * spellings next to each other and case deciding only between otherwise equal strings. Sorting
+ * is a stable merge sort over an int[] of document ids that compares the columns directly, without
+ * boxing, and reuses its buffers between sorts. Large ranges are split into halves that are sorted
+ * on the common fork/join pool and merged, which gives the same order as sorting them in one go.
+ * Ordering by priority tags is a stable counting partition instead, which takes linear time. When
+ * only the first few ids are wanted, a bounded heap finds them without sorting the rest.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class SortKeys {
+
+    /**
+     * Stands for a missing date. Missing values sort last in either direction.
+     */
+    private static final long MISSING = Long.MIN_VALUE;
+
+    /**
+     * Runs up to this length are sorted by insertion sort before merging.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+
+    /**
+     * Ranges of at least this many ids are sorted in parallel, if there is more than one core.
+     * Below it, handing the work to other threads costs more than it saves.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 15;
+
+    /**
+     * Size of the pieces a parallel sort sorts sequentially before merging them.
+     */
+    private static final int PARALLEL_SORT_GRANULARITY = 1 << 13;
+
+    private final Collator collator;
+    private Item[] items;
+    private long[] dates;
+    private long[] cents;
+    private CollationKey[] makes;
+    private CollationKey[] descriptions;
+    private int[] tagRanks;
+    private long[] primary;
+    private int[] buffer;
+
+    /**
+     * Constructs empty sort keys.
+     */
+    public SortKeys() {
+        collator = newCollator();
+        items = new Item[16];
+        dates = new long[16];
+        cents = new long[16];
+        makes = new CollationKey[16];
+        descriptions = new CollationKey[16];
+        tagRanks = new int[16];
+        primary = new long[16];
+        buffer = new int[16];
+    }
+
+    /**
+     * Extracts the keys of an item.
+     *
+     * @param docId The document id of the item.
+     * @param item  The item.
+     */
+    public void set(int docId, Item item) {
+        ensureCapacity(docId + 1);
+        items[docId] = item;
+        dates[docId] = item.getPurchaseDate() == null ? MISSING : item.getPurchaseDate().getTime();
+        cents[docId] = item.getPriceCents();
+        makes[docId] = collationKey(item.getMake());
+        descriptions[docId] = collationKey(item.getDescription());
+    }
+
+    /**
+     * Forgets the keys of a removed item.
+     *
+     * @param docId The document id of the item.
+     */
+    public void clear(int docId) {
+        if (docId < items.length) {
+            items[docId] = null;
+            makes[docId] = null;
+            descriptions[docId] = null;
+        }
+    }
+
+    /**
+     * Sorts document ids in place. Ids that compare equal keep their relative order.
+     *
+     * @param docIds The document ids of indexed items.
+     * @param order  The sort order, followed by its tie-breakers.
+     */
+    public void sort(int[] docIds, SortOrder order) {
+        for (SortOrder level = order; level != null; level = level.getNext()) {
+            prepare(docIds, level);
+        }
+        preparePrimary(docIds, order);
+        ensureBuffer(docIds.length);
+        sortRange(docIds, 0, docIds.length, order);
+    }
+
+    /**
+     * Stably partitions document ids by priority tags: first the ids in the first posting list,
+     * then those in the second but not the first, and so on, then all others. Each group is then
+     * sorted by the tie-breakers, if any. Without tie-breakers this takes time linear in the number
+     * of ids and the sizes of the posting lists.
+     *
+     * @param docIds     The document ids to order.
+     * @param priorities The posting lists of the priority tags, most important first; null entries
+     *                   stand for tags without items.
+     * @param tieBreaker The order within each group, or null to keep the current order.
+     */
+    public void partition(int[] docIds, PostingList[] priorities, SortOrder tieBreaker) {
+        int groups = priorities.length + 1;
+        for (int docId : docIds) {
+            tagRanks[docId] = groups - 1;
+        }
+        for (int p = priorities.length - 1; p >= 0; p--) {
+            PostingList list = priorities[p];
+            for (int i = 0; list != null && i < list.size(); i++) {
+                int docId = list.get(i);
+                if (docId < tagRanks.length) {
+                    tagRanks[docId] = p;
+                }
+            }
+        }
+        int[] starts = new int[groups + 1];
+        for (int docId : docIds) {
+            starts[tagRanks[docId] + 1]++;
+        }
+        for (int g = 0; g < groups; g++) {
+            starts[g + 1] += starts[g];
+        }
+        ensureBuffer(docIds.length);
+        int[] next = Arrays.copyOf(starts, groups);
+        for (int docId : docIds) {
+            buffer[next[tagRanks[docId]]++] = docId;
+        }
+        System.arraycopy(buffer, 0, docIds, 0, docIds.length);
+
+        if (tieBreaker == null) {
+            return;
+        }
+        for (SortOrder level = tieBreaker; level != null; level = level.getNext()) {
+            prepare(docIds, level);
+        }
+        preparePrimary(docIds, tieBreaker);
+        for (int g = 0; g < groups; g++) {
+            sortRange(docIds, starts[g], starts[g + 1], tieBreaker);
+        }
+    }
+
+    /**
+     * Finds the first ids of the sorted order without sorting all of them, by keeping the best k
+     * seen so far in a heap whose root is the worst of them. This takes O(n log k) time, and the
+     * result is the same as the first k ids after sort().
+     *
+     * @param docIds The document ids of indexed items. The array is not modified.
+     * @param order  The sort order, followed by its tie-breakers.
+     * @param k      The number of ids wanted.
+     * @return The first min(k, docIds.length) ids in sorted order.
+     */
+    public int[] top(int[] docIds, SortOrder order, int k) {
+        k = Math.min(k, docIds.length);
+        if (k <= 0) {
+            return new int[0];
+        }
+        for (SortOrder level = order; level != null; level = level.getNext()) {
+            prepare(docIds, level);
+        }
+        preparePrimary(docIds, order);
+        // Heap of positions in docIds, so ties are broken by position like in the stable sort
+        int[] heap = new int[k];
+        for (int i = 0; i < k; i++) {
+            heap[i] = i;
+            siftUp(heap, i, docIds, order);
+        }
+        for (int i = k; i < docIds.length; i++) {
+            if (comparePositions(docIds, i, heap[0], order) < 0) {
+                heap[0] = i;
+                siftDown(heap, k, docIds, order);
+            }
+        }
+        int[] top = new int[k];
+        for (int size = k; size > 0; size--) {
+            top[size - 1] = docIds[heap[0]];
+            heap[0] = heap[size - 1];
+            siftDown(heap, size - 1, docIds, order);
+        }
+        return top;
+    }
+
+    private int comparePositions(int[] docIds, int i, int j, SortOrder order) {
+        int result = compare(docIds[i], docIds[j], order);
+        return result != 0 ? result : Integer.compare(i, j);
+    }
+
+    private void siftUp(int[] heap, int child, int[] docIds, SortOrder order) {
+        int position = heap[child];
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (comparePositions(docIds, heap[parent], position, order) >= 0) {
+                break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = position;
+    }
+
+    private void siftDown(int[] heap, int size, int[] docIds, SortOrder order) {
+        if (size == 0) {
+            return;
+        }
+        int position = heap[0];
+        int parent = 0;
+        while (2 * parent + 1 < size) {
+            int child = 2 * parent + 1;
+            if (child + 1 < size && comparePositions(docIds, heap[child + 1], heap[child], order) > 0) {
+                child++;
+            }
+            if (comparePositions(docIds, heap[child], position, order) <= 0) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        heap[parent] = position;
+    }
+
+    private void ensureBuffer(int size) {
+        if (buffer.length < size) {
+            buffer = new int[size];
+        }
+    }
+
+    private void sortRange(int[] docIds, int start, int end, SortOrder order) {
+        if (end - start >= PARALLEL_SORT_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+            ForkJoinPool.commonPool().invoke(new ParallelSort(docIds, start, end, order));
+        } else {
+            sortSequential(docIds, start, end, order);
+        }
+    }
+
+    private void sortSequential(int[] docIds, int start, int end, SortOrder order) {
+        for (int lo = start; lo < end; lo += INSERTION_SORT_THRESHOLD) {
+            insertionSort(docIds, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, end), order);
+        }
+        int[] from = docIds;
+        int[] to = buffer;
+        for (int width = INSERTION_SORT_THRESHOLD; width < end - start; width *= 2) {
+            for (int lo = start; lo < end; lo += 2 * width) {
+                int mid = Math.min(lo + width, end);
+                int hi = Math.min(lo + 2 * width, end);
+                merge(from, to, lo, mid, hi, order);
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != docIds) {
+            System.arraycopy(from, start, docIds, start, end - start);
+        }
+    }
+
+    /**
+     * Sorts the two halves of a range in parallel and merges them through the buffer. The halves
+     * only ever touch their own part of the ids and the buffer, and the key columns are only read,
+     * so the tasks need no locking.
+     */
+    private class ParallelSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] docIds;
+        private final int start;
+        private final int end;
+        private final SortOrder order;
+
+        ParallelSort(int[] docIds, int start, int end, SortOrder order) {
+            this.docIds = docIds;
+            this.start = start;
+            this.end = end;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= PARALLEL_SORT_GRANULARITY) {
+                sortSequential(docIds, start, end, order);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new ParallelSort(docIds, start, mid, order), new ParallelSort(docIds, mid, end, order));
+            merge(docIds, buffer, start, mid, end, order);
+            System.arraycopy(buffer, start, docIds, start, end - start);
+        }
+    }
+
+    private void insertionSort(int[] a, int lo, int hi, SortOrder order) {
+        for (int i = lo + 1; i < hi; i++) {
+            int docId = a[i];
+            int j = i - 1;
+            while (j >= lo && compare(a[j], docId, order) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = docId;
+        }
+    }
+
+    private void merge(int[] from, int[] to, int lo, int mid, int hi, SortOrder order) {
+        if (mid >= hi || compare(from[mid - 1], from[mid], order) <= 0) {
+            System.arraycopy(from, lo, to, lo, hi - lo);
+            return;
+        }
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (j >= hi || (i < mid && compare(from[i], from[j], order) <= 0)) {
+                to[k] = from[i++];
+            } else {
+                to[k] = from[j++];
+            }
+        }
+    }
+
+    /**
+     * Compares two documents by a sort order and its tie-breakers. A numeric first level has been
+     * folded into a single long per document by preparePrimary(), which settles most comparisons
+     * with one primitive comparison.
+     */
+    int compare(int a, int b, SortOrder order) {
+        SortOrder level = order;
+        if (isNumeric(order)) {
+            if (primary[a] != primary[b]) {
+                return primary[a] < primary[b] ? -1 : 1;
+            }
+            level = order.getNext();
+        }
+        for (; level != null; level = level.getNext()) {
+            int result = compareLevel(a, b, level);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private int compareLevel(int a, int b, SortOrder level) {
+        switch (level.getKey()) {
+            case DATE:
+                return compareLongs(dates[a], dates[b], level.isAscending());
+            case PRICE:
+                return compareLongs(cents[a], cents[b], level.isAscending());
+            case MAKE:
+                return compareKeys(makes[a], makes[b], level.isAscending());
+            case DESCRIPTION:
+                return compareKeys(descriptions[a], descriptions[b], level.isAscending());
+            case TAG:
+                return Integer.compare(tagRanks[a], tagRanks[b]);
+            default:
+                return 0;
+        }
+    }
+
+    private static int compareLongs(long a, long b, boolean ascending) {
+        if (a == MISSING || b == MISSING) {
+            return a == b ? 0 : (a == MISSING ? 1 : -1);
+        }
+        return ascending ? Long.compare(a, b) : Long.compare(b, a);
+    }
+
+    private static int compareKeys(CollationKey a, CollationKey b, boolean ascending) {
+        if (a == null || b == null) {
+            return a == b ? 0 : (a == null ? 1 : -1);
+        }
+        return ascending ? a.compareTo(b) : b.compareTo(a);
+    }
+
+    private static boolean isNumeric(SortOrder level) {
+        return level.getKey() == SortOrder.Key.DATE || level.getKey() == SortOrder.Key.PRICE;
+    }
+
+    /**
+     * Folds a numeric first level into one long per document that orders ascending, with the
+     * direction applied and missing values mapped to the end.
+     */
+    private void preparePrimary(int[] docIds, SortOrder order) {
+        if (!isNumeric(order)) {
+            return;
+        }
+        long[] column = order.getKey() == SortOrder.Key.DATE ? dates : cents;
+        for (int docId : docIds) {
+            long value = column[docId];
+            primary[docId] = value == MISSING ? Long.MAX_VALUE : (order.isAscending() ? value : -value);
+        }
+    }
+
+    /**
+     * Computes the keys that depend on the sort level itself, which are the priority tag ranks.
+     */
+    private void prepare(int[] docIds, SortOrder level) {
+        if (level.getKey() == SortOrder.Key.TAG) {
+            for (int docId : docIds) {
+                tagRanks[docId] = level.tagRank(items[docId]);
+            }
+        }
+    }
+
+    private CollationKey collationKey(String value) {
+        return value == null ? null : collator.getCollationKey(value);
+    }
+
+    /**
+     * Creates the collator text is sorted with. Canonical decomposition makes precomposed and
+     * combining accents compare equal, at the cost of slower comparisons, which is why keys are
+     * computed once per item instead.
+     *
+     * @return A collator for the default locale.
+     */
+    static Collator newCollator() {
+        Collator collator = Collator.getInstance();
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        collator.setStrength(Collator.TERTIARY);
+        return collator;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= items.length) {
+            return;
+        }
+        int size = Math.max(capacity, items.length * 2);
+        items = Arrays.copyOf(items, size);
+        dates = Arrays.copyOf(dates, size);
+        cents = Arrays.copyOf(cents, size);
+        makes = Arrays.copyOf(makes, size);
+        descriptions = Arrays.copyOf(descriptions, size);
+        tagRanks = Arrays.copyOf(tagRanks, size);
+        primary = Arrays.copyOf(primary, size);
+    }
+}
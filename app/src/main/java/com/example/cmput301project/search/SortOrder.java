@@ -0,0 +1,298 @@
+/**
+ * The order in which search results are displayed, as chosen in the SortItemsFragment. A sort order
+ * is a value: two orders with the same key, direction and tags are equal, which lets sorted results
+ * be cached per order. Sorting by tags puts items with the first priority tag first, then those
+ * with the second, and so on, followed by all other items. An order can have tie-breakers that
+ * decide between items the order itself considers equal. Items missing the sorted attribute are
+ * placed last, and sorting is stable, so items that compare equal on every level keep the order of
+ * the query result.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+public class SortOrder {
+
+    /**
+     * The attribute results are sorted by.
+     */
+    public enum Key {
+        NONE,
+        DATE,
+        PRICE,
+        MAKE,
+        DESCRIPTION,
+        TAG
+    }
+
+    /**
+     * Keeps the order of the query result.
+     */
+    public static final SortOrder NONE = new SortOrder(Key.NONE, true, null);
+
+    private final Key key;
+    private final boolean ascending;
+    private final List<String> tags;
+    private final SortOrder next;
+
+    /**
+     * Constructs a SortOrder.
+     *
+     * @param key       The attribute to sort by.
+     * @param ascending True for ascending order, false for descending order.
+     * @param tag       The tag whose items come first, for Key.TAG; ignored otherwise.
+     */
+    public SortOrder(Key key, boolean ascending, String tag) {
+        this(key, ascending, key == Key.TAG && tag != null
+                ? Collections.singletonList(tag)
+                : Collections.<String>emptyList(), null);
+    }
+
+    private SortOrder(Key key, boolean ascending, List<String> tags, SortOrder next) {
+        this.key = key;
+        this.ascending = ascending;
+        this.tags = key == Key.TAG ? tags : Collections.<String>emptyList();
+        this.next = next;
+    }
+
+    /**
+     * Creates an order that puts items with priority tags first. Tags are matched ignoring case.
+     *
+     * @param tags The priority tags, most important first.
+     * @return The sort order.
+     */
+    public static SortOrder byTags(List<String> tags) {
+        return new SortOrder(Key.TAG, true, Collections.unmodifiableList(new ArrayList<>(tags)), null);
+    }
+
+    /**
+     * Adds a tie-breaker to the end of this order.
+     *
+     * @param tieBreaker The order that decides between items this order considers equal.
+     * @return The combined order.
+     */
+    public SortOrder thenBy(SortOrder tieBreaker) {
+        if (key == Key.NONE) {
+            return tieBreaker;
+        }
+        return new SortOrder(key, ascending, tags, next == null ? tieBreaker : next.thenBy(tieBreaker));
+    }
+
+    /**
+     * Converts the tag of a radio button in the sort dialog into a sort order. Sorting by tags
+     * only groups the items, so the items within each group keep being sorted by the order that
+     * was chosen before, or newest first if there was none.
+     *
+     * @param radioTag  The tag of the selected radio button, such as "PRICE_LOWEST".
+     * @param tagString The tags entered for the "TAG" option, separated by commas, or null.
+     * @param previous  The order shown until now, whose key breaks ties between items with the
+     *                  same priority tag.
+     * @return The sort order, or NONE for an unknown radio button.
+     */
+    public static SortOrder fromRadioTag(String radioTag, String tagString, SortOrder previous) {
+        switch (radioTag) {
+            case "DATE_OLDEST":
+                return new SortOrder(Key.DATE, true, null);
+            case "DATE_NEWEST":
+                return new SortOrder(Key.DATE, false, null);
+            case "PRICE_LOWEST":
+                return new SortOrder(Key.PRICE, true, null);
+            case "PRICE_HIGHEST":
+                return new SortOrder(Key.PRICE, false, null);
+            case "MAKE_AtoZ":
+                return new SortOrder(Key.MAKE, true, null);
+            case "MAKE_ZtoA":
+                return new SortOrder(Key.MAKE, false, null);
+            case "DESCRIPTION_AtoZ":
+                return new SortOrder(Key.DESCRIPTION, true, null);
+            case "DESCRIPTION_ZtoA":
+                return new SortOrder(Key.DESCRIPTION, false, null);
+            case "TAG":
+                ArrayList<String> tags = new ArrayList<>();
+                if (tagString != null) {
+                    for (String tag : tagString.split(",")) {
+                        if (!tag.trim().isEmpty()) {
+                            tags.add(tag.trim());
+                        }
+                    }
+                }
+                return byTags(tags).thenBy(tieBreakerAfter(previous));
+            default:
+                return NONE;
+        }
+    }
+
+    /**
+     * @return The order that breaks ties in place of a previous order: the previous order itself,
+     * or its tie-breakers if it grouped by tags, or newest first if it does not sort by anything.
+     */
+    private static SortOrder tieBreakerAfter(SortOrder previous) {
+        SortOrder tieBreaker = previous != null && previous.key == Key.TAG ? previous.next : previous;
+        if (tieBreaker == null || tieBreaker.key == Key.NONE) {
+            return new SortOrder(Key.DATE, false, null);
+        }
+        return tieBreaker;
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * @return The priority tags of a Key.TAG order, most important first.
+     */
+    public List<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return The tie-breaker of this order, or null if there is none.
+     */
+    public SortOrder getNext() {
+        return next;
+    }
+
+    /**
+     * Sorts the document ids of a query result in place, using the precomputed keys of the index.
+     * Ordering by tags is a stable partition driven by the tag index, which takes linear time;
+     * only the tie-breakers then sort within each group.
+     *
+     * @param docIds The document ids to sort.
+     * @param index  The index the document ids belong to.
+     */
+    public void sort(int[] docIds, ItemIndex index) {
+        if (key == Key.TAG) {
+            PostingList[] priorities = new PostingList[tags.size()];
+            for (int i = 0; i < priorities.length; i++) {
+                priorities[i] = index.getTagPostings(tags.get(i));
+            }
+            index.getSortKeys().partition(docIds, priorities, next);
+        } else if (key != Key.NONE) {
+            index.getSortKeys().sort(docIds, this);
+        }
+    }
+
+    /**
+     * Sorts a list of items in place.
+     *
+     * @param items The items to sort.
+     */
+    public void sort(List<Item> items) {
+        if (key != Key.NONE) {
+            Collections.sort(items, comparator());
+        }
+    }
+
+    /**
+     * @return A comparator that puts items in this order, including the tie-breakers.
+     */
+    public Comparator<Item> comparator() {
+        final Collator collator = SortKeys.newCollator();
+        return new Comparator<Item>() {
+            @Override
+            public int compare(Item item1, Item item2) {
+                for (SortOrder level = SortOrder.this; level != null; level = level.next) {
+                    int result = level.compareLevel(item1, item2, collator);
+                    if (result != 0) {
+                        return result;
+                    }
+                }
+                return 0;
+            }
+        };
+    }
+
+    private int compareLevel(Item item1, Item item2, Collator collator) {
+        switch (key) {
+            case DATE:
+                return compareNullsLast(item1.getPurchaseDate(), item2.getPurchaseDate());
+            case PRICE:
+                return ascending ? Long.compare(item1.getPriceCents(), item2.getPriceCents())
+                        : Long.compare(item2.getPriceCents(), item1.getPriceCents());
+            case MAKE:
+                return compareStrings(item1.getMake(), item2.getMake(), collator);
+            case DESCRIPTION:
+                return compareStrings(item1.getDescription(), item2.getDescription(), collator);
+            case TAG:
+                // Put items with the most important tag at the top
+                return Integer.compare(tagRank(item1), tagRank(item2));
+            default:
+                return 0;
+        }
+    }
+
+    private <T extends Comparable<T>> int compareNullsLast(T a, T b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        return ascending ? a.compareTo(b) : b.compareTo(a);
+    }
+
+    private int compareStrings(String a, String b, Collator collator) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        return ascending ? collator.compare(a, b) : collator.compare(b, a);
+    }
+
+    /**
+     * @param item An item.
+     * @return The position of the first priority tag the item has, or the number of priority tags
+     * if it has none of them.
+     */
+    int tagRank(Item item) {
+        int rank = tags.size();
+        if (item.getTags() == null) {
+            return rank;
+        }
+        for (Tag t : item.getTags()) {
+            String name = TextNormalizer.normalize(t.getName());
+            for (int i = 0; i < rank; i++) {
+                if (TextNormalizer.normalize(tags.get(i)).equals(name)) {
+                    rank = i;
+                    break;
+                }
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SortOrder)) {
+            return false;
+        }
+        SortOrder other = (SortOrder) o;
+        return key == other.key && ascending == other.ascending && tags.equals(other.tags)
+                && Objects.equals(next, other.next);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, ascending, tags, next);
+    }
+
+    @Override
+    public String toString() {
+        String level = key == Key.TAG
+                ? "tags " + tags + " first"
+                : key.name().toLowerCase() + (ascending ? " ascending" : " descending");
+        return next == null ? level : level + ", then " + next;
+    }
+}
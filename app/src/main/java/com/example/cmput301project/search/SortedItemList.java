@@ -0,0 +1,254 @@
+/**
+ * The items shown for a search, kept in the active sort order while the store changes underneath.
+ * A full result replaces the contents at once; after that every ViewChange is applied where it
+ * belongs, found by binary search, so a changed item needs O(log n) comparisons instead of a new
+ * sort. Items the order considers equal are kept in document id order, the same tie-break the
+ * index sort produces, which makes the order total and every position unambiguous. Each insertion,
+ * removal, move and in-place change is reported to a Callback with its exact positions, so the
+ * shown rows follow a change without the list being compared with its previous version.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.UniqueId;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.RandomAccess;
+
+public class SortedItemList extends AbstractList<Item> implements RandomAccess {
+
+    /**
+     * Receives the positions affected by each change.
+     */
+    public interface Callback {
+        void onInserted(int position);
+
+        void onRemoved(int position);
+
+        /**
+         * @param fromPosition The position of the item before the move.
+         * @param toPosition   The position of the item after the move.
+         */
+        void onMoved(int fromPosition, int toPosition);
+
+        void onChanged(int position);
+    }
+
+    private final ArrayList<Entry> entries;
+    private final HashMap<UniqueId, Entry> byId;
+    private SortOrder order;
+    private Comparator<Item> comparator;
+    private Callback callback;
+
+    /**
+     * Constructs an empty list in the order of the query result.
+     */
+    public SortedItemList() {
+        entries = new ArrayList<>();
+        byId = new HashMap<>();
+        order = SortOrder.NONE;
+        comparator = order.comparator();
+    }
+
+    /**
+     * @param callback Receives the positions of later changes, or null.
+     */
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * @return The order the items are kept in.
+     */
+    public SortOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Replaces the contents with an already sorted result. No callbacks are made; the whole list
+     * has to be redisplayed.
+     *
+     * @param items  The items, sorted in the given order.
+     * @param docIds The document ids of the items, or null if they are not indexed, in which case
+     *               the position in the result breaks ties.
+     * @param order  The order the items are sorted in.
+     */
+    public void replaceAll(List<Item> items, int[] docIds, SortOrder order) {
+        this.order = order;
+        this.comparator = order.comparator();
+        entries.clear();
+        byId.clear();
+        entries.ensureCapacity(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Entry entry = new Entry(items.get(i), docIds == null ? i : docIds[i]);
+            entries.add(entry);
+            byId.put(entry.item.getUniqueId(), entry);
+        }
+    }
+
+    /**
+     * Applies a change computed for this view.
+     *
+     * @param change The change.
+     */
+    public void apply(ViewChange change) {
+        Item oldItem = change.getOldItem();
+        Item newItem = change.getNewItem();
+        if (newItem == null) {
+            if (oldItem != null) {
+                remove(oldItem.getUniqueId());
+            }
+        } else if (oldItem != null && byId.containsKey(oldItem.getUniqueId())) {
+            update(oldItem.getUniqueId(), newItem, change.getDocId());
+        } else {
+            insert(newItem, change.getDocId());
+        }
+    }
+
+    /**
+     * Inserts an item at its position in the order.
+     *
+     * @param item  The item.
+     * @param docId The document id of the item.
+     * @return The position of the item.
+     */
+    public int insert(Item item, int docId) {
+        remove(item.getUniqueId());
+        Entry entry = new Entry(item, docId);
+        int position = insertionPoint(entry);
+        entries.add(position, entry);
+        byId.put(item.getUniqueId(), entry);
+        if (callback != null) {
+            callback.onInserted(position);
+        }
+        return position;
+    }
+
+    /**
+     * Removes an item.
+     *
+     * @param id The id of the item.
+     * @return The position the item had, or -1 if it was not in the list.
+     */
+    public int remove(UniqueId id) {
+        Entry entry = byId.remove(id);
+        if (entry == null) {
+            return -1;
+        }
+        int position = positionOf(entry);
+        entries.remove(position);
+        if (callback != null) {
+            callback.onRemoved(position);
+        }
+        return position;
+    }
+
+    /**
+     * Replaces an item by its new version and moves it if its position in the order changed.
+     *
+     * @param id      The id of the item in the list.
+     * @param newItem The new version of the item.
+     * @param docId   The document id of the new version.
+     * @return The new position of the item, or -1 if it was not in the list.
+     */
+    public int update(UniqueId id, Item newItem, int docId) {
+        Entry entry = byId.remove(id);
+        if (entry == null) {
+            return -1;
+        }
+        int from = positionOf(entry);
+        entries.remove(from);
+        Entry updated = new Entry(newItem, docId);
+        int to = insertionPoint(updated);
+        entries.add(to, updated);
+        byId.put(newItem.getUniqueId(), updated);
+        if (callback != null) {
+            if (from != to) {
+                callback.onMoved(from, to);
+            }
+            callback.onChanged(to);
+        }
+        return to;
+    }
+
+    /**
+     * @param id The id of an item.
+     * @return True if the item is in the list.
+     */
+    public boolean contains(UniqueId id) {
+        return byId.containsKey(id);
+    }
+
+    @Override
+    public Item get(int position) {
+        return entries.get(position).item;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    private int compare(Entry a, Entry b) {
+        int result = comparator.compare(a.item, b.item);
+        return result != 0 ? result : Integer.compare(a.docId, b.docId);
+    }
+
+    /**
+     * @return The first position whose entry sorts after the given one.
+     */
+    private int insertionPoint(Entry entry) {
+        int lo = 0;
+        int hi = entries.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(entries.get(mid), entry) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds an entry by binary search. An item that was modified in place since it was inserted may
+     * no longer be where its current values say, so a failed search falls back to a linear scan.
+     */
+    private int positionOf(Entry entry) {
+        int lo = 0;
+        int hi = entries.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(entries.get(mid), entry) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo < entries.size() && entries.get(lo) == entry) {
+            return lo;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i) == entry) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Entry missing from sorted list: " + entry.item.getUniqueId());
+    }
+
+    private static class Entry {
+        final Item item;
+        final int docId;
+
+        Entry(Item item, int docId) {
+            this.item = item;
+            this.docId = docId;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Shared text normalization for the search engine. Index keys and query values are normalized the
+ * same way so that lookups are case-insensitive and independent of punctuation.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+public final class TextNormalizer {
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Normalizes a single value such as a make or a tag name.
+     *
+     * @param value The value to normalize, may be null.
+     * @return The trimmed, lower-cased value, or an empty string for null.
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits text into lower-cased words made of letters and digits.
+     *
+     * @param text The text to split, may be null.
+     * @return The words in order of appearance.
+     */
+    public static ArrayList<String> tokenize(String text) {
+        ArrayList<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Builds the free-text representation of an item that plain search words are matched against.
+     *
+     * @param item The item.
+     * @return The item's name, description, make and model as one string.
+     */
+    public static String searchableText(Item item) {
+        StringBuilder builder = new StringBuilder();
+        append(builder, item.getName());
+        append(builder, item.getDescription());
+        append(builder, item.getMake());
+        append(builder, item.getModel());
+        return builder.toString();
+    }
+
+    /**
+     * Joins words with single spaces, which is how phrases are compared.
+     *
+     * @param tokens The words to join.
+     * @return The joined words.
+     */
+    public static String join(ArrayList<String> tokens) {
+        StringBuilder builder = new StringBuilder();
+        for (String token : tokens) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(token);
+        }
+        return builder.toString();
+    }
+
+    private static void append(StringBuilder builder, String value) {
+        if (value != null) {
+            builder.append(value).append(' ');
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Typo-tolerant index over one text attribute of the items. Every word is padded and cut into
+ * three-character grams (" sa", "sam", "ams", ...), and each gram maps to the posting list of the
+ * documents containing it. A fuzzy lookup only merges the posting lists of the grams of the query,
+ * so candidates come from the index instead of a scan, and they are scored by the Jaccard
+ * similarity of their gram sets. "Samsng" and "samsung electronics" both find "Samsung" this way.
+ */
+
+package com.example.cmput301project.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class TrigramIndex {
+
+    /**
+     * Minimum Jaccard similarity for a fuzzy match.
+     */
+    public static final double DEFAULT_THRESHOLD = 0.3;
+
+    private final HashMap<Long, PostingList> postings;
+    private int[] gramCounts;
+    // Grams shared with the query per document during a lookup, all zero in between
+    private int[] shared;
+
+    /**
+     * Constructs an empty trigram index.
+     */
+    public TrigramIndex() {
+        postings = new HashMap<>();
+        gramCounts = new int[16];
+        shared = new int[16];
+    }
+
+    /**
+     * Indexes the text of a document.
+     *
+     * @param docId The document id.
+     * @param text  The text of the indexed attribute, may be null.
+     */
+    public void add(int docId, String text) {
+        long[] grams = trigrams(text);
+        if (docId >= gramCounts.length) {
+            gramCounts = Arrays.copyOf(gramCounts, Math.max(docId + 1, gramCounts.length * 2));
+            shared = new int[gramCounts.length];
+        }
+        gramCounts[docId] = grams.length;
+        for (long gram : grams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(gram, list);
+            }
+            list.add(docId);
+        }
+    }
+
+    /**
+     * Removes the text of a document. The text must be the same that was passed to add().
+     *
+     * @param docId The document id.
+     * @param text  The text that was indexed for the document.
+     */
+    public void remove(int docId, String text) {
+        for (long gram : trigrams(text)) {
+            PostingList list = postings.get(gram);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        if (docId < gramCounts.length) {
+            gramCounts[docId] = 0;
+        }
+    }
+
+    /**
+     * Estimates the number of candidates of a fuzzy lookup from the sizes of the posting lists.
+     *
+     * @param query The text to look up.
+     * @return The average posting list size of the grams of the query.
+     */
+    public int estimate(String query) {
+        long[] grams = trigrams(query);
+        if (grams.length == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (long gram : grams) {
+            PostingList list = postings.get(gram);
+            total += list == null ? 0 : list.size();
+        }
+        return (int) (total / grams.length);
+    }
+
+    /**
+     * Finds the documents whose text is similar to the query, in time proportional to the
+     * postings of the query's grams.
+     *
+     * @param query     The text to look up.
+     * @param threshold The minimum Jaccard similarity of a match.
+     * @return The matching documents and their similarity.
+     */
+    public FuzzyMatches search(String query, double threshold) {
+        long[] grams = trigrams(query);
+        // Counts the grams every candidate shares with the query, touching each posting once. The
+        // counts are kept between lookups and only the touched ones are cleared again afterwards.
+        int[] touched = new int[16];
+        int candidateCount = 0;
+        for (long gram : grams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size(); i++) {
+                int docId = list.get(i);
+                if (shared[docId]++ == 0) {
+                    if (candidateCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touched.length * 2);
+                    }
+                    touched[candidateCount++] = docId;
+                }
+            }
+        }
+        Arrays.sort(touched, 0, candidateCount);
+
+        int[] docIds = new int[candidateCount];
+        double[] scores = new double[candidateCount];
+        int matches = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int docId = touched[i];
+            double score = (double) shared[docId] / (grams.length + gramCounts[docId] - shared[docId]);
+            if (score >= threshold) {
+                docIds[matches] = docId;
+                scores[matches] = score;
+                matches++;
+            }
+            shared[docId] = 0;
+        }
+        return new FuzzyMatches(docIds, scores, matches);
+    }
+
+    /**
+     * Computes the Jaccard similarity of the trigram sets of two strings directly, without an index.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @return The similarity between 0 and 1.
+     */
+    public static double similarity(String a, String b) {
+        long[] x = trigrams(a);
+        long[] y = trigrams(b);
+        if (x.length == 0 || y.length == 0) {
+            return 0;
+        }
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < x.length && j < y.length) {
+            if (x[i] == y[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (x[i] < y[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (x.length + y.length - shared);
+    }
+
+    /**
+     * Cuts text into the sorted set of trigrams of its words. Each word is padded with two spaces in
+     * front and one behind, so that short words and word beginnings weigh more.
+     *
+     * @param text The text, may be null.
+     * @return The distinct trigrams, each packed into a long.
+     */
+    static long[] trigrams(String text) {
+        ArrayList<String> tokens = TextNormalizer.tokenize(text);
+        int count = 0;
+        for (String token : tokens) {
+            count += token.length() + 1;
+        }
+        long[] grams = new long[count];
+        int n = 0;
+        for (String token : tokens) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams[n++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || grams[unique - 1] != grams[i]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * The distribution of a set of item values in cents, for quantiles such as the median and for
+ * histograms. Values are counted in buckets whose bounds grow by a constant factor, so every
+ * quantile is returned within RELATIVE_ACCURACY of the true value of that rank, however many values
+ * there are. The buckets only cover the range of values seen and there are at most a few thousand
+ * of them for any price, so the sketch takes bounded memory and reading it costs time proportional
+ * to its buckets rather than its values; nothing is ever sorted.
+ * <p>
+ * Unlike sampling sketches, this one is exact about which bucket every value is in, so values can
+ * be removed again as items change, and two sketches can be merged by adding up their buckets,
+ * such as to combine the values of several makes.
+ */
+
+package com.example.cmput301project.search;
+
+import java.util.Arrays;
+
+public class ValueSketch {
+
+    /**
+     * The largest relative difference between a returned quantile and the true one.
+     */
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    // Values below one cent, which have no bucket of their own
+    private int zeroCount;
+    // counts[i] is the number of values in bucket offset + i
+    private int[] counts;
+    private int offset;
+    private int count;
+
+    /**
+     * Constructs an empty sketch.
+     */
+    public ValueSketch() {
+        counts = new int[0];
+    }
+
+    /**
+     * Counts a value.
+     *
+     * @param cents The value in cents. Values below one cent count as zero.
+     */
+    public void add(long cents) {
+        add(cents, 1);
+    }
+
+    /**
+     * Stops counting a value that was added before.
+     *
+     * @param cents The value in cents, as it was added.
+     */
+    public void remove(long cents) {
+        add(cents, -1);
+    }
+
+    /**
+     * Adds the values of another sketch to this one.
+     *
+     * @param other The sketch to add. It is not changed.
+     */
+    public void merge(ValueSketch other) {
+        zeroCount += other.zeroCount;
+        count += other.count;
+        int first = 0;
+        while (first < other.counts.length && other.counts[first] == 0) {
+            first++;
+        }
+        int last = other.counts.length - 1;
+        while (last > first && other.counts[last] == 0) {
+            last--;
+        }
+        if (first == other.counts.length) {
+            return;
+        }
+        first += other.offset;
+        last += other.offset;
+        cover(first);
+        cover(last);
+        for (int bucket = first; bucket <= last; bucket++) {
+            counts[bucket - offset] += other.counts[bucket - other.offset];
+        }
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        zeroCount = 0;
+        counts = new int[0];
+        offset = 0;
+        count = 0;
+    }
+
+    /**
+     * @return The number of values.
+     */
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Finds the value at a rank.
+     *
+     * @param quantile The rank as a fraction, such as 0.5 for the median or 0.99 for the value
+     *                 that 99% of the values are at most.
+     * @return The value in cents, within RELATIVE_ACCURACY, or 0 if there are no values.
+     */
+    public long getQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, quantile)) * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return valueOf(offset + i);
+            }
+        }
+        return valueOf(offset + counts.length - 1);
+    }
+
+    /**
+     * Counts the values in consecutive ranges, such as for the bars of a histogram.
+     *
+     * @param bounds The bounds between the ranges in cents, in increasing order. A value is
+     *               counted in the range below the first bound it is less than, within
+     *               RELATIVE_ACCURACY.
+     * @return The number of values below the first bound, between each pair of bounds and from
+     * the last bound up, so one more than the number of bounds.
+     */
+    public int[] getHistogram(long[] bounds) {
+        int[] histogram = new int[bounds.length + 1];
+        int range = 0;
+        while (range < bounds.length && bounds[range] <= 0) {
+            range++;
+        }
+        histogram[range] += zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            long value = valueOf(offset + i);
+            while (range < bounds.length && bounds[range] <= value) {
+                range++;
+            }
+            histogram[range] += counts[i];
+        }
+        return histogram;
+    }
+
+    /**
+     * @return An independent copy of the sketch.
+     */
+    public ValueSketch copy() {
+        ValueSketch copy = new ValueSketch();
+        copy.zeroCount = zeroCount;
+        copy.counts = counts.clone();
+        copy.offset = offset;
+        copy.count = count;
+        return copy;
+    }
+
+    private void add(long cents, int change) {
+        if (cents < 1) {
+            if (zeroCount + change < 0) {
+                return;
+            }
+            zeroCount += change;
+            count += change;
+            return;
+        }
+        int bucket = (int) Math.ceil(Math.log(cents) / LOG_GAMMA);
+        if (change < 0 && (bucket < offset || bucket >= offset + counts.length || counts[bucket - offset] == 0)) {
+            return;
+        }
+        cover(bucket);
+        counts[bucket - offset] += change;
+        count += change;
+    }
+
+    /**
+     * Grows the buckets to include one, keeping room to grow further in the same direction.
+     */
+    private void cover(int bucket) {
+        if (counts.length == 0) {
+            counts = new int[8];
+            offset = Math.max(0, bucket - 4);
+        } else if (bucket < offset) {
+            // Buckets start at 0 for one cent, so growing down stops there
+            int grown = Math.max(offset - bucket, Math.min(counts.length, offset));
+            int[] newCounts = new int[counts.length + grown];
+            System.arraycopy(counts, 0, newCounts, grown, counts.length);
+            counts = newCounts;
+            offset -= grown;
+        } else if (bucket >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bucket - offset + 1, counts.length * 2));
+        }
+    }
+
+    /**
+     * @return The value that is within RELATIVE_ACCURACY of every value in a bucket.
+     */
+    private static long valueOf(int bucket) {
+        return Math.max(1, Math.round(2 * Math.pow(GAMMA, bucket) / (GAMMA + 1)));
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * One change to the items shown for a search, derived on the search thread from an item change in
+ * the store. The old version of the item leaves the view if it was shown, and the new version
+ * enters it if it matches the search.
+ */
+
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+
+public class ViewChange {
+    private final Item oldItem;
+    private final Item newItem;
+    private final int docId;
+
+    /**
+     * Constructs a ViewChange.
+     *
+     * @param oldItem The version of the item to take out of the view, or null for a new item.
+     * @param newItem The version of the item to show, or null if it no longer matches.
+     * @param docId   The document id of the item in the index.
+     */
+    public ViewChange(Item oldItem, Item newItem, int docId) {
+        this.oldItem = oldItem;
+        this.newItem = newItem;
+        this.docId = docId;
+    }
+
+    /**
+     * @return The version of the item to take out of the view, or null for a new item.
+     */
+    public Item getOldItem() {
+        return oldItem;
+    }
+
+    /**
+     * @return The version of the item to show, or null if it no longer matches the search.
+     */
+    public Item getNewItem() {
+        return newItem;
+    }
+
+    public int getDocId() {
+        return docId;
+    }
+}
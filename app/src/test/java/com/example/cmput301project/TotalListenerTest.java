@@ -0,0 +1,101 @@
+package com.example.cmput301project;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that TotalListener keeps its total, count, mean and maximum exact through item changes.
+ * The counts are read directly, so no TextView is needed.
+ */
+public class TotalListenerTest {
+
+    private TotalListener listener;
+
+    private static Item item(long priceCents) {
+        return new Item("name", new Date(0), "description", "make", "model", "serial", priceCents, "comment");
+    }
+
+    private void assertTotals(int count, long totalCents, long maxCents) {
+        assertEquals(count, listener.getCount());
+        assertEquals(totalCents, listener.getTotalCents());
+        assertEquals(maxCents, listener.getMaxCents());
+    }
+
+    @Before
+    public void setUp() {
+        listener = new TotalListener(null);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTotals(0, 0, 0);
+        assertEquals(0, listener.getMeanCents());
+    }
+
+    @Test
+    public void testAddChangeRemove() {
+        Item camera = item(1999);
+        Item tv = item(50001);
+        listener.onItemAdded(camera);
+        listener.onItemAdded(tv);
+        assertTotals(2, 52000, 50001);
+        assertEquals(26000, listener.getMeanCents());
+
+        Item edited = tv.copy();
+        edited.setPriceCents(1);
+        listener.onItemChanged(tv, edited);
+        assertTotals(2, 2000, 1999);
+
+        listener.onItemRemoved(camera);
+        assertTotals(1, 1, 1);
+    }
+
+    @Test
+    public void testChangeInPlaceUsesCountedValue() {
+        Item item = item(1000);
+        listener.onItemAdded(item);
+        item.setPriceCents(2500);
+        listener.onItemChanged(item, item);
+        assertTotals(1, 2500, 2500);
+
+        item.setPriceCents(10);
+        listener.onItemRemoved(item);
+        assertTotals(0, 0, 0);
+    }
+
+    @Test
+    public void testManyChangesStayExact() {
+        Random random = new Random(1);
+        ArrayList<Item> items = new ArrayList<>();
+        for (int step = 0; step < 10000; step++) {
+            if (!items.isEmpty() && random.nextBoolean()) {
+                int i = random.nextInt(items.size());
+                Item edited = items.get(i).copy();
+                edited.setPriceCents(random.nextInt(100000));
+                listener.onItemChanged(items.get(i), edited);
+                items.set(i, edited);
+            } else if (!items.isEmpty() && random.nextInt(3) == 0) {
+                listener.onItemRemoved(items.remove(random.nextInt(items.size())));
+            } else {
+                Item item = item(random.nextInt(100000));
+                listener.onItemAdded(item);
+                items.add(item);
+            }
+        }
+        long total = 0;
+        long max = 0;
+        for (Item item : items) {
+            total += item.getPriceCents();
+            max = Math.max(max, item.getPriceCents());
+        }
+        assertTotals(items.size(), total, max);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.cmput301project.analytics;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that the InventoryRollups follow item changes. The rollups are a singleton, so every test
+ * removes the items it added again.
+ */
+public class InventoryRollupsTest {
+
+    private InventoryRollups rollups;
+    private ArrayList<Item> items;
+    private int notifications;
+
+    private static Date date(int year, int month) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(year, month - 1, 15);
+        return cal.getTime();
+    }
+
+    private Item add(String make, Date date, long priceCents, String... tags) {
+        Item item = new Item("name", date, "description", make, "model", "serial", priceCents, "comment");
+        for (String tag : tags) {
+            item.addTag(new Tag(tag));
+        }
+        rollups.onItemAdded(item);
+        items.add(item);
+        return item;
+    }
+
+    private void change(Item oldItem, Item newItem) {
+        rollups.onItemChanged(oldItem, newItem);
+        items.set(items.indexOf(oldItem), newItem);
+    }
+
+    @Before
+    public void setUp() {
+        rollups = InventoryRollups.getInstance();
+        items = new ArrayList<>();
+        notifications = 0;
+        rollups.setOnRollupsChangedListener(new InventoryRollups.OnRollupsChangedListener() {
+            @Override
+            public void onRollupsChanged(InventoryRollups changed) {
+                notifications++;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        for (Item item : items) {
+            rollups.onItemRemoved(item);
+        }
+        rollups.onChangesApplied();
+        rollups.setOnRollupsChangedListener(null);
+        assertEquals(0, rollups.getItemCount());
+    }
+
+    @Test
+    public void testRollups() {
+        add("Sony", date(2021, 3), 1000, "office", "Office", "home");
+        add("sony", date(2021, 7), 500, "home");
+        add("LG", date(2023, 1), 200);
+        add("LG", null, 50);
+
+        assertEquals(4, rollups.getItemCount());
+        assertEquals(1750, rollups.getTotalCents());
+        assertEquals(1, rollups.getUndatedCount());
+        assertEquals(50, rollups.getUndatedCents());
+        assertEquals(1500, rollups.getMakes().top(1).get(0).getCents());
+        assertEquals(2, rollups.getTags().size());
+        // An item with the same tag twice counts once for it
+        assertEquals(1, rollups.getTags().getValues("office").size());
+
+        List<Rollup.Row> years = rollups.getYears().getRows();
+        assertEquals(2, years.size());
+        assertEquals("2021", years.get(0).getLabel());
+        assertEquals(1500, years.get(0).getCents());
+        assertEquals(3, rollups.getMonths().size());
+    }
+
+    @Test
+    public void testGrowth() {
+        add("a", date(2021, 3), 1000);
+        add("b", date(2021, 3), 500);
+        add("c", date(2022, 1), 200);
+        add("d", null, 50);
+
+        List<InventoryRollups.GrowthPoint> growth = rollups.getGrowth();
+        assertEquals(2, growth.size());
+        assertEquals("2021-03", growth.get(0).getMonth());
+        assertEquals(2, growth.get(0).getCount());
+        assertEquals(1500, growth.get(0).getCents());
+        assertEquals("2022-01", growth.get(1).getMonth());
+        assertEquals(3, growth.get(1).getCount());
+        assertEquals(1700, growth.get(1).getCents());
+    }
+
+    @Test
+    public void testChanges() {
+        Item item = add("Sony", date(2021, 3), 1000, "office");
+        Item edited = item.copy();
+        edited.setMake("LG");
+        edited.setPriceCents(300);
+        edited.setPurchaseDate(null);
+        change(item, edited);
+
+        assertEquals(1, rollups.getItemCount());
+        assertEquals(300, rollups.getTotalCents());
+        assertEquals(0, rollups.getMakes().getValues("sony").size());
+        assertEquals(300, rollups.getMakes().getRows().get(0).getCents());
+        assertEquals(0, rollups.getYears().size());
+        assertEquals(1, rollups.getUndatedCount());
+    }
+
+    @Test
+    public void testChangeInPlace() {
+        Item item = add("Sony", date(2021, 3), 1000, "office");
+        item.setMake("LG");
+        item.clearTags();
+        item.setPriceCents(300);
+        rollups.onItemChanged(item, item);
+
+        assertEquals(300, rollups.getTotalCents());
+        assertEquals(1, rollups.getMakes().size());
+        assertEquals("LG", rollups.getMakes().getRows().get(0).getLabel());
+        assertEquals(0, rollups.getTags().size());
+    }
+
+    @Test
+    public void testListenerOncePerBatch() {
+        rollups.onChangesApplied();
+        notifications = 0;
+        add("a", null, 1);
+        add("b", null, 2);
+        rollups.onChangesApplied();
+        assertEquals(1, notifications);
+        rollups.onChangesApplied();
+        assertEquals(1, notifications);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.cmput301project.analytics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the groups, totals and distributions of a Rollup.
+ */
+public class RollupTest {
+
+    @Test
+    public void testGroups() {
+        Rollup rollup = new Rollup(false);
+        rollup.add("Sony", 100);
+        rollup.add(" sony", 300);
+        rollup.add("LG", 50);
+        rollup.add("  ", 1000);
+        rollup.add(null, 1000);
+
+        assertEquals(2, rollup.size());
+        List<Rollup.Row> top = rollup.top(1);
+        assertEquals(1, top.size());
+        assertEquals("Sony", top.get(0).getLabel());
+        assertEquals(2, top.get(0).getCount());
+        assertEquals(400, top.get(0).getCents());
+
+        rollup.remove("SONY", 100);
+        rollup.remove("sony", 300);
+        assertEquals(1, rollup.size());
+        assertEquals("LG", rollup.getRows().get(0).getLabel());
+    }
+
+    @Test
+    public void testOrderedLabels() {
+        Rollup rollup = new Rollup(true);
+        rollup.add("2023-04", 1);
+        rollup.add("2021-12", 1);
+        rollup.add("2022-01", 1);
+        List<Rollup.Row> rows = rollup.getRows();
+        assertEquals("2021-12", rows.get(0).getLabel());
+        assertEquals("2022-01", rows.get(1).getLabel());
+        assertEquals("2023-04", rows.get(2).getLabel());
+    }
+
+    @Test
+    public void testTopByValueThenCount() {
+        Rollup rollup = new Rollup(false);
+        rollup.add("b", 100);
+        rollup.add("a", 50);
+        rollup.add("a", 50);
+        rollup.add("c", 500);
+        List<Rollup.Row> top = rollup.top(5);
+        assertEquals(3, top.size());
+        assertEquals("c", top.get(0).getLabel());
+        assertEquals("a", top.get(1).getLabel());
+        assertEquals("b", top.get(2).getLabel());
+    }
+
+    @Test
+    public void testValues() {
+        Rollup rollup = new Rollup(false);
+        for (int i = 1; i <= 100; i++) {
+            rollup.add("low", i * 100);
+            rollup.add("high", 100000 + i * 100);
+        }
+        rollup.remove("low", 100);
+
+        assertEquals(99, rollup.getValues("LOW").size());
+        assertEquals(0, rollup.getValues("missing").size());
+        long median = rollup.getValues(Arrays.asList("low", "high", "missing")).getQuantile(0.5);
+        // The middle of the 199 values is the lowest of the high ones
+        assertEquals(100100, median, 100100 * 0.01);
+
+        // The distribution handed out is a copy
+        rollup.getValues("low").clear();
+        assertEquals(99, rollup.getValues("low").size());
+    }
+}
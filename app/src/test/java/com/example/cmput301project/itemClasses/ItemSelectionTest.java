@@ -0,0 +1,170 @@
+package com.example.cmput301project.itemClasses;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that an ItemSelection keeps the choices of the user and its totals through select all,
+ * toggles and item changes.
+ */
+public class ItemSelectionTest {
+
+    // Selects the items made by Sony, as a "select all matching" of a search would
+    private static final ItemSelection.Scope SONY = new ItemSelection.Scope() {
+        @Override
+        public boolean contains(Item item) {
+            return "Sony".equals(item.getMake());
+        }
+    };
+
+    private ItemSelection selection;
+    private Item camera;
+    private Item tv;
+    private Item radio;
+
+    private static Item item(String name, String make, long priceCents) {
+        return new Item(name, new Date(0), "description", make, "model", "serial", priceCents, "comment");
+    }
+
+    /**
+     * @return A copy of an item with a new make and price, as an edit produces it.
+     */
+    private static Item edit(Item item, String make, long priceCents) {
+        Item edited = item.copy();
+        edited.setMake(make);
+        edited.setPriceCents(priceCents);
+        return edited;
+    }
+
+    @Before
+    public void setUp() {
+        selection = new ItemSelection();
+        camera = item("camera", "Sony", 10000);
+        tv = item("tv", "Sony", 50000);
+        radio = item("radio", "LG", 2000);
+    }
+
+    private void selectSony() {
+        selection.selectMatching(SONY);
+        selection.setScopeTotals(2, 60000);
+    }
+
+    private void assertTotals(int count, long cents) {
+        assertEquals(count, selection.getSelectedCount());
+        assertEquals(cents, selection.getSelectedCents());
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(selection.isEmpty());
+        assertFalse(selection.isSelected(camera));
+        assertTotals(0, 0);
+    }
+
+    @Test
+    public void testToggle() {
+        selection.setSelected(camera, true);
+        selection.setSelected(camera, true);
+        selection.setSelected(radio, true);
+        assertTrue(selection.isSelected(camera));
+        assertFalse(selection.isSelected(tv));
+        assertTotals(2, 12000);
+
+        selection.setSelected(camera, false);
+        assertFalse(selection.isSelected(camera));
+        assertTotals(1, 2000);
+    }
+
+    @Test
+    public void testSelectMatching() {
+        selectSony();
+        selection.setSelected(tv, false);
+        selection.setSelected(radio, true);
+        assertTrue(selection.isSelected(camera));
+        assertFalse(selection.isSelected(tv));
+        assertTrue(selection.isSelected(radio));
+        assertTotals(2, 12000);
+
+        List<Item> items = Arrays.asList(camera, tv, radio);
+        assertEquals(Arrays.asList(camera, radio), selection.selectedFrom(items));
+
+        selection.clear();
+        assertTrue(selection.selectedFrom(items).isEmpty());
+        assertTotals(0, 0);
+    }
+
+    @Test
+    public void testSelectionSurvivesNewObjects() {
+        selection.setSelected(camera, true);
+        assertTrue(selection.isSelected(camera.copy()));
+    }
+
+    @Test
+    public void testChangedValueIsRecounted() {
+        selection.setSelected(camera, true);
+        Item edited = edit(camera, "Sony", 12345);
+        selection.onItemChanged(camera, edited);
+        assertTotals(1, 12345);
+    }
+
+    @Test
+    public void testDeselectedItemLeavingScopeStaysDeselected() {
+        selectSony();
+        selection.setSelected(tv, false);
+        assertTotals(1, 10000);
+
+        Item edited = edit(tv, "LG", 40000);
+        selection.onItemChanged(tv, edited);
+        // The scope no longer counts the item
+        selection.setScopeTotals(1, 10000);
+        assertFalse(selection.isSelected(edited));
+        assertTotals(1, 10000);
+    }
+
+    @Test
+    public void testSelectedItemLeavingScopeStaysSelected() {
+        selectSony();
+        Item edited = edit(tv, "LG", 40000);
+        selection.setSelected(radio, true);
+        selection.onItemChanged(tv, edited);
+        selection.setScopeTotals(1, 10000);
+        // Not toggled, so the item follows the scope
+        assertFalse(selection.isSelected(edited));
+
+        Item movedRadio = edit(radio, "Sony", 3000);
+        selection.onItemChanged(radio, movedRadio);
+        selection.setScopeTotals(2, 13000);
+        assertTrue(selection.isSelected(movedRadio));
+        assertTotals(2, 13000);
+    }
+
+    @Test
+    public void testToggledItemEnteringScopeKeepsChoice() {
+        selectSony();
+        selection.setSelected(radio, true);
+        Item edited = edit(radio, "Sony", 2000);
+        selection.onItemChanged(radio, edited);
+        selection.setScopeTotals(3, 62000);
+        assertTrue(selection.isSelected(edited));
+        assertTotals(3, 62000);
+
+        selection.setSelected(edited, false);
+        assertFalse(selection.isSelected(edited));
+        assertTotals(2, 60000);
+    }
+
+    @Test
+    public void testRemovedItemIsNotCounted() {
+        selection.setSelected(camera, true);
+        selection.onItemRemoved(camera);
+        assertTotals(0, 0);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.cmput301project.itemClasses;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for parsing and formatting amounts in cents.
+ */
+public class MoneyTest {
+
+    @Test
+    public void testParseValid() {
+        assertEquals(0, Money.parse("0"));
+        assertEquals(0, Money.parse("0."));
+        assertEquals(50, Money.parse("0.5"));
+        assertEquals(5, Money.parse("0.05"));
+        assertEquals(1200, Money.parse("12"));
+        assertEquals(1230, Money.parse("12.3"));
+        assertEquals(123456, Money.parse("1234.56"));
+        assertEquals(99999999999999999L, Money.parse("999999999999999.99"));
+    }
+
+    @Test
+    public void testParseInvalid() {
+        String[] invalid = {null, "", ".5", "1,234.56", "12.345", "-1", "01", "1.2.3", "1e3", " 1", "$5",
+                "1000000000000000"};
+        for (String text : invalid) {
+            assertEquals(String.valueOf(text), Money.INVALID, Money.parse(text));
+        }
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("1234.50", Money.format(123450));
+        assertEquals("-3.07", Money.format(-307));
+    }
+
+    @Test
+    public void testDollars() {
+        assertEquals(1999, Money.fromDollars(19.99));
+        assertEquals(10, Money.fromDollars(0.1));
+        assertEquals(19.99, Money.toDollars(1999), 0);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.cmput301project.itemClasses;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the encoding and range queries of PriceHistory.
+ */
+public class PriceHistoryTest {
+
+    /**
+     * Appends random prices, some unchanged and some at earlier times, and keeps the entries the
+     * history is expected to hold.
+     */
+    private static PriceHistory randomHistory(Random random, int appends, ArrayList<long[]> entries) {
+        PriceHistory history = PriceHistory.EMPTY;
+        long time = random.nextInt(1000);
+        for (int i = 0; i < appends; i++) {
+            time += random.nextInt(100) - 10;
+            long cents = random.nextInt(4) == 0 && !entries.isEmpty()
+                    ? entries.get(entries.size() - 1)[1]
+                    : random.nextInt(2000000) - 1000;
+            history = history.append(time, cents);
+            if (entries.isEmpty() || entries.get(entries.size() - 1)[1] != cents) {
+                long lastTime = entries.isEmpty() ? time : Math.max(time, entries.get(entries.size() - 1)[0]);
+                entries.add(new long[]{lastTime, cents});
+            }
+        }
+        return history;
+    }
+
+    private static void assertPoints(ArrayList<long[]> expected, PriceHistory.Points points) {
+        assertEquals(expected.size(), points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(expected.get(i)[0], points.getTime(i));
+            assertEquals(expected.get(i)[1], points.getCents(i));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(PriceHistory.EMPTY.isEmpty());
+        assertEquals(0, PriceHistory.EMPTY.all().size());
+        assertEquals(0, PriceHistory.fromBytes(PriceHistory.EMPTY.toBytes()).size());
+    }
+
+    @Test
+    public void testAppend() {
+        PriceHistory history = PriceHistory.EMPTY.append(1000, 500);
+        assertSame(history, history.append(2000, 500));
+        PriceHistory changed = history.append(500, 700);
+        assertEquals(2, changed.size());
+        // An earlier time is moved up to the latest entry
+        assertEquals(1000, changed.getLastTime());
+        assertEquals(700, changed.getLastCents());
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        Random random = new Random(1);
+        for (int n = 0; n < 200; n++) {
+            ArrayList<long[]> entries = new ArrayList<>();
+            PriceHistory history = randomHistory(random, random.nextInt(4 * PriceHistory.BLOCK_SIZE), entries);
+            PriceHistory decoded = PriceHistory.fromBytes(history.toBytes());
+            assertEquals(entries.size(), decoded.size());
+            assertPoints(entries, decoded.all());
+            assertEquals(history.getLastTime(), decoded.getLastTime());
+            assertEquals(history.getLastCents(), decoded.getLastCents());
+        }
+    }
+
+    @Test
+    public void testBetween() {
+        Random random = new Random(2);
+        for (int n = 0; n < 200; n++) {
+            ArrayList<long[]> entries = new ArrayList<>();
+            PriceHistory history = PriceHistory.fromBytes(randomHistory(random, random.nextInt(60), entries).toBytes());
+            for (int q = 0; q < 20; q++) {
+                long from = random.nextInt(3000) - 500;
+                long to = from + random.nextInt(1000);
+                ArrayList<long[]> expected = new ArrayList<>();
+                long[] before = null;
+                boolean atFrom = false;
+                for (long[] entry : entries) {
+                    if (entry[0] < from) {
+                        before = entry;
+                    }
+                    atFrom |= entry[0] == from;
+                }
+                if (before != null && !atFrom) {
+                    expected.add(new long[]{from, before[1]});
+                }
+                for (long[] entry : entries) {
+                    if (entry[0] >= from && entry[0] <= to) {
+                        expected.add(entry);
+                    }
+                }
+                assertPoints(expected, history.between(from, to));
+            }
+        }
+    }
+
+    @Test
+    public void testItemRecordsPriceAsOfPurchaseDate() {
+        Item item = new Item("name", new Date(1000), "description", "make", "model", "serial", 500, "comment");
+        assertEquals(1, item.getPriceHistory().size());
+        assertNull(item.getPriceHistoryBlob());
+
+        item.setPurchaseDate(new Date(2000));
+        item.changePrice(700, 5000);
+        PriceHistory.Points points = item.getPriceHistory().all();
+        assertEquals(2, points.size());
+        assertEquals(2000, points.getTime(0));
+        assertEquals(500, points.getCents(0));
+        assertEquals(5000, points.getTime(1));
+        assertEquals(700, item.getPriceCents());
+    }
+
+    @Test
+    public void testCorruptBytes() {
+        byte[][] corrupt = {{}, {2}, {1, 5}, {1, 1, 10, 0}};
+        for (byte[] bytes : corrupt) {
+            try {
+                PriceHistory.fromBytes(bytes);
+                fail("Expected an error");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+}
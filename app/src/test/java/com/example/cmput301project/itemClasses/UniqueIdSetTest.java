@@ -0,0 +1,83 @@
+package com.example.cmput301project.itemClasses;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests UniqueIdSet against a HashMap, including removals from the middle of probe sequences.
+ */
+public class UniqueIdSetTest {
+
+    private static void assertSame(Map<UniqueId, Long> expected, ArrayList<UniqueId> ids, UniqueIdSet set) {
+        assertEquals(expected.size(), set.size());
+        for (UniqueId id : ids) {
+            Long value = expected.get(id);
+            assertEquals(id.toString(), value != null, set.contains(id));
+            assertEquals(id.toString(), value == null ? 0L : value, set.getValue(id));
+        }
+    }
+
+    private static void runRandomOperations(ArrayList<UniqueId> ids, long seed) {
+        Random random = new Random(seed);
+        UniqueIdSet set = new UniqueIdSet();
+        HashMap<UniqueId, Long> expected = new HashMap<>();
+        for (int step = 0; step < 5000; step++) {
+            UniqueId id = ids.get(random.nextInt(ids.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, set.remove(id));
+            } else {
+                long value = random.nextLong();
+                assertEquals(!expected.containsKey(id), set.put(id, value));
+                expected.put(id, value);
+            }
+            if (step % 100 == 0) {
+                assertSame(expected, ids, set);
+            }
+        }
+        assertSame(expected, ids, set);
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        UniqueIdSet set = new UniqueIdSet();
+        UniqueId id = new UniqueId(1, 2);
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(id));
+        assertFalse(set.add(new UniqueId(1, 2)));
+        assertTrue(set.contains(new UniqueId(1, 2)));
+        assertFalse(set.contains(new UniqueId(2, 1)));
+        assertTrue(set.remove(new UniqueId(1, 2)));
+        assertFalse(set.remove(id));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testRandomIds() {
+        Random random = new Random(1);
+        ArrayList<UniqueId> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(new UniqueId(random.nextLong(), random.nextLong()));
+        }
+        runRandomOperations(ids, 2);
+    }
+
+    @Test
+    public void testCollidingIds() {
+        // Ids whose two halves are equal all hash to the same slot, so every lookup and removal
+        // walks one long probe sequence that also wraps around the end of the table
+        ArrayList<UniqueId> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(new UniqueId(i, i));
+            ids.add(new UniqueId(i + 1000, 7));
+        }
+        runRandomOperations(ids, 3);
+    }
+}
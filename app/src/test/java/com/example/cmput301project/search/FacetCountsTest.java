@@ -0,0 +1,119 @@
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that FacetCounts and Facet follow items as they are counted and uncounted.
+ */
+public class FacetCountsTest {
+
+    private static Date year(int year) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(year, Calendar.JUNE, 1);
+        return cal.getTime();
+    }
+
+    static Item item(String make, int year, long priceCents, String... tags) {
+        Item item = new Item("name", year == 0 ? null : year(year), "description", make, "model", "serial", priceCents, "comment");
+        for (String tag : tags) {
+            item.addTag(new Tag(tag));
+        }
+        return item;
+    }
+
+    @Test
+    public void testCounts() {
+        FacetCounts counts = new FacetCounts();
+        counts.add(item("Sony", 2020, 100, "office", "Office"));
+        counts.add(item("sony", 2021, 100, "home"));
+        counts.add(item("LG", 0, 100, "office"));
+
+        assertEquals(2, counts.getMakes().getCount("SONY"));
+        assertEquals(1, counts.getMakes().getCount("lg"));
+        // The same tag twice counts once
+        assertEquals(2, counts.getTags().getCount("office"));
+        assertEquals(1, counts.getYears().getCount("2020"));
+        assertEquals(2, counts.getYears().size());
+
+        List<Facet.Count> makes = counts.getMakes().getCounts();
+        assertEquals("Sony", makes.get(0).getLabel());
+        assertEquals(2, makes.get(0).getCount());
+        assertEquals("LG", makes.get(1).getLabel());
+    }
+
+    @Test
+    public void testAddAgainReplaces() {
+        FacetCounts counts = new FacetCounts();
+        Item item = item("Sony", 2020, 100, "office");
+        counts.add(item);
+        Item edited = item.copy();
+        edited.setMake("LG");
+        counts.add(edited);
+
+        assertEquals(0, counts.getMakes().getCount("sony"));
+        assertEquals(1, counts.getMakes().getCount("lg"));
+        assertEquals(1, counts.getTags().getCount("office"));
+    }
+
+    @Test
+    public void testRemoveAfterChangeInPlace() {
+        FacetCounts counts = new FacetCounts();
+        Item item = item("Sony", 2020, 100, "office");
+        counts.add(item);
+        item.setMake("LG");
+        item.clearTags();
+        item.setPurchaseDate(year(1999));
+
+        assertTrue(counts.remove(item));
+        assertFalse(counts.remove(item));
+        assertEquals(0, counts.getMakes().size());
+        assertEquals(0, counts.getTags().size());
+        assertEquals(0, counts.getYears().size());
+        assertFalse(counts.contains(item));
+    }
+
+    @Test
+    public void testTotals() {
+        FacetCounts counts = new FacetCounts();
+        Item camera = item("Sony", 2020, 1999);
+        Item tv = item("LG", 2021, 50001);
+        counts.add(camera);
+        counts.add(tv);
+        Item edited = tv.copy();
+        edited.setPriceCents(1);
+        counts.add(edited);
+        assertEquals(2, counts.getItemCount());
+        assertEquals(2000, counts.getTotalCents());
+
+        counts.remove(camera);
+        assertEquals(1, counts.getItemCount());
+        assertEquals(1, counts.getTotalCents());
+        counts.clear();
+        assertEquals(0, counts.getItemCount());
+        assertEquals(0, counts.getTotalCents());
+    }
+
+    @Test
+    public void testSnapshotIsIndependent() {
+        FacetCounts counts = new FacetCounts();
+        Item item = item("Sony", 2020, 100);
+        counts.add(item);
+        FacetCounts snapshot = counts.snapshot();
+        counts.remove(item);
+
+        assertEquals(1, snapshot.getMakes().getCount("sony"));
+        assertEquals(0, counts.getMakes().getCount("sony"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.example.cmput301project.search.FacetCountsTest.item;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that FacetEngine keeps the inventory and view counts current through item changes and
+ * searches.
+ */
+public class FacetEngineTest {
+
+    private ItemIndex index;
+    private FacetEngine engine;
+
+    @Before
+    public void setUp() {
+        index = new ItemIndex();
+        engine = new FacetEngine();
+    }
+
+    private void add(Item item) {
+        index.onItemAdded(item);
+        engine.onItemAdded(item);
+    }
+
+    private void change(Item oldItem, Item newItem) {
+        index.onItemChanged(oldItem, newItem);
+        engine.onItemChanged(oldItem, newItem);
+    }
+
+    private QueryPlan search(String text) {
+        QueryPlan plan = QueryPlanner.plan(QueryParser.parse(text), index);
+        engine.setView(plan, plan.execute().getItems());
+        return plan;
+    }
+
+    @Test
+    public void testViewStartsAsInventory() {
+        add(item("Sony", 2020, 100));
+        add(item("LG", 2021, 100));
+        assertEquals(2, engine.getView().getMakes().size());
+        assertEquals(2, engine.getInventory().getMakes().size());
+    }
+
+    @Test
+    public void testViewFollowsSearch() {
+        add(item("Sony", 2020, 100, "office"));
+        add(item("Sony", 2021, 100, "home"));
+        add(item("LG", 2021, 100, "office"));
+        search("tag:office");
+
+        assertEquals(1, engine.getView().getMakes().getCount("sony"));
+        assertEquals(1, engine.getView().getMakes().getCount("lg"));
+        assertEquals(0, engine.getView().getTags().getCount("home"));
+        assertEquals(3, engine.getInventory().getMakes().getCount("sony") + engine.getInventory().getMakes().getCount("lg"));
+
+        search("");
+        assertEquals(2, engine.getView().getMakes().getCount("sony"));
+    }
+
+    @Test
+    public void testViewFollowsChanges() {
+        Item camera = item("Sony", 2020, 100, "office");
+        Item tv = item("LG", 2021, 100, "home");
+        add(camera);
+        add(tv);
+        search("tag:office");
+
+        Item edited = tv.copy();
+        edited.clearTags();
+        edited.addTag(new Tag("office"));
+        change(tv, edited);
+        assertEquals(1, engine.getView().getMakes().getCount("lg"));
+
+        Item moved = camera.copy();
+        moved.clearTags();
+        change(camera, moved);
+        assertEquals(0, engine.getView().getMakes().getCount("sony"));
+        assertEquals(1, engine.getInventory().getMakes().getCount("sony"));
+
+        index.onItemRemoved(edited);
+        engine.onItemRemoved(edited);
+        assertEquals(0, engine.getView().getMakes().size());
+        assertEquals(1, engine.getInventory().getMakes().size());
+    }
+
+    @Test
+    public void testScopeSharesViewCounts() {
+        add(item("Sony", 2020, 100, "office"));
+        add(item("LG", 2021, 300, "home"));
+        QueryPlan plan = search("tag:office");
+        engine.setScope(plan, index);
+        assertSame(engine.getView(), engine.getScope());
+
+        // The view moves on and the scope keeps the counts of the search it was selected from
+        search("tag:home");
+        assertEquals(1, engine.getScope().getItemCount());
+        assertEquals(100, engine.getScope().getTotalCents());
+        assertEquals(300, engine.getView().getTotalCents());
+
+        // Going back to the selected search shares the counts again
+        search("tag:office");
+        assertSame(engine.getView(), engine.getScope());
+    }
+
+    @Test
+    public void testScopeFollowsChanges() {
+        Item camera = item("Sony", 2020, 100, "office");
+        Item tv = item("LG", 2021, 300, "home");
+        add(camera);
+        add(tv);
+        engine.setScope(QueryPlanner.plan(QueryParser.parse("price>=2"), index), index);
+        assertEquals(1, engine.getScope().getItemCount());
+        assertEquals(300, engine.getScope().getTotalCents());
+
+        Item cheaper = tv.copy();
+        cheaper.setPriceCents(150);
+        change(tv, cheaper);
+        assertEquals(0, engine.getScope().getItemCount());
+
+        Item dearer = camera.copy();
+        dearer.setPriceCents(500);
+        change(camera, dearer);
+        assertEquals(1, engine.getScope().getItemCount());
+        assertEquals(500, engine.getScope().getTotalCents());
+        assertEquals(650, engine.getInventory().getTotalCents());
+
+        engine.setScope(null, index);
+        assertNull(engine.getScope());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that ItemIndex follows items as they are added, changed and removed.
+ */
+public class ItemIndexTest {
+
+    private ItemIndex index;
+    private ItemSearcher searcher;
+
+    @Before
+    public void setUp() {
+        index = new ItemIndex();
+        searcher = new ItemSearcher(index);
+    }
+
+    private static Item item(String name, String make, long priceCents, String... tags) {
+        Item item = new Item(name, new Date(0), "description", make, "model", "serial", priceCents, "comment");
+        for (String tag : tags) {
+            item.addTag(new Tag(tag));
+        }
+        return item;
+    }
+
+    private ArrayList<Item> search(String text) {
+        return searcher.search(QueryParser.parse(text), SortOrder.NONE).getItems();
+    }
+
+    @Test
+    public void testAddAndLookup() {
+        Item camera = item("camera", "Sony", 10000, "office");
+        Item tv = item("tv", "LG", 50000, "home");
+        index.onItemAdded(camera);
+        index.onItemAdded(tv);
+
+        assertEquals(2, index.size());
+        assertEquals(1, search("make:sony").size());
+        assertSame(camera, search("make:SONY").get(0));
+        assertSame(tv, search("tag:home").get(0));
+        assertSame(camera, search("cam").get(0));
+        assertSame(tv, search("price>=200").get(0));
+        assertSame(camera, search("make~soni").get(0));
+    }
+
+    @Test
+    public void testChangeToNewItem() {
+        Item camera = item("camera", "Sony", 10000, "office");
+        index.onItemAdded(camera);
+        Item edited = camera.copy();
+        edited.setMake("LG");
+        edited.setPriceCents(100);
+        index.onItemChanged(camera, edited);
+
+        assertEquals(0, search("make:sony").size());
+        assertEquals(0, search("price>50").size());
+        assertSame(edited, search("make:lg").get(0));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testChangeInPlace() {
+        Item item = item("camera", "Sony", 10000, "office");
+        index.onItemAdded(item);
+        item.setName("tv");
+        item.setMake("LG");
+        item.setPriceCents(100);
+        item.clearTags();
+        item.addTag(new Tag("home"));
+        index.onItemChanged(item, item);
+
+        for (String stale : new String[]{"make:sony", "camera", "price>50", "tag:office", "make~sony"}) {
+            assertEquals(stale, 0, search(stale).size());
+        }
+        for (String current : new String[]{"make:lg", "tv", "price<5", "tag:home"}) {
+            assertEquals(current, 1, search(current).size());
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        Item camera = item("camera", "Sony", 10000, "office");
+        Item tv = item("tv", "LG", 50000);
+        index.onItemAdded(camera);
+        index.onItemAdded(tv);
+        index.onItemRemoved(camera);
+
+        assertEquals(1, index.size());
+        assertEquals(0, search("make:sony").size());
+        assertEquals(0, search("tag:office").size());
+        assertEquals(-1, index.getDocId(camera.getUniqueId()));
+        assertEquals(1, search("").size());
+    }
+
+    @Test
+    public void testFirstByPrice() {
+        Item cheap = item("cheap", "A", 100);
+        Item dear = item("dear", "B", 90000);
+        Item middle = item("middle", "C", 5000);
+        index.onItemAdded(cheap);
+        index.onItemAdded(dear);
+        index.onItemAdded(middle);
+        int dearId = index.getDocId(dear.getUniqueId());
+        int middleId = index.getDocId(middle.getUniqueId());
+        assertArrayEquals(new int[]{dearId, middleId}, index.first(SortOrder.Key.PRICE, false, 2));
+
+        dear.setPriceCents(1);
+        index.onItemChanged(dear, dear);
+        assertEquals(middleId, index.first(SortOrder.Key.PRICE, false, 1)[0]);
+    }
+
+    @Test
+    public void testVersionIncreases() {
+        long version = index.getVersion();
+        Item item = item("camera", "Sony", 10000);
+        index.onItemAdded(item);
+        index.onItemRemoved(item);
+        assertEquals(version + 2, index.getVersion());
+    }
+}
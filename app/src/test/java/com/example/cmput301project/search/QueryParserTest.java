@@ -0,0 +1,112 @@
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.ItemFilter;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for QueryParser and the query text rendered by ItemQuery and QueryClause.
+ */
+public class QueryParserTest {
+
+    private static final String[] QUERIES = {
+            "make:sony",
+            "make:\"bang & olufsen\" tag:office",
+            "model~x90 name~lamp ~samsng",
+            "price>100 price<=50.25",
+            "price:100..500",
+            "price:..20",
+            "price:1,234.56",
+            "bought:2019..2021",
+            "bought>2020-06 bought<=2021-03-14",
+            "-tag:broken \"4k tv\" kitchen",
+            "explain desc:kitchen"
+    };
+
+    @Test
+    public void testRoundTrip() {
+        for (String text : QUERIES) {
+            ItemQuery query = QueryParser.parse(text);
+            ItemQuery reparsed = QueryParser.parse(query.toString());
+            assertEquals(text, query, reparsed);
+            assertEquals(text, query.isExplain(), reparsed.isExplain());
+        }
+    }
+
+    @Test
+    public void testFilterTextParsesToSameQuery() {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2021, Calendar.MARCH, 1);
+        Date from = cal.getTime();
+        cal.set(2021, Calendar.MARCH, 14);
+        Date to = cal.getTime();
+        ItemFilter filter = new ItemFilter();
+        filter.setFrom(from);
+        filter.setTo(to);
+        filter.setMake("Bang & Olufsen");
+        filter.addKeyword("kitchen");
+
+        ItemQuery query = ItemQuery.fromFilter(filter);
+        assertEquals(query, QueryParser.parse(query.toString()));
+
+        // Both dates are whole days
+        cal.set(2021, Calendar.MARCH, 14, 18, 30);
+        Item item = new Item("lamp", cal.getTime(), "kitchen", "Bang & Olufsen", "model", "serial", 100, "comment");
+        assertTrue(query.matches(item));
+        cal.set(2021, Calendar.MARCH, 15, 0, 0);
+        item.setPurchaseDate(cal.getTime());
+        assertFalse(query.matches(item));
+    }
+
+    @Test
+    public void testPriceClauses() {
+        QueryClause clause = QueryParser.parse("price>100").getClauses().get(0);
+        assertEquals(QueryClause.Field.PRICE, clause.getField());
+        assertEquals(10000, clause.getLowCents());
+        assertFalse(clause.isLowInclusive());
+        assertEquals(Long.MAX_VALUE, clause.getHighCents());
+
+        clause = QueryParser.parse("price:$1,234.5..").getClauses().get(0);
+        assertEquals(123450, clause.getLowCents());
+        assertTrue(clause.isLowInclusive());
+        assertEquals(Long.MAX_VALUE, clause.getHighCents());
+    }
+
+    @Test
+    public void testNegationAndPhrases() {
+        ItemQuery query = QueryParser.parse("-make:lg \"smart tv\"");
+        assertEquals(2, query.getClauses().size());
+        assertTrue(query.getClauses().get(0).isNegated());
+        assertTrue(query.getClauses().get(1).isPhrase());
+        assertEquals("smart tv", query.getClauses().get(1).getValue());
+    }
+
+    @Test
+    public void testIncompleteFieldIsIgnored() {
+        assertTrue(QueryParser.parse("make:").isEmpty());
+        assertTrue(QueryParser.parse("   ").isEmpty());
+        assertTrue(QueryParser.parse(null).isEmpty());
+    }
+
+    @Test
+    public void testInvalidValues() {
+        for (String text : new String[]{"price>abc", "price:12.345", "bought:2021-13", "price~100", "make>sony"}) {
+            try {
+                QueryParser.parse(text);
+                fail("Expected an error for " + text);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+}
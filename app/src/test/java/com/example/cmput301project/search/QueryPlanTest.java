@@ -0,0 +1,83 @@
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the order of the results of an executed QueryPlan.
+ */
+public class QueryPlanTest {
+
+    private static final String[] MAKES = {"sony", "soni", "sonyy", "samsung", "sanyo", "son", "lg"};
+
+    @Test
+    public void testFuzzyResultsRankedByScoreThenDocId() {
+        Random random = new Random(1);
+        ItemIndex index = new ItemIndex();
+        for (int i = 0; i < 2000; i++) {
+            index.onItemAdded(new Item("item", null, "description", MAKES[random.nextInt(MAKES.length)],
+                    "model", "serial", 100, "comment"));
+        }
+        ItemQuery query = QueryParser.parse("make~sony");
+        final FuzzyMatches matches = index.lookupFuzzy(query.getClauses().get(0));
+        ArrayList<Integer> expected = new ArrayList<>();
+        for (int docId : matches.getDocIds().toArray()) {
+            expected.add(docId);
+        }
+        Collections.sort(expected, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int byScore = Double.compare(matches.getScore(b), matches.getScore(a));
+                return byScore != 0 ? byScore : Integer.compare(a, b);
+            }
+        });
+        int[] expectedIds = new int[expected.size()];
+        for (int i = 0; i < expectedIds.length; i++) {
+            expectedIds[i] = expected.get(i);
+        }
+
+        int[] docIds = QueryPlanner.plan(query, index).execute().getDocIds();
+        assertTrue(docIds.length > 1000);
+        assertArrayEquals(expectedIds, docIds);
+    }
+
+    @Test
+    public void testExactResultsInDocIdOrder() {
+        ItemIndex index = new ItemIndex();
+        for (int i = 0; i < 50; i++) {
+            index.onItemAdded(new Item("item", null, "description", i % 2 == 0 ? "sony" : "lg",
+                    "model", "serial", 100, "comment"));
+        }
+        int[] docIds = QueryPlanner.plan(QueryParser.parse("make:sony"), index).execute().getDocIds();
+        for (int i = 1; i < docIds.length; i++) {
+            assertTrue(docIds[i - 1] < docIds[i]);
+        }
+    }
+
+    @Test
+    public void testPlanWithoutIndex() {
+        ItemQuery query = QueryParser.parse("make:sony price>10 bought:2020..2021");
+        QueryPlan plan = QueryPlanner.planWithoutIndex(query);
+        assertEquals(query.getClauses(), plan.getClauses());
+        assertEquals(QueryClause.Field.PRICE, plan.getPushdownClause().getField());
+
+        Random random = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            Item item = new Item("item", new Date(1500000000000L + random.nextInt(200) * 86400000L),
+                    "description", MAKES[random.nextInt(MAKES.length)], "model", "serial",
+                    random.nextInt(3000), "comment");
+            assertEquals(query.matches(item), plan.matches(item));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.cmput301project.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the lookups, eviction and versioning of ResultCache.
+ */
+public class ResultCacheTest {
+
+    private static final SortOrder BY_PRICE = new SortOrder(SortOrder.Key.PRICE, true, null);
+
+    @Test
+    public void testHitByEqualQueryAndOrder() {
+        ResultCache cache = new ResultCache(4);
+        int[] docIds = {3, 1, 2};
+        cache.put(QueryParser.parse("make:sony"), BY_PRICE, 1, docIds);
+
+        assertArrayEquals(docIds, cache.get(QueryParser.parse("make:SONY"), new SortOrder(SortOrder.Key.PRICE, true, null), 1));
+        assertNull(cache.get(QueryParser.parse("make:sony"), SortOrder.NONE, 1));
+        assertNull(cache.get(QueryParser.parse("make:lg"), BY_PRICE, 1));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ResultCache cache = new ResultCache(2);
+        cache.put(QueryParser.parse("a"), BY_PRICE, 1, new int[]{1});
+        cache.put(QueryParser.parse("b"), BY_PRICE, 1, new int[]{2});
+        cache.get(QueryParser.parse("a"), BY_PRICE, 1);
+        cache.put(QueryParser.parse("c"), BY_PRICE, 1, new int[]{3});
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(QueryParser.parse("b"), BY_PRICE, 1));
+        assertArrayEquals(new int[]{1}, cache.get(QueryParser.parse("a"), BY_PRICE, 1));
+        assertArrayEquals(new int[]{3}, cache.get(QueryParser.parse("c"), BY_PRICE, 1));
+    }
+
+    @Test
+    public void testNewVersionDropsOldResults() {
+        ResultCache cache = new ResultCache(4);
+        cache.put(QueryParser.parse("a"), BY_PRICE, 1, new int[]{1});
+        assertNull(cache.get(QueryParser.parse("a"), BY_PRICE, 2));
+        assertEquals(0, cache.size());
+
+        // A result computed from an older version is not cached
+        cache.put(QueryParser.parse("a"), BY_PRICE, 1, new int[]{1});
+        assertEquals(0, cache.size());
+        assertNull(cache.get(QueryParser.parse("a"), BY_PRICE, 1));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+import com.example.cmput301project.itemClasses.Tag;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the primitive-key sorts of SortKeys are stable and agree with the item comparators.
+ */
+public class SortKeysTest {
+
+    private static final String[] TAGS = {"office", "Home", "garage", "kitchen"};
+    private static final String[] MAKES = {"Sony", "sony", "LG", "\u00c9mile", "apple", "Zebra", ""};
+
+    private static ItemIndex index(int size, long seed) {
+        Random random = new Random(seed);
+        ItemIndex index = new ItemIndex();
+        for (int i = 0; i < size; i++) {
+            // Few distinct values, so most items tie with others
+            Date date = random.nextInt(5) == 0 ? null : new Date(random.nextInt(10) * 86400000L);
+            Item item = new Item("item" + i, date, "desc" + random.nextInt(4),
+                    MAKES[random.nextInt(MAKES.length)], "model", "serial", random.nextInt(20) * 100, "comment");
+            for (String tag : TAGS) {
+                if (random.nextInt(4) == 0) {
+                    item.addTag(new Tag(tag));
+                }
+            }
+            index.onItemAdded(item);
+        }
+        return index;
+    }
+
+    /**
+     * Sorts with the stable Collections.sort and the item comparator, in document id order first.
+     */
+    private static int[] expected(final ItemIndex index, int[] docIds, SortOrder order) {
+        ArrayList<Integer> ids = new ArrayList<>();
+        for (int docId : docIds) {
+            ids.add(docId);
+        }
+        final Comparator<Item> comparator = order.comparator();
+        Collections.sort(ids, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return comparator.compare(index.getItem(a), index.getItem(b));
+            }
+        });
+        int[] sorted = new int[ids.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ids.get(i);
+        }
+        return sorted;
+    }
+
+    private static void assertSorts(ItemIndex index, SortOrder order) {
+        int[] docIds = index.getAll().toArray();
+        int[] expected = expected(index, docIds, order);
+        order.sort(docIds, index);
+        assertArrayEquals(order.toString(), expected, docIds);
+    }
+
+    @Test
+    public void testStableSort() {
+        ItemIndex index = index(500, 1);
+        for (SortOrder.Key key : new SortOrder.Key[]{SortOrder.Key.PRICE, SortOrder.Key.DATE, SortOrder.Key.MAKE, SortOrder.Key.DESCRIPTION}) {
+            assertSorts(index, new SortOrder(key, true, null));
+            assertSorts(index, new SortOrder(key, false, null));
+        }
+        assertSorts(index, new SortOrder(SortOrder.Key.MAKE, true, null).thenBy(new SortOrder(SortOrder.Key.PRICE, false, null)));
+    }
+
+    @Test
+    public void testStableParallelSort() {
+        // Large enough for the fork/join merge sort
+        ItemIndex index = index(40000, 2);
+        assertSorts(index, new SortOrder(SortOrder.Key.PRICE, false, null));
+        assertSorts(index, new SortOrder(SortOrder.Key.MAKE, true, null).thenBy(new SortOrder(SortOrder.Key.DATE, true, null)));
+    }
+
+    @Test
+    public void testTopIsStartOfSort() {
+        ItemIndex index = index(500, 5);
+        SortOrder[] orders = {
+                new SortOrder(SortOrder.Key.PRICE, false, null),
+                new SortOrder(SortOrder.Key.DATE, false, null),
+                new SortOrder(SortOrder.Key.MAKE, true, null).thenBy(new SortOrder(SortOrder.Key.PRICE, true, null))
+        };
+        for (SortOrder order : orders) {
+            int[] docIds = index.getAll().toArray();
+            int[] sorted = docIds.clone();
+            order.sort(sorted, index);
+            for (int k : new int[]{0, 1, 10, 499, 500, 600}) {
+                int[] top = index.getSortKeys().top(docIds, order, k);
+                assertArrayEquals(order + ", k=" + k, Arrays.copyOf(sorted, Math.min(k, sorted.length)), top);
+            }
+            assertArrayEquals(index.getAll().toArray(), docIds);
+        }
+    }
+
+    @Test
+    public void testTagPartition() {
+        ItemIndex index = index(500, 4);
+        assertSorts(index, SortOrder.byTags(Arrays.asList("home", "OFFICE")));
+        assertSorts(index, SortOrder.byTags(Arrays.asList("kitchen", "missing", "office"))
+                .thenBy(new SortOrder(SortOrder.Key.PRICE, false, null)));
+        assertSorts(index, SortOrder.byTags(Arrays.asList("garage"))
+                .thenBy(new SortOrder(SortOrder.Key.DATE, true, null))
+                .thenBy(new SortOrder(SortOrder.Key.MAKE, true, null)));
+    }
+
+    @Test
+    public void testCollationOrder() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+        try {
+            ItemIndex index = new ItemIndex();
+            // Precomposed and combining accents, and differences in case only
+            String[] makes = {"Zebra", "\u00e9mile", "apple", "eagle", "e\u0301mile", "Apple", "\u00c9mile"};
+            for (String make : makes) {
+                index.onItemAdded(new Item("name", null, "desc", make, "model", "serial", 100, "comment"));
+            }
+            int[] docIds = index.getAll().toArray();
+            new SortOrder(SortOrder.Key.MAKE, true, null).sort(docIds, index);
+            String[] sorted = new String[docIds.length];
+            for (int i = 0; i < docIds.length; i++) {
+                sorted[i] = index.getItem(docIds[i]).getMake();
+            }
+            String[] expected = {"apple", "Apple", "eagle", "\u00e9mile", "e\u0301mile", "\u00c9mile", "Zebra"};
+            assertArrayEquals(expected, sorted);
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void testEqualKeysKeepDocumentOrder() {
+        ItemIndex index = new ItemIndex();
+        for (int i = 0; i < 100; i++) {
+            index.onItemAdded(new Item("same", null, "desc", "make", "model", "serial", 500, "comment"));
+        }
+        int[] docIds = index.getAll().toArray();
+        new SortOrder(SortOrder.Key.PRICE, false, null).sort(docIds, index);
+        for (int i = 1; i < docIds.length; i++) {
+            assertTrue(docIds[i - 1] < docIds[i]);
+        }
+    }
+
+    @Test
+    public void testKeysFollowChanges() {
+        ItemIndex index = index(50, 3);
+        Item first = index.getItem(index.getAll().get(0));
+        Item edited = first.copy();
+        edited.setPriceCents(1000000);
+        index.onItemChanged(first, edited);
+        assertSorts(index, new SortOrder(SortOrder.Key.PRICE, false, null));
+    }
+}
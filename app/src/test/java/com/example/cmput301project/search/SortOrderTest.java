@@ -0,0 +1,41 @@
+package com.example.cmput301project.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the sort orders chosen in the sort dialog.
+ */
+public class SortOrderTest {
+
+    private static final SortOrder PRICE_LOWEST = new SortOrder(SortOrder.Key.PRICE, true, null);
+    private static final SortOrder DATE_NEWEST = new SortOrder(SortOrder.Key.DATE, false, null);
+
+    @Test
+    public void testRadioTags() {
+        assertEquals(PRICE_LOWEST, SortOrder.fromRadioTag("PRICE_LOWEST", null, DATE_NEWEST));
+        assertEquals(new SortOrder(SortOrder.Key.MAKE, false, null), SortOrder.fromRadioTag("MAKE_ZtoA", null, null));
+        assertEquals(SortOrder.NONE, SortOrder.fromRadioTag("UNKNOWN", null, null));
+    }
+
+    @Test
+    public void testTagsBreakTiesByPreviousOrder() {
+        SortOrder byTags = SortOrder.fromRadioTag("TAG", "office, home,", PRICE_LOWEST);
+        assertEquals(SortOrder.byTags(Arrays.asList("office", "home")).thenBy(PRICE_LOWEST), byTags);
+
+        // Choosing other tags keeps the tie-breaker rather than nesting the tag orders
+        assertEquals(SortOrder.byTags(Arrays.asList("garage")).thenBy(PRICE_LOWEST),
+                SortOrder.fromRadioTag("TAG", "garage", byTags));
+    }
+
+    @Test
+    public void testTagsBreakTiesNewestFirstByDefault() {
+        assertEquals(SortOrder.byTags(Arrays.asList("office")).thenBy(DATE_NEWEST),
+                SortOrder.fromRadioTag("TAG", "office", SortOrder.NONE));
+        assertEquals(SortOrder.byTags(Arrays.asList("office")).thenBy(DATE_NEWEST),
+                SortOrder.fromRadioTag("TAG", "office", null));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.cmput301project.search;
+
+import com.example.cmput301project.itemClasses.Item;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that SortedItemList keeps its order under changes and reports the exact positions of each
+ * change, so a list that replays the callbacks shows the same items.
+ */
+public class SortedItemListTest {
+
+    private static final SortOrder BY_PRICE = new SortOrder(SortOrder.Key.PRICE, true, null);
+
+    /**
+     * Replays the reported changes on a copy of the list, as an adapter's rows would follow them.
+     */
+    private static class Rows implements SortedItemList.Callback {
+        final SortedItemList list;
+        final ArrayList<Item> shown;
+        final ArrayList<String> calls = new ArrayList<>();
+
+        Rows(SortedItemList list) {
+            this.list = list;
+            this.shown = new ArrayList<>(list);
+        }
+
+        @Override
+        public void onInserted(int position) {
+            calls.add("inserted " + position);
+            shown.add(position, list.get(position));
+        }
+
+        @Override
+        public void onRemoved(int position) {
+            calls.add("removed " + position);
+            shown.remove(position);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            calls.add("moved " + fromPosition + " " + toPosition);
+            shown.add(toPosition, shown.remove(fromPosition));
+        }
+
+        @Override
+        public void onChanged(int position) {
+            calls.add("changed " + position);
+            shown.set(position, list.get(position));
+        }
+    }
+
+    private static Item item(String name, long priceCents) {
+        return new Item(name, null, "desc", "make", "model", "serial", priceCents, "comment");
+    }
+
+    private static Item withPrice(Item item, long priceCents) {
+        Item copy = item.copy();
+        copy.setPriceCents(priceCents);
+        return copy;
+    }
+
+    private static void assertSorted(SortedItemList list) {
+        for (int i = 1; i < list.size(); i++) {
+            assertTrue(list.get(i - 1).getPriceCents() <= list.get(i).getPriceCents());
+        }
+    }
+
+    @Test
+    public void testReplaceAllMakesNoCallbacks() {
+        SortedItemList list = new SortedItemList();
+        Rows rows = new Rows(list);
+        list.setCallback(rows);
+        list.replaceAll(Collections.singletonList(item("a", 100)), null, BY_PRICE);
+        assertEquals(1, list.size());
+        assertTrue(rows.calls.isEmpty());
+    }
+
+    @Test
+    public void testUpdateReportsMoveThenChange() {
+        Item a = item("a", 100);
+        Item b = item("b", 200);
+        Item c = item("c", 300);
+        SortedItemList list = new SortedItemList();
+        list.replaceAll(Arrays.asList(a, b, c), new int[]{0, 1, 2}, BY_PRICE);
+        Rows rows = new Rows(list);
+        list.setCallback(rows);
+
+        Item moved = withPrice(a, 400);
+        list.apply(new ViewChange(a, moved, 0));
+        assertEquals(Arrays.asList("moved 0 2", "changed 2"), rows.calls);
+        assertSame(moved, list.get(2));
+
+        rows.calls.clear();
+        Item changed = withPrice(b, 250);
+        list.apply(new ViewChange(b, changed, 1));
+        assertEquals(Collections.singletonList("changed 0"), rows.calls);
+        assertEquals(rows.shown, list);
+    }
+
+    @Test
+    public void testInsertAndRemovePositions() {
+        Item a = item("a", 100);
+        Item c = item("c", 300);
+        SortedItemList list = new SortedItemList();
+        list.replaceAll(Arrays.asList(a, c), new int[]{0, 2}, BY_PRICE);
+        Rows rows = new Rows(list);
+        list.setCallback(rows);
+
+        list.apply(new ViewChange(null, item("b", 200), 1));
+        list.apply(new ViewChange(c, null, 2));
+        list.apply(new ViewChange(a, null, 0));
+        assertEquals(Arrays.asList("inserted 1", "removed 2", "removed 0"), rows.calls);
+        assertEquals(rows.shown, list);
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    public void testRandomChangesReplayed() {
+        Random random = new Random(3);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(item("item" + i, random.nextInt(50) * 100));
+        }
+        List<Item> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, BY_PRICE.comparator());
+        SortedItemList list = new SortedItemList();
+        list.replaceAll(sorted, null, BY_PRICE);
+        Rows rows = new Rows(list);
+        list.setCallback(rows);
+
+        int nextDocId = sorted.size();
+        for (int step = 0; step < 2000; step++) {
+            int kind = random.nextInt(3);
+            if (kind == 0 || items.isEmpty()) {
+                Item added = item("new" + step, random.nextInt(50) * 100);
+                items.add(added);
+                list.apply(new ViewChange(null, added, nextDocId++));
+            } else {
+                int i = random.nextInt(items.size());
+                Item old = items.get(i);
+                if (kind == 1) {
+                    items.remove(i);
+                    list.apply(new ViewChange(old, null, -1));
+                } else {
+                    Item updated = withPrice(old, random.nextInt(50) * 100);
+                    items.set(i, updated);
+                    list.apply(new ViewChange(old, updated, nextDocId++));
+                }
+            }
+        }
+        assertEquals(items.size(), list.size());
+        assertSorted(list);
+        assertEquals(rows.shown, list);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.cmput301project.search;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that indexed fuzzy lookups find the same matches as comparing every text directly.
+ */
+public class TrigramIndexTest {
+
+    private static final String[] WORDS = {"samsung", "samsng", "sony", "soni", "lg", "panasonic", "philips", "bose"};
+
+    @Test
+    public void testSearchMatchesSimilarity() {
+        Random random = new Random(1);
+        TrigramIndex index = new TrigramIndex();
+        HashMap<Integer, String> texts = new HashMap<>();
+        for (int step = 0; step < 2000; step++) {
+            int docId = random.nextInt(200);
+            String old = texts.remove(docId);
+            if (old != null) {
+                index.remove(docId, old);
+            } else {
+                String text = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+                texts.put(docId, text);
+                index.add(docId, text);
+            }
+
+            String query = WORDS[random.nextInt(WORDS.length)];
+            TreeMap<Integer, Double> expected = new TreeMap<>();
+            for (Map.Entry<Integer, String> entry : texts.entrySet()) {
+                double score = TrigramIndex.similarity(query, entry.getValue());
+                if (score >= TrigramIndex.DEFAULT_THRESHOLD) {
+                    expected.put(entry.getKey(), score);
+                }
+            }
+            FuzzyMatches matches = index.search(query, TrigramIndex.DEFAULT_THRESHOLD);
+            assertEquals(expected.size(), matches.size());
+            int i = 0;
+            for (Map.Entry<Integer, Double> entry : expected.entrySet()) {
+                assertEquals((int) entry.getKey(), matches.getDocIds().get(i++));
+                assertEquals(entry.getValue(), matches.getScore(entry.getKey()), 1e-9);
+            }
+        }
+    }
+}
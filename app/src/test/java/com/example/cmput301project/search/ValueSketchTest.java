@@ -0,0 +1,110 @@
+package com.example.cmput301project.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the accuracy of ValueSketch quantiles, and that removing and merging values agree with
+ * counting them directly.
+ */
+public class ValueSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.1, 0.5, 0.9, 0.99, 1};
+
+    private static long randomCents(Random random) {
+        return random.nextInt(10) == 0 ? 0 : (long) Math.exp(random.nextDouble() * 25);
+    }
+
+    private static void assertQuantiles(ArrayList<Long> values, ValueSketch sketch) {
+        ArrayList<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        assertEquals(sorted.size(), sketch.size());
+        for (double quantile : QUANTILES) {
+            long exact = sorted.get((int) Math.floor(quantile * (sorted.size() - 1)));
+            long estimate = sketch.getQuantile(quantile);
+            // Within the relative accuracy, plus rounding to whole cents
+            assertTrue(quantile + ": " + estimate + " for " + exact,
+                    Math.abs(estimate - exact) <= ValueSketch.RELATIVE_ACCURACY * exact + 1);
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        ValueSketch sketch = new ValueSketch();
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.getQuantile(0.5));
+        assertArrayEquals(new int[]{0, 0}, sketch.getHistogram(new long[]{100}));
+    }
+
+    @Test
+    public void testQuantileAccuracy() {
+        Random random = new Random(1);
+        ValueSketch sketch = new ValueSketch();
+        ArrayList<Long> values = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            long cents = randomCents(random);
+            sketch.add(cents);
+            values.add(cents);
+        }
+        assertQuantiles(values, sketch);
+    }
+
+    @Test
+    public void testRemove() {
+        Random random = new Random(2);
+        ValueSketch sketch = new ValueSketch();
+        ArrayList<Long> values = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            if (!values.isEmpty() && random.nextInt(3) == 0) {
+                sketch.remove(values.remove(random.nextInt(values.size())));
+            } else {
+                long cents = randomCents(random);
+                sketch.add(cents);
+                values.add(cents);
+            }
+        }
+        assertQuantiles(values, sketch);
+        for (long cents : values) {
+            sketch.remove(cents);
+        }
+        assertTrue(sketch.isEmpty());
+        // Removing a value that was never added changes nothing
+        sketch.remove(4200);
+        assertEquals(0, sketch.size());
+    }
+
+    @Test
+    public void testMerge() {
+        Random random = new Random(3);
+        ValueSketch first = new ValueSketch();
+        ValueSketch second = new ValueSketch();
+        ArrayList<Long> values = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            long cents = i < 2000 ? random.nextInt(1000) : 100000 + random.nextInt(10000000);
+            (random.nextBoolean() ? first : second).add(cents);
+            values.add(cents);
+        }
+        ValueSketch copy = second.copy();
+        first.merge(second);
+        assertQuantiles(values, first);
+        assertEquals(copy.size(), second.size());
+        assertEquals(copy.getQuantile(0.5), second.getQuantile(0.5));
+    }
+
+    @Test
+    public void testHistogram() {
+        ValueSketch sketch = new ValueSketch();
+        long[] values = {0, 50, 150, 150, 900, 5000, 250000};
+        for (long cents : values) {
+            sketch.add(cents);
+        }
+        assertArrayEquals(new int[]{2, 3, 1, 1}, sketch.getHistogram(new long[]{100, 1000, 10000}));
+    }
+}